@@ -0,0 +1,129 @@
+package com.library.codec;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.library.config.ApplicationProperties;
+import com.library.dto.AuthorDTO;
+import com.library.dto.AuthorView;
+import com.library.dto.BookDTO;
+import com.library.dto.BookView;
+import com.library.dto.PublisherDTO;
+import com.library.dto.PublisherView;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Общий кодек Jackson: один настроенный маппер на формат и заранее собранные
+ * ObjectReader/ObjectWriter по типу DTO, чтобы запрос не искал сериализаторы заново.
+ */
+public final class JacksonCodec {
+    private static final String FILTER_ID = "sparseFields";
+    private static final List<Class<?>> DTO_TYPES = List.of(BookDTO.class, AuthorDTO.class, PublisherDTO.class,
+            BookView.class, AuthorView.class, PublisherView.class);
+
+    // Объявлены после DTO_TYPES: конструктор использует их при инициализации класса
+    public static final JacksonCodec JSON = new JacksonCodec(new ObjectMapper());
+    public static final JacksonCodec CBOR = new JacksonCodec(new CBORMapper());
+    public static final JacksonCodec SMILE = new JacksonCodec(new SmileMapper());
+
+    @JsonFilter(FILTER_ID)
+    private interface Filtered {
+    }
+
+    private final ObjectMapper mapper;
+    private final ObjectMapper filteringMapper;
+
+    private final ClassValue<ObjectReader> readers = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return mapper.readerFor(type);
+        }
+    };
+
+    private final ClassValue<ObjectWriter> writers = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return mapper.writerFor(type);
+        }
+    };
+
+    private final ClassValue<ObjectWriter> listWriters = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, type));
+        }
+    };
+
+    private final ClassValue<ObjectWriter> filteringWriters = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return filteringMapper.writerFor(type);
+        }
+    };
+
+    private final ClassValue<ObjectWriter> filteringListWriters = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return filteringMapper.writerFor(filteringMapper.getTypeFactory().constructCollectionType(List.class, type));
+        }
+    };
+
+    private JacksonCodec(ObjectMapper mapper) {
+        this.mapper = configure(mapper);
+        // Фильтр ?fields= подключается mix-in'ом только к копии: DTO и основной маппер не меняются
+        this.filteringMapper = mapper.copy().addMixIn(Object.class, Filtered.class);
+        for (Class<?> type : DTO_TYPES) {
+            readers.get(type);
+            writers.get(type);
+            listWriters.get(type);
+        }
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        // Поток ответа закрывает контейнер (и фильтр сжатия), а не Jackson
+        mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        // LocalDate пишется строкой ISO-8601 ("2020-01-31"), как и прежний String
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (ApplicationProperties.getBoolean("json.blackbird.enabled", true)) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        return mapper;
+    }
+
+    public <T> T read(Reader reader, Class<T> type) throws IOException {
+        return readers.get(type).readValue(reader);
+    }
+
+    public <T> T read(byte[] content, Class<T> type) throws IOException {
+        return readers.get(type).readValue(content);
+    }
+
+    /**
+     * @param fields свойства для вывода ({@code ?fields=}) или {@code null} — все
+     */
+    public ObjectWriter writer(Class<?> type, Set<String> fields) {
+        return fields == null ? writers.get(type) : filteringWriters.get(type).with(filters(fields));
+    }
+
+    public ObjectWriter listWriter(Class<?> elementType, Set<String> fields) {
+        return fields == null ? listWriters.get(elementType) : filteringListWriters.get(elementType).with(filters(fields));
+    }
+
+    private static SimpleFilterProvider filters(Set<String> fields) {
+        return new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+}
@@ -0,0 +1,54 @@
+package com.library.config;
+
+import com.library.exception.ConfigurationLoadException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+public class ApplicationProperties {
+    private static Properties properties;
+    static ClassLoader classLoader = ApplicationProperties.class.getClassLoader();
+
+    private ApplicationProperties() {
+    }
+
+    public static String get(String key, String defaultValue) {
+        // Системные свойства имеют приоритет над файлом (тесты, -D при запуске)
+        String override = System.getProperty(key);
+        if (override != null) {
+            return override;
+        }
+        return load().getProperty(key, defaultValue);
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
+    private static synchronized Properties load() {
+        if (properties == null) {
+            Properties loaded = new Properties();
+            try (InputStream input = classLoader.getResourceAsStream(DataSourceProvider.getPropertiesFileName())) {
+                if (input != null) {
+                    loaded.load(input);
+                }
+            } catch (IOException e) {
+                throw new ConfigurationLoadException("Ошибка загрузки конфигурации", e);
+            }
+            properties = loaded;
+        }
+        return properties;
+    }
+}
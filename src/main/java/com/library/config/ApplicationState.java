@@ -0,0 +1,34 @@
+package com.library.config;
+
+public class ApplicationState {
+    public enum Status {
+        STARTING,
+        READY,
+        FAILED
+    }
+
+    private static volatile Status status = Status.STARTING;
+
+    private ApplicationState() {
+    }
+
+    public static Status getStatus() {
+        return status;
+    }
+
+    public static boolean isReady() {
+        return status == Status.READY;
+    }
+
+    public static void markReady() {
+        status = Status.READY;
+    }
+
+    public static void markFailed() {
+        status = Status.FAILED;
+    }
+
+    public static void reset() {
+        status = Status.STARTING;
+    }
+}
@@ -2,17 +2,23 @@ package com.library.config;
 
 import com.library.exception.ConfigurationFileNotFoundException;
 import com.library.exception.ConfigurationLoadException;
+import com.library.metrics.QueryMetrics;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Properties;
 
 public class DataSourceProvider {
     private static final String PROPERTIES_FILE = "application.properties";
+    private static final String POOL_NAME = "LibraryHikariPool";
     private static HikariDataSource dataSource;
+    private static Properties properties;
+    private static final Map<Workload, DataSource> workloadDataSources = new EnumMap<>(Workload.class);
     static ClassLoader classLoader = DataSourceProvider.class.getClassLoader();
 
     private DataSourceProvider() {
@@ -29,8 +35,69 @@ public class DataSourceProvider {
         return dataSource;
     }
 
+    /**
+     * Пул на одно соединение для Flyway: statement_timeout основного пула снимается только
+     * в его сессии, соединения основного пула не меняются. Закрывается после migrate().
+     */
+    public static HikariDataSource createMigrationDataSource() {
+        HikariConfig config = new HikariConfig();
+        String testing = System.getProperty("testing");
+        if (testing != null && testing.equals("true")) {
+            config.setJdbcUrl(System.getProperty("db.url"));
+            config.setUsername(System.getProperty("db.user"));
+            config.setPassword(System.getProperty("db.password"));
+            config.setDriverClassName("org.postgresql.Driver");
+        } else {
+            Properties loaded = loadProperties();
+            config.setJdbcUrl(loaded.getProperty("db.url"));
+            config.setUsername(loaded.getProperty("db.user"));
+            config.setPassword(loaded.getProperty("db.password"));
+            config.setDriverClassName(loaded.getProperty("db.driver"));
+        }
+        config.setMaximumPoolSize(1);
+        config.setMinimumIdle(0);
+        config.setPoolName(POOL_NAME + "-migrations");
+        config.setConnectionInitSql("SET statement_timeout = 0");
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Пул для класса нагрузки (bulkhead). Если для нагрузки не задан
+     * {@code db.pool.<key>.size}, используется основной пул.
+     */
+    public static DataSource getDataSource(Workload workload) {
+        DataSource primary = getDataSource();
+        if (workload.getPoolKey() == null) {
+            return primary;
+        }
+        synchronized (workloadDataSources) {
+            return workloadDataSources.computeIfAbsent(workload, key -> createWorkloadDataSource(key, primary));
+        }
+    }
+
+    private static DataSource createWorkloadDataSource(Workload workload, DataSource primary) {
+        // В тестовом режиме и без отдельной настройки все нагрузки делят основной пул
+        if (properties == null) {
+            return primary;
+        }
+        String size = properties.getProperty("db.pool." + workload.getPoolKey() + ".size");
+        if (size == null) {
+            return primary;
+        }
+        HikariConfig config = createConfig(properties);
+        config.setMaximumPoolSize(Integer.parseInt(size.trim()));
+        config.setMinimumIdle(Integer.parseInt(properties.getProperty(
+                "db.pool." + workload.getPoolKey() + ".minIdle", "1").trim()));
+        config.setPoolName(POOL_NAME + "-" + workload.getPoolKey());
+        return new HikariDataSource(config);
+    }
+
     private static synchronized void initializeDataSource() {
         if (dataSource == null) {
+            synchronized (workloadDataSources) {
+                workloadDataSources.clear();
+            }
+            properties = null;
             String testing = System.getProperty("testing");
             if (testing != null && testing.equals("true")) {
                 HikariConfig config = new HikariConfig();
@@ -38,40 +105,58 @@ public class DataSourceProvider {
                 config.setUsername(System.getProperty("db.user"));
                 config.setPassword(System.getProperty("db.password"));
                 config.setDriverClassName("org.postgresql.Driver");
+                config.setMetricsTrackerFactory(QueryMetrics.hikariTrackerFactory());
                 dataSource = new HikariDataSource(config);
                 return;
             }
-            try (InputStream input = classLoader.getResourceAsStream(PROPERTIES_FILE)) {
-                if (input == null) {
-                    throw new ConfigurationFileNotFoundException("Не найден файл конфигурации: " + PROPERTIES_FILE);
-                }
+            Properties loaded = loadProperties();
+            HikariConfig config = createConfig(loaded);
 
-                Properties properties = new Properties();
-                properties.load(input);
+            // Настройки пула
+            config.setMaximumPoolSize(Integer.parseInt(loaded.getProperty("db.pool.size", "10")));
+            config.setMinimumIdle(Integer.parseInt(loaded.getProperty("db.pool.minIdle", "2")));
+            config.setPoolName(POOL_NAME);
 
-                HikariConfig config = new HikariConfig();
-                config.setJdbcUrl(properties.getProperty("db.url"));
-                config.setUsername(properties.getProperty("db.user"));
-                config.setPassword(properties.getProperty("db.password"));
-                config.setDriverClassName(properties.getProperty("db.driver"));
-
-                // Настройки пула
-                config.setMaximumPoolSize(Integer.parseInt(properties.getProperty("db.pool.size", "10")));
-                config.setMinimumIdle(Integer.parseInt(properties.getProperty("db.pool.minIdle", "2")));
-                config.setIdleTimeout(30000);
-                config.setMaxLifetime(1800000);
-                config.setConnectionTimeout(10000);
-                config.setPoolName("LibraryHikariPool");
-
-                String initTimeout = properties.getProperty("db.initializationFailTimeout");
-                if (initTimeout != null) {
-                    config.setInitializationFailTimeout(Long.parseLong(initTimeout));
-                }
+            dataSource = new HikariDataSource(config);
+            properties = loaded;
+        }
+    }
 
-                dataSource = new HikariDataSource(config);
-            } catch (IOException e) {
-                throw new ConfigurationLoadException("Ошибка загрузки конфигурации", e);
+    private static Properties loadProperties() {
+        try (InputStream input = classLoader.getResourceAsStream(PROPERTIES_FILE)) {
+            if (input == null) {
+                throw new ConfigurationFileNotFoundException("Не найден файл конфигурации: " + PROPERTIES_FILE);
             }
+
+            Properties loaded = new Properties();
+            loaded.load(input);
+            return loaded;
+        } catch (IOException e) {
+            throw new ConfigurationLoadException("Ошибка загрузки конфигурации", e);
+        }
+    }
+
+    private static HikariConfig createConfig(Properties properties) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(properties.getProperty("db.url"));
+        config.setUsername(properties.getProperty("db.user"));
+        config.setPassword(properties.getProperty("db.password"));
+        config.setDriverClassName(properties.getProperty("db.driver"));
+        config.setIdleTimeout(30000);
+        config.setMaxLifetime(1800000);
+        config.setConnectionTimeout(10000);
+        config.setMetricsTrackerFactory(QueryMetrics.hikariTrackerFactory());
+
+        // Серверный таймаут на случай, если клиентский cancel не дошёл до PostgreSQL
+        String statementTimeout = properties.getProperty("db.statementTimeoutMs");
+        if (statementTimeout != null) {
+            config.setConnectionInitSql("SET statement_timeout = " + Long.parseLong(statementTimeout.trim()));
+        }
+
+        String initTimeout = properties.getProperty("db.initializationFailTimeout");
+        if (initTimeout != null) {
+            config.setInitializationFailTimeout(Long.parseLong(initTimeout));
         }
+        return config;
     }
 }
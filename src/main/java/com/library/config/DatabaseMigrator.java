@@ -0,0 +1,32 @@
+package com.library.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+
+public class DatabaseMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseMigrator.class);
+
+    private static final String DEFAULT_LOCATION = "classpath:db/migration";
+
+    private DatabaseMigrator() {
+    }
+
+    public static MigrateResult migrate(DataSource dataSource) {
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations(ApplicationProperties.get("db.migration.locations", DEFAULT_LOCATION))
+                .schemas("public")
+                .baselineOnMigrate(true)
+                .load();
+
+        logger.info("Applying database migrations...");
+        MigrateResult result = flyway.migrate();
+        logger.info("Database migrations complete: {} applied, schema version {}",
+                result.migrationsExecuted, result.targetSchemaVersion);
+        return result;
+    }
+}
@@ -0,0 +1,28 @@
+package com.library.config;
+
+public class RequestDeadline {
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(long timeoutMillis) {
+        DEADLINE_NANOS.set(System.nanoTime() + timeoutMillis * 1_000_000L);
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    /**
+     * Оставшееся время текущего запроса в миллисекундах,
+     * {@link Long#MAX_VALUE}, если поток не обслуживает HTTP-запрос.
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return (deadline - System.nanoTime()) / 1_000_000L;
+    }
+}
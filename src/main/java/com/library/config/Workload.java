@@ -0,0 +1,20 @@
+package com.library.config;
+
+public enum Workload {
+    POINT_READ(null),
+    LIST("list"),
+    WRITE("write");
+
+    private final String poolKey;
+
+    Workload(String poolKey) {
+        this.poolKey = poolKey;
+    }
+
+    /**
+     * Суффикс свойств пула ({@code db.pool.<key>.size}); {@code null} для основного пула.
+     */
+    public String getPoolKey() {
+        return poolKey;
+    }
+}
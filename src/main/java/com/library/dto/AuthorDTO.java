@@ -1,30 +1,18 @@
 package com.library.dto;
 
-import com.library.model.Author;
-import com.library.model.Book;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Collection;
 
 public class AuthorDTO {
     private int id;
     private String name;
     private String surname;
     private String country;
-    private Set<Integer> bookIds;
+    private IdSet bookIds;
 
     public AuthorDTO() {}
 
-    public AuthorDTO(Author author) {
-        this.id = author.getId();
-        this.name = author.getName();
-        this.surname = author.getSurname();
-        this.country = author.getCountry();
-        this.bookIds = author.getBooks().stream()
-                .map(Book::getId)
-                .collect(Collectors.toSet());
-    }
-
     public int getId() {
         return id;
     }
@@ -41,7 +29,7 @@ public class AuthorDTO {
         return country;
     }
 
-    public Set<Integer> getBookIds() {
+    public IdSet getBookIds() {
         return bookIds;
     }
 
@@ -61,7 +49,8 @@ public class AuthorDTO {
         this.country = country;
     }
 
-    public void setBookIds(Set<Integer> bookIds) {
-        this.bookIds = bookIds;
+    @JsonDeserialize(as = IdSet.class)
+    public void setBookIds(Collection<Integer> bookIds) {
+        this.bookIds = IdSet.copyOf(bookIds);
     }
 }
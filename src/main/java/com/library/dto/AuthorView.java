@@ -0,0 +1,12 @@
+package com.library.dto;
+
+/**
+ * Неизменяемое представление автора для ответов GET, JSON совпадает с {@link AuthorDTO}.
+ */
+public record AuthorView(int id, String name, String surname, String country, IdSet bookIds) {
+    public AuthorView {
+        if (bookIds == null) {
+            bookIds = IdSet.empty();
+        }
+    }
+}
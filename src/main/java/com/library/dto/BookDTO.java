@@ -1,32 +1,20 @@
 package com.library.dto;
 
-import com.library.model.Book;
-import com.library.model.Author;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.time.LocalDate;
+import java.util.Collection;
 
 public class BookDTO {
     private int id;
     private String title;
-    private String publishedDate;
+    private LocalDate publishedDate;
     private String genre;
     private Integer publisherId;
-    private Set<Integer> authorIds;
+    private IdSet authorIds;
 
     public BookDTO() {}
 
-    public BookDTO(Book book) {
-        this.id = book.getId();
-        this.title = book.getTitle();
-        this.publishedDate = book.getPublishedDate();
-        this.genre = book.getGenre();
-        this.publisherId = book.getPublisher() != null ? book.getPublisher().getId() : null;
-        this.authorIds = book.getAuthors().stream()
-                .map(Author::getId)
-                .collect(Collectors.toSet());
-    }
-
     public int getId() {
         return id;
     }
@@ -35,7 +23,7 @@ public class BookDTO {
         return title;
     }
 
-    public String getPublishedDate() {
+    public LocalDate getPublishedDate() {
         return publishedDate;
     }
 
@@ -47,7 +35,7 @@ public class BookDTO {
         return publisherId;
     }
 
-    public Set<Integer> getAuthorIds() {
+    public IdSet getAuthorIds() {
         return authorIds;
     }
 
@@ -59,7 +47,7 @@ public class BookDTO {
         this.title = title;
     }
 
-    public void setPublishedDate(String publishedDate) {
+    public void setPublishedDate(LocalDate publishedDate) {
         this.publishedDate = publishedDate;
     }
 
@@ -71,7 +59,8 @@ public class BookDTO {
         this.publisherId = publisherId;
     }
 
-    public void setAuthorIds(Set<Integer> authorIds) {
-        this.authorIds = authorIds;
+    @JsonDeserialize(as = IdSet.class)
+    public void setAuthorIds(Collection<Integer> authorIds) {
+        this.authorIds = IdSet.copyOf(authorIds);
     }
 }
@@ -0,0 +1,11 @@
+package com.library.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Элемент PATCH /books/_bulk: отсутствующие поля и поля со значением {@code null}
+ * не меняются — очистить поле (например, отвязать издателя) можно только через PUT.
+ * {@code version} — версия из ETag, при несовпадении книга не меняется.
+ */
+public record BookPatchDTO(int id, Long version, String title, LocalDate publishedDate, String genre, Integer publisherId) {
+}
@@ -0,0 +1,15 @@
+package com.library.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Неизменяемое представление книги для ответов GET. Компоненты идут в порядке свойств
+ * {@link BookDTO}, поэтому JSON у них одинаковый; {@link BookDTO} остаётся телом запросов.
+ */
+public record BookView(int id, String title, LocalDate publishedDate, String genre, Integer publisherId, IdSet authorIds) {
+    public BookView {
+        if (authorIds == null) {
+            authorIds = IdSet.empty();
+        }
+    }
+}
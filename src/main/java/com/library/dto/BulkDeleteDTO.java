@@ -0,0 +1,17 @@
+package com.library.dto;
+
+/**
+ * Тело POST /{ресурс}/_bulk-delete: {@code {"ids": [1, 2, 3]}}, не больше {@value #MAX_IDS} id.
+ */
+public record BulkDeleteDTO(IdSet ids) {
+    public static final int MAX_IDS = 10_000;
+
+    public BulkDeleteDTO {
+        if (ids == null) {
+            ids = IdSet.empty();
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " ids per request");
+        }
+    }
+}
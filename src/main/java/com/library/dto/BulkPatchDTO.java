@@ -0,0 +1,19 @@
+package com.library.dto;
+
+import java.util.List;
+
+/**
+ * Тело PATCH /books/_bulk: {@code {"items": [{"id": 1, "genre": "Poetry"}, ...]}},
+ * не больше {@value BulkDeleteDTO#MAX_IDS} элементов. {@code null} в элементе значит «не менять»,
+ * а не «очистить».
+ */
+public record BulkPatchDTO(List<BookPatchDTO> items) {
+    public BulkPatchDTO {
+        if (items == null) {
+            items = List.of();
+        }
+        if (items.size() > BulkDeleteDTO.MAX_IDS) {
+            throw new IllegalArgumentException("At most " + BulkDeleteDTO.MAX_IDS + " items per request");
+        }
+    }
+}
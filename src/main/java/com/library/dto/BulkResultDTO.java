@@ -0,0 +1,43 @@
+package com.library.dto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ответ пакетных операций: исход по каждому запрошенному id.
+ */
+public record BulkResultDTO(List<Outcome> results) {
+    public enum Status {
+        DELETED,
+        UPDATED,
+        NOT_FOUND,
+        CONFLICT
+    }
+
+    public record Outcome(int id, Status status) {
+    }
+
+    public static BulkResultDTO deleted(Collection<Integer> requested, Set<Integer> deleted) {
+        return of(requested, deleted, Status.DELETED, Set.of());
+    }
+
+    /**
+     * @param conflicts id книг, которые есть, но не в ожидаемой версии
+     */
+    public static BulkResultDTO updated(Collection<Integer> requested, Set<Integer> updated, Set<Integer> conflicts) {
+        return of(requested, updated, Status.UPDATED, conflicts);
+    }
+
+    private static BulkResultDTO of(Collection<Integer> requested, Set<Integer> applied, Status appliedStatus, Set<Integer> conflicts) {
+        List<Outcome> results = new ArrayList<>(requested.size());
+        for (int id : requested) {
+            Status status = applied.contains(id) ? appliedStatus
+                    : conflicts.contains(id) ? Status.CONFLICT
+                    : Status.NOT_FOUND;
+            results.add(new Outcome(id, status));
+        }
+        return new BulkResultDTO(results);
+    }
+}
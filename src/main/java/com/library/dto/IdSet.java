@@ -0,0 +1,194 @@
+package com.library.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Неизменяемое множество id на отсортированном int[] без повторов. Маппинг и
+ * (де)сериализация работают с примитивами: Jackson пишет массив напрямую, без
+ * Integer на каждый id. Интерфейс {@code Set<Integer>} оставлен для совместимости
+ * и упаковывает значения только при обращении через него.
+ */
+@JsonSerialize(using = IdSet.Serializer.class)
+@JsonDeserialize(using = IdSet.Deserializer.class)
+public final class IdSet extends AbstractSet<Integer> {
+    private static final IdSet EMPTY = new IdSet(new int[0]);
+
+    private final int[] ids;
+
+    private IdSet(int[] sortedDistinct) {
+        this.ids = sortedDistinct;
+    }
+
+    public static IdSet empty() {
+        return EMPTY;
+    }
+
+    public static IdSet of(int... ids) {
+        return fromUnsorted(ids.clone(), ids.length);
+    }
+
+    /**
+     * Id элементов коллекции, например {@code IdSet.collect(book.getAuthors(), Author::getId)}.
+     */
+    public static <T> IdSet collect(Collection<T> values, ToIntFunction<? super T> id) {
+        if (values == null || values.isEmpty()) {
+            return EMPTY;
+        }
+        int[] ids = new int[values.size()];
+        int length = 0;
+        for (T value : values) {
+            ids[length++] = id.applyAsInt(value);
+        }
+        return fromUnsorted(ids, length);
+    }
+
+    public static IdSet copyOf(Collection<Integer> ids) {
+        if (ids == null) {
+            return null;
+        }
+        if (ids instanceof IdSet idSet) {
+            return idSet;
+        }
+        return collect(ids, Integer::intValue);
+    }
+
+    private static IdSet fromUnsorted(int[] ids, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(ids, 0, length);
+        int distinct = 1;
+        for (int i = 1; i < length; i++) {
+            if (ids[i] != ids[distinct - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return new IdSet(distinct == ids.length ? ids : Arrays.copyOf(ids, distinct));
+    }
+
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public void forEachId(IntConsumer action) {
+        for (int id : ids) {
+            action.accept(id);
+        }
+    }
+
+    public int[] toIntArray() {
+        return ids.clone();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer id && contains(id.intValue());
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < ids.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (next >= ids.length) {
+                    throw new NoSuchElementException();
+                }
+                return ids[next++];
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof IdSet other) {
+            return Arrays.equals(ids, other.ids);
+        }
+        return super.equals(o);
+    }
+
+    // Как у Set<Integer>: сумма хэшей элементов, а хэш Integer — само значение
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int id : ids) {
+            hash += id;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(ids);
+    }
+
+    public static final class Serializer extends StdSerializer<IdSet> {
+        public Serializer() {
+            super(IdSet.class);
+        }
+
+        @Override
+        public void serialize(IdSet value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeArray(value.ids, 0, value.ids.length);
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, IdSet value) {
+            return value.ids.length == 0;
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<IdSet> {
+        public Deserializer() {
+            super(IdSet.class);
+        }
+
+        @Override
+        public IdSet deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartArrayToken()) {
+                return (IdSet) ctxt.handleUnexpectedToken(IdSet.class, p);
+            }
+            int[] ids = new int[8];
+            int length = 0;
+            JsonToken token;
+            while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_NUMBER_INT) {
+                    return (IdSet) ctxt.handleUnexpectedToken(IdSet.class, p);
+                }
+                if (length == ids.length) {
+                    ids = Arrays.copyOf(ids, length * 2);
+                }
+                ids[length++] = p.getIntValue();
+            }
+            return fromUnsorted(ids, length);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.library.dto;
+
+import java.util.List;
+
+/**
+ * Страница keyset-выборки: {@code nextAfter} — id последнего элемента для параметра
+ * {@code after} следующего запроса, {@code null} на последней странице.
+ */
+public record PageDTO<T>(List<T> items, Integer nextAfter) {
+}
@@ -1,25 +1,16 @@
 package com.library.dto;
 
-import com.library.model.Book;
-import com.library.model.Publisher;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
-import java.util.List;
+import java.util.Collection;
 
 public class PublisherDTO {
     private int id;
     private String name;
-    private List<Integer> bookIds;
+    private IdSet bookIds;
 
     public PublisherDTO() {}
 
-    public PublisherDTO(Publisher publisher) {
-       this.id = publisher.getId();
-       this.name = publisher.getName();
-       this.bookIds = publisher.getBooks().stream()
-               .map(Book::getId)
-               .toList();
-    }
-
     public int getId() {
         return id;
     }
@@ -28,7 +19,7 @@ public class PublisherDTO {
         return name;
     }
 
-    public List<Integer> getBookIds() {
+    public IdSet getBookIds() {
         return bookIds;
     }
 
@@ -40,8 +31,9 @@ public class PublisherDTO {
         this.name = name;
     }
 
-    public void setBookIds(List<Integer> bookIds) {
-        this.bookIds = bookIds;
+    @JsonDeserialize(as = IdSet.class)
+    public void setBookIds(Collection<Integer> bookIds) {
+        this.bookIds = IdSet.copyOf(bookIds);
     }
 
 }
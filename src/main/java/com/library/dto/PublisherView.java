@@ -0,0 +1,12 @@
+package com.library.dto;
+
+/**
+ * Неизменяемое представление издателя для ответов GET, JSON совпадает с {@link PublisherDTO}.
+ */
+public record PublisherView(int id, String name, IdSet bookIds) {
+    public PublisherView {
+        if (bookIds == null) {
+            bookIds = IdSet.empty();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.library.exception;
+
+public class LazyLoadException extends RuntimeException {
+    public LazyLoadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
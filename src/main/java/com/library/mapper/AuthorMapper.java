@@ -1,6 +1,8 @@
 package com.library.mapper;
 
 import com.library.dto.AuthorDTO;
+import com.library.dto.AuthorView;
+import com.library.dto.IdSet;
 import com.library.model.Author;
 import com.library.model.Book;
 import org.mapstruct.Mapper;
@@ -10,7 +12,6 @@ import org.mapstruct.factory.Mappers;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Mapper
 public interface AuthorMapper {
@@ -19,30 +20,28 @@ public interface AuthorMapper {
     @Mapping(target = "bookIds", source = "books", qualifiedByName = "mapBooksToBookIds")
     AuthorDTO toDTO(Author author);
 
+    @Mapping(target = "bookIds", source = "books", qualifiedByName = "mapBooksToBookIds")
+    AuthorView toView(Author author);
+
     @Mapping(target = "books", source = "bookIds", qualifiedByName = "mapBookIdsToBooks")
     Author toModel(AuthorDTO authorDTO);
 
     @Named("mapBooksToBookIds")
-    static Set<Integer> mapBooksToBookIds(Set<Book> books) {
-        if (books == null) {
-            return new HashSet<>();
-        }
-        return books.stream()
-                .map(Book::getId)
-                .collect(Collectors.toSet());
+    static IdSet mapBooksToBookIds(Set<Book> books) {
+        return IdSet.collect(books, Book::getId);
     }
 
     @Named("mapBookIdsToBooks")
-    static Set<Book> mapBookIdsToBooks(Set<Integer> bookIds) {
+    static Set<Book> mapBookIdsToBooks(IdSet bookIds) {
         if (bookIds == null) {
             return new HashSet<>();
         }
-        return bookIds.stream()
-                .map(id -> {
-                    Book book = new Book();
-                    book.setId(id);
-                    return book;
-                })
-                .collect(Collectors.toSet());
+        Set<Book> books = new HashSet<>(bookIds.size() * 2);
+        bookIds.forEachId(id -> {
+            Book book = new Book();
+            book.setId(id);
+            books.add(book);
+        });
+        return books;
     }
 }
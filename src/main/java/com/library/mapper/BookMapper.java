@@ -1,6 +1,8 @@
 package com.library.mapper;
 
 import com.library.dto.BookDTO;
+import com.library.dto.BookView;
+import com.library.dto.IdSet;
 import com.library.model.Author;
 import com.library.model.Book;
 import com.library.model.Publisher;
@@ -10,8 +12,8 @@ import org.mapstruct.Named;
 import org.mapstruct.factory.Mappers;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Mapper
 public interface BookMapper {
@@ -21,28 +23,29 @@ public interface BookMapper {
     @Mapping(source = "authors", target = "authorIds", qualifiedByName = "mapAuthorsToAuthorIds")
     BookDTO toDTO(Book book);
 
+    @Mapping(source = "publisher.id", target = "publisherId")
+    @Mapping(source = "authors", target = "authorIds", qualifiedByName = "mapAuthorsToAuthorIds")
+    BookView toView(Book book);
+
     @Mapping(target = "authors", source = "authorIds", qualifiedByName = "mapAuthorIdsToAuthors")
     @Mapping(target = "publisher", source = "publisherId", qualifiedByName = "mapPublisherIdToPublisher")
     Book toModel(BookDTO bookDTO);
 
     @Named("mapAuthorsToAuthorIds")
-    static Set<Integer> mapAuthorsToAuthorIds(Set<Author> authors) {
-        if (authors == null) return Collections.emptySet();
-        return authors.stream()
-                .map(Author::getId)
-                .collect(Collectors.toSet());
+    static IdSet mapAuthorsToAuthorIds(Set<Author> authors) {
+        return IdSet.collect(authors, Author::getId);
     }
 
     @Named("mapAuthorIdsToAuthors")
-    static Set<Author> mapAuthorIdsToAuthors(Set<Integer> authorIds) {
+    static Set<Author> mapAuthorIdsToAuthors(IdSet authorIds) {
         if (authorIds == null) return Collections.emptySet();
-        return authorIds.stream()
-                .map(id -> {
-                    Author author = new Author();
-                    author.setId(id);
-                    return author;
-                })
-                .collect(Collectors.toSet());
+        Set<Author> authors = new HashSet<>(authorIds.size() * 2);
+        authorIds.forEachId(id -> {
+            Author author = new Author();
+            author.setId(id);
+            authors.add(author);
+        });
+        return authors;
     }
 
     @Named("mapPublisherIdToPublisher")
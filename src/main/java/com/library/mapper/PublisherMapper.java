@@ -1,6 +1,8 @@
 package com.library.mapper;
 
+import com.library.dto.IdSet;
 import com.library.dto.PublisherDTO;
+import com.library.dto.PublisherView;
 import com.library.model.Book;
 import com.library.model.Publisher;
 import org.mapstruct.Mapper;
@@ -8,6 +10,7 @@ import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import org.mapstruct.factory.Mappers;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -18,30 +21,28 @@ public interface PublisherMapper {
     @Mapping(source = "books", target = "bookIds", qualifiedByName = "mapBooksToBookIds")
     PublisherDTO toDTO(Publisher publisher);
 
+    @Mapping(source = "books", target = "bookIds", qualifiedByName = "mapBooksToBookIds")
+    PublisherView toView(Publisher publisher);
+
     @Mapping(source = "bookIds", target = "books", qualifiedByName = "mapBookIdsToBooks")
     Publisher toModel(PublisherDTO publisherDTO);
 
     @Named("mapBooksToBookIds")
-    static List<Integer> mapBooksToBookIds(List<Book> books) {
-        if (books == null) {
-            return Collections.emptyList();
-        }
-        return books.stream()
-                .map(Book::getId)
-                .toList();
+    static IdSet mapBooksToBookIds(List<Book> books) {
+        return IdSet.collect(books, Book::getId);
     }
 
     @Named("mapBookIdsToBooks")
-    static List<Book> mapBookIdsToBooks(List<Integer> bookIds) {
+    static List<Book> mapBookIdsToBooks(IdSet bookIds) {
         if (bookIds == null) {
             return Collections.emptyList();
         }
-        return bookIds.stream()
-                .map(id -> {
-                    Book book = new Book();
-                    book.setId(id);
-                    return book;
-                })
-                .toList();
+        List<Book> books = new ArrayList<>(bookIds.size());
+        bookIds.forEachId(id -> {
+            Book book = new Book();
+            book.setId(id);
+            books.add(book);
+        });
+        return books;
     }
 }
\ No newline at end of file
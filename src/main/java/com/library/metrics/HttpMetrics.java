@@ -0,0 +1,37 @@
+package com.library.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class HttpMetrics {
+    private static final Map<SeriesKey, LatencyRecorder> series = new ConcurrentHashMap<>();
+
+    private HttpMetrics() {
+    }
+
+    public static void record(String route, String method, int status, long nanos) {
+        SeriesKey key = new SeriesKey(route, method, status);
+        LatencyRecorder recorder = series.get(key);
+        if (recorder == null) {
+            recorder = series.computeIfAbsent(key, k -> new LatencyRecorder());
+        }
+        recorder.recordNanos(nanos);
+    }
+
+    public static List<Snapshot> snapshots() {
+        return series.entrySet().stream()
+                .map(entry -> new Snapshot(entry.getKey(), entry.getValue().snapshot()))
+                .sorted(Comparator.comparing((Snapshot s) -> s.key().route())
+                        .thenComparing(s -> s.key().method())
+                        .thenComparingInt(s -> s.key().status()))
+                .toList();
+    }
+
+    public record SeriesKey(String route, String method, int status) {
+    }
+
+    public record Snapshot(SeriesKey key, LatencySnapshot latency) {
+    }
+}
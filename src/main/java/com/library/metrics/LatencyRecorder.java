@@ -0,0 +1,44 @@
+package com.library.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек в микросекундах. Запись идёт через {@link Recorder}
+ * без блокировок, чтение снимка накапливает интервалы под монитором.
+ */
+public class LatencyRecorder {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private final LongAdder totalNanos = new LongAdder();
+    private Histogram interval;
+
+    public void recordNanos(long nanos) {
+        recorder.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        totalNanos.add(nanos);
+    }
+
+    public synchronized LatencySnapshot snapshot() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        return new LatencySnapshot(
+                total.getTotalCount(),
+                toMillis(total.getValueAtPercentile(50)),
+                toMillis(total.getValueAtPercentile(90)),
+                toMillis(total.getValueAtPercentile(99)),
+                toMillis(total.getValueAtPercentile(99.9)),
+                toMillis(total.getMaxValue()),
+                total.getTotalCount() == 0 ? 0 : total.getMean() / 1000.0,
+                totalNanos.sum() / 1_000_000_000.0
+        );
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.library.metrics;
+
+public record LatencySnapshot(
+        long count,
+        double p50Millis,
+        double p90Millis,
+        double p99Millis,
+        double p999Millis,
+        double maxMillis,
+        double meanMillis,
+        double sumSeconds
+) {
+}
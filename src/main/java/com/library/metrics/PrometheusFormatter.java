@@ -0,0 +1,71 @@
+package com.library.metrics;
+
+import java.util.Map;
+
+/**
+ * Текстовый формат экспозиции Prometheus 0.0.4 для HTTP- и SQL-метрик.
+ */
+public class PrometheusFormatter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private PrometheusFormatter() {
+    }
+
+    public static String format() {
+        StringBuilder out = new StringBuilder(4096);
+
+        header(out, "http_server_requests_seconds", "HTTP request latency by route, method and status");
+        for (HttpMetrics.Snapshot snapshot : HttpMetrics.snapshots()) {
+            String labels = "route=\"" + escape(snapshot.key().route())
+                    + "\",method=\"" + snapshot.key().method()
+                    + "\",status=\"" + snapshot.key().status() + "\"";
+            summary(out, "http_server_requests_seconds", labels, snapshot.latency());
+        }
+
+        header(out, "db_query_seconds", "SQL statement execution latency by named query");
+        for (QueryStats.Snapshot snapshot : QueryMetrics.querySnapshots()) {
+            summary(out, "db_query_seconds", "query=\"" + escape(snapshot.name()) + "\"", snapshot.latency());
+        }
+
+        out.append("# HELP db_query_rows_total Rows returned or affected by named query\n");
+        out.append("# TYPE db_query_rows_total counter\n");
+        for (QueryStats.Snapshot snapshot : QueryMetrics.querySnapshots()) {
+            out.append("db_query_rows_total{query=\"").append(escape(snapshot.name())).append("\"} ")
+                    .append(snapshot.rows()).append('\n');
+        }
+
+        out.append("# HELP db_query_errors_total Failed executions by named query\n");
+        out.append("# TYPE db_query_errors_total counter\n");
+        for (QueryStats.Snapshot snapshot : QueryMetrics.querySnapshots()) {
+            out.append("db_query_errors_total{query=\"").append(escape(snapshot.name())).append("\"} ")
+                    .append(snapshot.errors()).append('\n');
+        }
+
+        header(out, "db_connection_wait_seconds", "Time spent waiting for a pooled connection");
+        for (Map.Entry<String, LatencySnapshot> entry : QueryMetrics.connectionWaitSnapshots().entrySet()) {
+            summary(out, "db_connection_wait_seconds", "pool=\"" + escape(entry.getKey()) + "\"", entry.getValue());
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+    }
+
+    private static void summary(StringBuilder out, String name, String labels, LatencySnapshot latency) {
+        double[] values = {latency.p50Millis(), latency.p90Millis(), latency.p99Millis(), latency.p999Millis()};
+        for (int i = 0; i < QUANTILES.length; i++) {
+            out.append(name).append('{').append(labels).append(",quantile=\"").append(QUANTILES[i]).append("\"} ")
+                    .append(values[i] / 1000.0).append('\n');
+        }
+        out.append(name).append("_count{").append(labels).append("} ").append(latency.count()).append('\n');
+        out.append(name).append("_sum{").append(labels).append("} ").append(latency.sumSeconds()).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
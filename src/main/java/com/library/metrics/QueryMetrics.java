@@ -0,0 +1,54 @@
+package com.library.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class QueryMetrics {
+    private static final Map<String, QueryStats> queries = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyRecorder> connectionWaits = new ConcurrentHashMap<>();
+
+    private QueryMetrics() {
+    }
+
+    public static QueryStats forQuery(String name) {
+        return queries.computeIfAbsent(name, QueryStats::new);
+    }
+
+    public static LatencyRecorder connectionWait(String poolName) {
+        return connectionWaits.computeIfAbsent(poolName, key -> new LatencyRecorder());
+    }
+
+    public static List<QueryStats.Snapshot> querySnapshots() {
+        return queries.values().stream()
+                .map(QueryStats::snapshot)
+                .sorted(Comparator.comparing(QueryStats.Snapshot::name))
+                .toList();
+    }
+
+    public static Map<String, LatencySnapshot> connectionWaitSnapshots() {
+        Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        connectionWaits.forEach((pool, recorder) -> snapshots.put(pool, recorder.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Фабрика для {@code HikariConfig#setMetricsTrackerFactory}: время ожидания
+     * соединения из пула попадает в гистограмму пула.
+     */
+    public static MetricsTrackerFactory hikariTrackerFactory() {
+        return (poolName, poolStats) -> new ConnectionWaitTracker(connectionWait(poolName));
+    }
+
+    private record ConnectionWaitTracker(LatencyRecorder recorder) implements IMetricsTracker {
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            recorder.recordNanos(elapsedAcquiredNanos);
+        }
+    }
+}
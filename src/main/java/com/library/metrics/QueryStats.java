@@ -0,0 +1,59 @@
+package com.library.metrics;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+public class QueryStats {
+    @FunctionalInterface
+    public interface Execution<R> {
+        R run() throws SQLException;
+    }
+
+    private final String name;
+    private final LatencyRecorder latency = new LatencyRecorder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    QueryStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void recordExecution(long nanos) {
+        latency.recordNanos(nanos);
+    }
+
+    /**
+     * Выполняет запрос, записывая время и ошибку; строки записывает вызывающий,
+     * так что чтение колонок идёт напрямую в драйвер.
+     */
+    public <R> R time(Execution<R> execution) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return execution.run();
+        } catch (SQLException | RuntimeException e) {
+            recordError();
+            throw e;
+        } finally {
+            recordExecution(System.nanoTime() - start);
+        }
+    }
+
+    public void recordRows(long count) {
+        rows.add(count);
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(name, rows.sum(), errors.sum(), latency.snapshot());
+    }
+
+    public record Snapshot(String name, long rows, long errors, LatencySnapshot latency) {
+    }
+}
@@ -1,11 +1,12 @@
 package com.library.model;
 
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
 
 public class Author {
     private int id;
+    // Кэш hashCode, 0 — не вычислен
+    private int hash;
     private String name;
     private String surname;
     private String country;
@@ -27,6 +28,7 @@ public class Author {
 
     public void setId(int id) {
         this.id = id;
+        this.hash = 0;
     }
 
     public String getName() {
@@ -73,19 +75,23 @@ public class Author {
         book.getAuthors().remove(this);
     }
 
+    // Равенство по id с кэшированным хэшем, контракт описан в Book#equals
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Author author = (Author) o;
-        return id == author.id &&
-                Objects.equals(name, author.name) &&
-                Objects.equals(surname, author.surname) &&
-                Objects.equals(country, author.country);    }
+        return id > 0 && id == author.id;
+    }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, name, surname, country);
+        int h = hash;
+        if (h == 0) {
+            h = id > 0 ? Integer.hashCode(id) : System.identityHashCode(this);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -95,7 +101,7 @@ public class Author {
                 ", name='" + name + '\'' +
                 ", surname='" + surname + '\'' +
                 ", country='" + country + '\'' +
-                ", books=" + books +
+                ", bookIds=" + RelationIds.of(books, Book::getId) +
                 '}';
     }
 }
@@ -1,20 +1,22 @@
 package com.library.model;
 
+import java.time.LocalDate;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
 
 public class Book {
     private int id;
+    // Кэш hashCode, 0 — не вычислен
+    private int hash;
     private String title;
-    private String publishedDate;
+    private LocalDate publishedDate;
     private String genre;
     private Publisher publisher;
     private Set<Author> authors = new HashSet<>();
 
     public Book() {}
 
-    public Book(int id, String title, String publishedDate, String genre, Publisher publisher, Set<Author> authors) {
+    public Book(int id, String title, LocalDate publishedDate, String genre, Publisher publisher, Set<Author> authors) {
         this.id = id;
         this.title = title;
         this.publishedDate = publishedDate;
@@ -29,6 +31,7 @@ public class Book {
 
     public void setId(int id) {
         this.id = id;
+        this.hash = 0;
     }
 
     public String getTitle() {
@@ -39,11 +42,11 @@ public class Book {
         this.title = title;
     }
 
-    public String getPublishedDate() {
+    public LocalDate getPublishedDate() {
         return publishedDate;
     }
 
-    public void setPublishedDate(String publishedDate) {
+    public void setPublishedDate(LocalDate publishedDate) {
         this.publishedDate = publishedDate;
     }
 
@@ -81,21 +84,28 @@ public class Book {
         author.getBooks().remove(this);
     }
 
+    /**
+     * Равенство по id: сохранённые сущности (id > 0) равны при совпадении id,
+     * несохранённые (id = 0) — только сами себе. Хэш кэшируется и сбрасывается в
+     * {@link #setId}: несохранённую сущность, добавленную в HashSet, после присвоения id
+     * нужно добавить в множество заново.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Book book = (Book) o;
-        return id == book.id &&
-                Objects.equals(title, book.title) &&
-                Objects.equals(publishedDate, book.publishedDate) &&
-                Objects.equals(genre, book.genre) &&
-                Objects.equals(publisher, book.publisher);
+        return id > 0 && id == book.id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, title, publishedDate, genre, publisher);
+        int h = hash;
+        if (h == 0) {
+            h = id > 0 ? Integer.hashCode(id) : System.identityHashCode(this);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -106,7 +116,7 @@ public class Book {
                 ", publishedDate='" + publishedDate + '\'' +
                 ", genre='" + genre + '\'' +
                 ", publisher=" + publisher +
-                ", authors=" + authors +
+                ", authorIds=" + RelationIds.of(authors, Author::getId) +
                 '}';
     }
 }
@@ -0,0 +1,11 @@
+package com.library.model;
+
+import java.time.LocalDate;
+
+/**
+ * Частичное изменение книги: {@code null} — поле не меняется (очистить поле так
+ * нельзя, отсутствующее и явное {@code null} в запросе не различаются). Если задан
+ * {@code expectedVersion}, книга меняется только в этой версии.
+ */
+public record BookPatch(int id, Long expectedVersion, String title, LocalDate publishedDate, String genre, Integer publisherId) {
+}
@@ -0,0 +1,10 @@
+package com.library.model;
+
+import java.time.Instant;
+
+/**
+ * Версия представления сущности (или коллекции) для условных GET-запросов.
+ * Для коллекции {@code version} — число строк, {@code updatedAt} — последнее изменение.
+ */
+public record EntityVersion(long version, Instant updatedAt) {
+}
@@ -0,0 +1,61 @@
+package com.library.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Список связей с загрузкой при первом обращении, аналог {@link LazySet}.
+ */
+public final class LazyList<E> extends AbstractList<E> {
+    private Supplier<? extends Collection<E>> loader;
+    private List<E> delegate;
+
+    public LazyList(Supplier<? extends Collection<E>> loader) {
+        this.loader = loader;
+    }
+
+    public boolean isLoaded() {
+        return delegate != null;
+    }
+
+    private List<E> delegate() {
+        if (delegate == null) {
+            delegate = new ArrayList<>(loader.get());
+            loader = null;
+        }
+        return delegate;
+    }
+
+    @Override
+    public E get(int index) {
+        return delegate().get(index);
+    }
+
+    @Override
+    public int size() {
+        return delegate().size();
+    }
+
+    @Override
+    public E set(int index, E element) {
+        return delegate().set(index, element);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        delegate().add(index, element);
+    }
+
+    @Override
+    public E remove(int index) {
+        return delegate().remove(index);
+    }
+
+    @Override
+    public String toString() {
+        return isLoaded() ? delegate.toString() : "[not loaded]";
+    }
+}
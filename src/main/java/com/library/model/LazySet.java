@@ -0,0 +1,68 @@
+package com.library.model;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Множество связей, которое загружается при первом обращении. Пока к нему не
+ * обращались, запросов к БД нет; toString не инициирует загрузку.
+ */
+public final class LazySet<E> extends AbstractSet<E> {
+    private Supplier<? extends Collection<E>> loader;
+    private Set<E> delegate;
+
+    public LazySet(Supplier<? extends Collection<E>> loader) {
+        this.loader = loader;
+    }
+
+    public boolean isLoaded() {
+        return delegate != null;
+    }
+
+    private Set<E> delegate() {
+        if (delegate == null) {
+            delegate = new HashSet<>(loader.get());
+            loader = null;
+        }
+        return delegate;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return delegate().iterator();
+    }
+
+    @Override
+    public int size() {
+        return delegate().size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return delegate().contains(o);
+    }
+
+    @Override
+    public boolean add(E e) {
+        return delegate().add(e);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return delegate().remove(o);
+    }
+
+    @Override
+    public void clear() {
+        delegate().clear();
+    }
+
+    @Override
+    public String toString() {
+        return isLoaded() ? delegate.toString() : "[not loaded]";
+    }
+}
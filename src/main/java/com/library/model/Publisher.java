@@ -2,10 +2,11 @@ package com.library.model;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 public class Publisher {
     private int id;
+    // Кэш hashCode, 0 — не вычислен
+    private int hash;
     private String name;
     private List<Book> books = new ArrayList<>();
 
@@ -23,6 +24,7 @@ public class Publisher {
 
     public void setId(int id) {
         this.id = id;
+        this.hash = 0;
     }
 
     public String getName() {
@@ -51,17 +53,23 @@ public class Publisher {
         book.setPublisher(null);
     }
 
+    // Равенство по id с кэшированным хэшем, контракт описан в Book#equals
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Publisher publisher = (Publisher) o;
-        return id == publisher.id && Objects.equals(name, publisher.name) && Objects.equals(books, publisher.books);
+        return id > 0 && id == publisher.id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, name, books);
+        int h = hash;
+        if (h == 0) {
+            h = id > 0 ? Integer.hashCode(id) : System.identityHashCode(this);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -69,7 +77,7 @@ public class Publisher {
         return "Publisher{" +
                 "id=" + id +
                 ", name='" + name + '\'' +
-                ", books=" + books +
+                ", bookIds=" + RelationIds.of(books, Book::getId) +
                 '}';
     }
 }
@@ -0,0 +1,31 @@
+package com.library.model;
+
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+/**
+ * toString связей через id: экземпляры из карты идентичности ссылаются друг на друга,
+ * и вложенный toString зациклился бы. Незагруженная коллекция не загружается.
+ */
+final class RelationIds {
+    private RelationIds() {
+    }
+
+    static <E> String of(Collection<E> relation, ToIntFunction<E> id) {
+        if (relation == null) {
+            return "null";
+        }
+        if (relation instanceof LazySet<E> set && !set.isLoaded()
+                || relation instanceof LazyList<E> list && !list.isLoaded()) {
+            return relation.toString();
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (E element : relation) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(id.applyAsInt(element));
+        }
+        return sb.append(']').toString();
+    }
+}
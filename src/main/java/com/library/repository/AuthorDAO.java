@@ -1,157 +1,214 @@
 package com.library.repository;
 
 import com.library.config.DataSourceProvider;
+import com.library.config.Workload;
 import com.library.model.Author;
 import com.library.model.Book;
-import com.library.model.Publisher;
+import com.library.model.EntityVersion;
+import com.library.repository.EntityGraph.AuthorColumns;
+import com.library.repository.JdbcTemplate.Binder;
+import com.library.repository.QueryTimeouts.Operation;
 
 import java.sql.*;
-import java.sql.Date;
 import java.util.*;
 import javax.sql.DataSource;
 
 public class AuthorDAO {
-    private DataSource dataSource;
+    private static final NamedQuery GET_BY_ID = new NamedQuery("author.getById", "SELECT id, name, surname, country FROM authors WHERE id = ?");
+
+    private static final NamedQuery GET_ALL = new NamedQuery("author.getAll", "SELECT id, name, surname, country FROM authors");
+    private static final NamedQuery INSERT = new NamedQuery("author.create", "INSERT INTO authors (name, surname, country) VALUES (?, ?, ?)");
+    private static final NamedQuery UPDATE = new NamedQuery("author.update", "UPDATE authors SET name = ?, surname = ?, country = ?, " + Versions.BUMP + Versions.WHERE_VERSION);
+    private static final NamedQuery DELETE = new NamedQuery("author.delete", "DELETE FROM authors WHERE id = ?");
+    private static final NamedQuery UPSERT = Upsert.query("author.upsert", "authors", "name", "surname", "country");
+    // Связи book_author удаляет ON DELETE CASCADE; CTE видит их до каскада и поднимает версию книг
+    private static final NamedQuery DELETE_ALL = new NamedQuery("author.deleteAll", """
+            WITH deleted AS (DELETE FROM authors WHERE id = ANY(?) RETURNING id),
+                 touched AS (UPDATE books SET %s
+                             WHERE id IN (SELECT book_id FROM book_author WHERE author_id IN (SELECT id FROM deleted)))
+            SELECT id FROM deleted
+            """.formatted(Versions.BUMP));
+    private static final NamedQuery LINK_BOOKS = new NamedQuery("author.linkBooks", "INSERT INTO book_author (author_id, book_id) VALUES (?, ?)");
+    private static final NamedQuery UNLINK_BOOKS = new NamedQuery("author.unlinkBooks", "DELETE FROM book_author WHERE author_id = ?");
+
+    private static final NamedQuery GET_VERSION = new NamedQuery("author.getVersion", "SELECT version, updated_at FROM authors WHERE id = ?");
+    private static final NamedQuery GET_COLLECTION_VERSION = new NamedQuery("author.getCollectionVersion", "SELECT count(*), max(updated_at) FROM authors");
+    private static final NamedQuery TOUCH_BOOKS = new NamedQuery("author.touchBooks",
+            "UPDATE books SET " + Versions.BUMP + " WHERE id IN (SELECT book_id FROM book_author WHERE author_id = ?)");
+
+    public static final String BOOK_IDS = "bookIds";
+    private static final Projection PROJECTION = new Projection("author", "authors", Map.of(
+            "id", "id",
+            "name", "name",
+            "surname", "surname",
+            "country", "country"), Set.of(BOOK_IDS));
+    private static final NamedQuery BOOK_IDS_FOR_AUTHORS = new NamedQuery("author.bookIdsForAuthors", "SELECT author_id, book_id FROM book_author WHERE author_id = ANY(?)");
+
+    private final DataSource dataSource;
+    private final DataSource listDataSource;
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate listJdbc;
+    private final JdbcTemplate writeJdbc;
 
     public AuthorDAO() {
-        this.dataSource = DataSourceProvider.getDataSource();
+        this(DataSourceProvider.getDataSource(Workload.POINT_READ),
+                DataSourceProvider.getDataSource(Workload.LIST),
+                DataSourceProvider.getDataSource(Workload.WRITE));
     }
 
-    private AuthorDAO(DataSource dataSource) {
+    private AuthorDAO(DataSource dataSource, DataSource listDataSource, DataSource writeDataSource) {
         this.dataSource = dataSource;
+        this.listDataSource = listDataSource;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.listJdbc = new JdbcTemplate(listDataSource);
+        this.writeJdbc = new JdbcTemplate(writeDataSource);
     }
 
     public static AuthorDAO forTests(DataSource dataSource) {
-        return new AuthorDAO(dataSource);
+        return new AuthorDAO(dataSource, dataSource, dataSource);
     }
 
     public Optional<Author> getById(int id) throws SQLException {
-        String sql = "SELECT id, name, surname, country FROM authors WHERE id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Author author = mapRowToAuthor(rs);
-                    author.setBooks(getBooksForAuthor(id));
-                    return Optional.of(author);
-                }
-                return Optional.empty();
+        return jdbc.queryOne(GET_BY_ID, stmt -> stmt.setInt(1, id), new EntityGraph(dataSource)::authors);
+    }
+
+    /**
+     * Загрузка только запрошенных полей DTO: книги — только при {@code bookIds}.
+     */
+    public Optional<Author> getById(int id, Set<String> fields) throws SQLException {
+        return jdbc.inConnection(session -> {
+            Optional<Author> author = session.queryOne(PROJECTION.selectById(fields), stmt -> stmt.setInt(1, id), AuthorDAO::projected);
+            if (author.isPresent() && fields.contains(BOOK_IDS)) {
+                loadBookIds(session, List.of(author.get()));
             }
-        }
+            return author;
+        });
     }
 
-    private Set<Book> getBooksForAuthor(int authorId) throws SQLException {
-        String sql = """
-                SELECT b.id, b.title, b.published_date, b.genre,\s
-                       p.id AS publisher_id, p.name AS publisher_name
-                FROM books b
-                LEFT JOIN publishers p ON b.publisher_id = p.id
-                INNER JOIN book_author ba ON b.id = ba.book_id
-                WHERE ba.author_id = ?;
-                """;
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, authorId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                Set<Book> books = new HashSet<>();
-                while (rs.next()) {
-                    books.add(mapRowToBook(rs));
-                }
-                return books;
+    public List<Author> getAll(Set<String> fields) throws SQLException {
+        return listJdbc.inConnection(session -> {
+            List<Author> authors = session.queryList(PROJECTION.selectAll(fields), Operation.BULK, Binder.NONE, AuthorDAO::projected);
+            if (fields.contains(BOOK_IDS)) {
+                loadBookIds(session, authors);
             }
-        }
+            return authors;
+        });
     }
 
-    private Book mapRowToBook(ResultSet rs) throws SQLException {
-        Book book = new Book();
-        book.setId(rs.getInt("id"));
-        book.setTitle(rs.getString("title"));
-        Date publishedDate = rs.getDate("published_date");
-        book.setPublishedDate(publishedDate != null ? publishedDate.toString() : null);
-        book.setGenre(rs.getString("genre"));
-
-        int publisherId = rs.getInt("publisher_id");
-        if (!rs.wasNull()) {
-            Publisher publisher = new Publisher();
-            publisher.setId(publisherId);
-            publisher.setName(rs.getString("publisher_name"));
-            book.setPublisher(publisher);
-        }
+    public Optional<EntityVersion> getVersion(int id) throws SQLException {
+        return Versions.get(jdbc, GET_VERSION, id);
+    }
 
-        return book;
+    public EntityVersion getCollectionVersion() throws SQLException {
+        return Versions.getForCollection(listJdbc, GET_COLLECTION_VERSION);
     }
 
     public List<Author> getAll() throws SQLException {
-        String sql = "SELECT id, name, surname, country FROM authors";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            List<Author> authors = new ArrayList<>();
-            while (rs.next()) {
-                Author author = mapRowToAuthor(rs);
-                author.setBooks(getBooksForAuthor(author.getId()));
-                authors.add(author);
-            }
-            return authors;
-        }
+        List<Author> authors = new ArrayList<>();
+        listJdbc.forEach(GET_ALL, Binder.NONE, new EntityGraph(listDataSource)::authors, authors::add);
+        return authors;
     }
 
     public void create(Author author) throws SQLException {
-        String sql = "INSERT INTO authors (name, surname, country) VALUES (?, ?, ?)";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            setAuthorParameters(stmt, author);
-            stmt.executeUpdate();
-            setIdFromGeneratedKeys(stmt, author);
-        }
+        IdentityMap.evictAll();
+        author.setId(writeJdbc.insert(INSERT, stmt -> setAuthorParameters(stmt, author)));
         updateBooksOfAuthor(author);
     }
 
-    public void update(Author author) throws SQLException {
-        String sql = "UPDATE authors SET name = ?, surname = ?, country = ? WHERE id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            setAuthorParameters(stmt, author);
-            stmt.setInt(4, author.getId());
-            stmt.executeUpdate();
-        }
+    /**
+     * Условная запись, как {@link BookDAO#update(com.library.model.Book, long)}.
+     */
+    public void update(Author author, long expectedVersion) throws SQLException {
+        IdentityMap.evictAll();
+        writeJdbc.inTransaction(session -> {
+            Versions.requireUpdated(session.update(UPDATE, stmt -> {
+                setAuthorParameters(stmt, author);
+                stmt.setInt(4, author.getId());
+                stmt.setLong(5, expectedVersion);
+            }), "Author", author.getId(), expectedVersion);
 
-        updateBooksOfAuthor(author);
+            relinkBooks(session, author);
+            return null;
+        });
     }
 
     public void updateBooksOfAuthor(Author author) throws SQLException {
-        if (author.getId() < 0) return;
-
-        removeAllBooksFromAuthor(author.getId());
-
-        if (author.getBooks() != null && !author.getBooks().isEmpty()) {
-            addBooksToAuthor(author.getId(), author.getBooks());
-        }
+        IdentityMap.evictAll();
+        relinkBooks(writeJdbc, author);
+    }
+
+    /**
+     * Создаёт или обновляет автора с ключом {@code externalKey}, см. {@link BookDAO#upsert}.
+     *
+     * @return {@code true}, если автор создан
+     */
+    public boolean upsert(String externalKey, Author author) throws SQLException {
+        IdentityMap.evictAll();
+        return writeJdbc.inTransaction(session -> {
+            Upsert.Result result = session.updateReturning(UPSERT, stmt -> {
+                setAuthorParameters(stmt, author);
+                stmt.setString(4, externalKey);
+            }, Upsert.RESULT);
+            author.setId(result.id());
+            relinkBooks(session, author);
+            return result.created();
+        });
     }
 
     public void delete(int id) throws SQLException {
-        String sql = "DELETE FROM authors WHERE id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        IdentityMap.evictAll();
+        Versions.touch(writeJdbc, TOUCH_BOOKS, id);
+        writeJdbc.update(DELETE, stmt -> stmt.setInt(1, id));
+    }
 
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        }
+    /**
+     * Удаление авторов одним запросом; несуществующие id пропускаются.
+     *
+     * @return id удалённых авторов
+     */
+    public Set<Integer> deleteAll(Collection<Integer> ids) throws SQLException {
+        IdentityMap.evictAll();
+        if (ids.isEmpty()) return Set.of();
+
+        return writeJdbc.updateReturningIds(DELETE_ALL, Operation.BULK, JdbcTemplate.idArray(ids.toArray(new Integer[0])));
     }
 
     // region Helper Methods
-    private Author mapRowToAuthor(ResultSet rs) throws SQLException {
-        Author author = new Author();
-        author.setId(rs.getInt("id"));
-        author.setName(rs.getString("name"));
-        author.setSurname(rs.getString("surname"));
-        author.setCountry(rs.getString("country"));
-        return author;
+    // Колонки вне проекции имеют номер 0: их поля не заполняются; книги догружает loadBookIds
+    private static RowMapper<Author> projected(NamedQuery query, ResultSet rs) throws SQLException {
+        AuthorColumns columns = AuthorColumns.LAYOUT.of(query, rs);
+        return row -> {
+            Author author = new Author();
+            author.setId(row.getInt(columns.id()));
+            if (columns.name() > 0) {
+                author.setName(row.getString(columns.name()));
+            }
+            if (columns.surname() > 0) {
+                author.setSurname(row.getString(columns.surname()));
+            }
+            if (columns.country() > 0) {
+                author.setCountry(row.getString(columns.country()));
+            }
+            return author;
+        };
+    }
+
+    // Книги всех авторов результата одним запросом вместо запроса на каждого автора
+    private void loadBookIds(JdbcTemplate session, List<Author> authors) throws SQLException {
+        if (authors.isEmpty()) return;
+
+        Map<Integer, Author> byId = new HashMap<>(authors.size() * 2);
+        Integer[] ids = new Integer[authors.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Author author = authors.get(i);
+            byId.put(author.getId(), author);
+            ids[i] = author.getId();
+        }
+        session.query(BOOK_IDS_FOR_AUTHORS, Operation.READ, JdbcTemplate.idArray(ids), RowMapper.fixed(rs -> {
+            Book book = new Book();
+            book.setId(rs.getInt(2));
+            return Map.entry(rs.getInt(1), book);
+        }), link -> byId.get(link.getKey()).getBooks().add(link.getValue()));
     }
 
     private void setAuthorParameters(PreparedStatement stmt, Author author) throws SQLException {
@@ -160,36 +217,25 @@ public class AuthorDAO {
         stmt.setString(3, author.getCountry());
     }
 
-    private void setIdFromGeneratedKeys(PreparedStatement stmt, Author author) throws SQLException {
-        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-            if (generatedKeys.next()) {
-                author.setId(generatedKeys.getInt(1));
-            }
-        }
-    }
+    private void relinkBooks(JdbcTemplate session, Author author) throws SQLException {
+        if (author.getId() < 0) return;
 
-    private void addBooksToAuthor(int authorId, Set<Book> books) throws SQLException {
-        String sql = "INSERT INTO book_author (author_id, book_id) VALUES (?, ?)";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, authorId);
+        Versions.touch(session, TOUCH_BOOKS, author.getId());
+        removeAllBooksFromAuthor(session, author.getId());
 
-            for (Book book : books) {
-                stmt.setInt(2, book.getId());
-                stmt.addBatch();
-            }
-            stmt.executeBatch();
+        if (author.getBooks() != null && !author.getBooks().isEmpty()) {
+            addBooksToAuthor(session, author.getId(), author.getBooks());
+            Versions.touch(session, TOUCH_BOOKS, author.getId());
         }
     }
 
-    private void removeAllBooksFromAuthor(int authorId) throws SQLException {
-        String sql = "DELETE FROM book_author WHERE author_id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    private void addBooksToAuthor(JdbcTemplate session, int authorId, Set<Book> books) throws SQLException {
+        session.batch(LINK_BOOKS, stmt -> stmt.setInt(1, authorId), books,
+                (stmt, book) -> stmt.setInt(2, book.getId()));
+    }
 
-            stmt.setInt(1, authorId);
-            stmt.executeUpdate();
-        }
+    private void removeAllBooksFromAuthor(JdbcTemplate session, int authorId) throws SQLException {
+        session.update(UNLINK_BOOKS, stmt -> stmt.setInt(1, authorId));
     }
     // endregion
 }
@@ -0,0 +1,77 @@
+package com.library.repository;
+
+import com.library.exception.LazyLoadException;
+import com.library.model.LazyList;
+import com.library.model.LazySet;
+import com.library.repository.QueryTimeouts.Operation;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ленивая загрузка связей пачкой: каждая выданная коллекция регистрирует id владельца,
+ * а первое обращение к любой из них догружает связи всех ожидающих владельцев одним
+ * запросом с {@code owner_id = ANY(?)}. Загрузчик живёт столько же, сколько результат
+ * одного вызова DAO.
+ */
+final class BatchLoader<T> {
+    static final String OWNER_ID = "owner_id";
+    private static final ColumnLayout<Integer> OWNER_COLUMN = new ColumnLayout<>(indexOf -> indexOf.applyAsInt(OWNER_ID));
+
+    private record Owned<T>(int ownerId, T value) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final NamedQuery query;
+    private final RowMapper.Factory<Owned<T>> mappers;
+    private final Set<Integer> pending = new LinkedHashSet<>();
+    private final Map<Integer, List<T>> loaded = new HashMap<>();
+
+    /**
+     * @param query запрос с одним параметром-массивом id и колонкой {@value #OWNER_ID}
+     */
+    BatchLoader(DataSource dataSource, NamedQuery query, RowMapper.Factory<T> mappers) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.query = query;
+        this.mappers = (q, rs) -> {
+            int ownerColumn = OWNER_COLUMN.of(q, rs);
+            RowMapper<T> mapper = mappers.forResult(q, rs);
+            return row -> new Owned<>(row.getInt(ownerColumn), mapper.map(row));
+        };
+    }
+
+    synchronized LazySet<T> lazySet(int ownerId) {
+        pending.add(ownerId);
+        return new LazySet<>(() -> load(ownerId));
+    }
+
+    synchronized LazyList<T> lazyList(int ownerId) {
+        pending.add(ownerId);
+        return new LazyList<>(() -> load(ownerId));
+    }
+
+    private synchronized List<T> load(int ownerId) {
+        if (pending.contains(ownerId)) {
+            try {
+                fetchPending();
+            } catch (SQLException e) {
+                throw new LazyLoadException("Error while loading " + query.name() + " for ID " + ownerId, e);
+            }
+        }
+        List<T> values = loaded.remove(ownerId);
+        return values != null ? values : List.of();
+    }
+
+    private void fetchPending() throws SQLException {
+        Integer[] ids = pending.toArray(new Integer[0]);
+        jdbc.query(query, Operation.READ, JdbcTemplate.idArray(ids), mappers,
+                row -> loaded.computeIfAbsent(row.ownerId(), id -> new ArrayList<>()).add(row.value()));
+        pending.clear();
+    }
+}
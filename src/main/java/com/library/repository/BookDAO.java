@@ -1,226 +1,423 @@
 package com.library.repository;
 
 import com.library.config.DataSourceProvider;
+import com.library.config.Workload;
 import com.library.model.Author;
 import com.library.model.Book;
+import com.library.model.BookPatch;
+import com.library.model.EntityVersion;
 import com.library.model.Publisher;
+import com.library.repository.EntityGraph.BookColumns;
+import com.library.repository.JdbcTemplate.Binder;
+import com.library.repository.QueryTimeouts.Operation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
-import java.sql.Date;
+import java.time.LocalDate;
 import java.util.*;
 import javax.sql.DataSource;
 
 public class BookDAO {
+    private static final NamedQuery GET_BY_ID = new NamedQuery("book.getById", """
+            SELECT b.id, b.title, b.published_date, b.genre,
+                   p.id AS publisher_id, p.name AS publisher_name
+            FROM books b
+            LEFT JOIN publishers p ON b.publisher_id = p.id
+            WHERE b.id = ?
+            """);
+
+    private static final NamedQuery GET_ALL = new NamedQuery("book.getAll", """
+            SELECT b.id, b.title, b.published_date, b.genre,
+                   p.id AS publisher_id, p.name AS publisher_name
+            FROM books b
+            LEFT JOIN publishers p ON b.publisher_id = p.id
+            """);
+
+    private static final NamedQuery INSERT = new NamedQuery("book.create", "INSERT INTO books (title, published_date, publisher_id, genre) VALUES (?, ?, ?, ?)");
+    private static final NamedQuery UPDATE = new NamedQuery("book.update", "UPDATE books SET title = ?, published_date = ?, publisher_id = ?, genre = ?, " + Versions.BUMP + Versions.WHERE_VERSION);
+    private static final NamedQuery DELETE = new NamedQuery("book.delete", "DELETE FROM books WHERE id = ?");
+    private static final NamedQuery UPSERT = Upsert.query("book.upsert", "books", "title", "published_date", "publisher_id", "genre");
+
+    // Пакетные запросы: все CTE видят один снимок, поэтому связи читаются до каскадного удаления
+    private static final NamedQuery DELETE_ALL = new NamedQuery("book.deleteAll", """
+            WITH deleted AS (DELETE FROM books WHERE id = ANY(?) RETURNING id, publisher_id),
+                 publishers_touched AS (UPDATE publishers SET %1$s WHERE id IN (SELECT publisher_id FROM deleted)),
+                 authors_touched AS (UPDATE authors SET %1$s
+                                     WHERE id IN (SELECT author_id FROM book_author WHERE book_id IN (SELECT id FROM deleted)))
+            SELECT id FROM deleted
+            """.formatted(Versions.BUMP));
+    // updated = false — книга есть, но версия не совпала; книг, которых нет, в результате нет.
+    // COALESCE: NULL в массиве значит «не менять», поэтому очистить поле этим запросом нельзя
+    private static final NamedQuery PATCH_ALL = new NamedQuery("book.patchAll", """
+            WITH patch AS (
+                SELECT * FROM unnest(?::int[], ?::bigint[], ?::text[], ?::date[], ?::text[], ?::int[])
+                    AS p(id, expected_version, title, published_date, genre, publisher_id)
+            ),
+            updated AS (
+                UPDATE books b
+                SET title = COALESCE(p.title, b.title),
+                    published_date = COALESCE(p.published_date, b.published_date),
+                    genre = COALESCE(p.genre, b.genre),
+                    publisher_id = COALESCE(p.publisher_id, b.publisher_id),
+                    %s
+                FROM patch p
+                WHERE b.id = p.id AND (p.expected_version IS NULL OR b.version = p.expected_version)
+                RETURNING b.id, b.publisher_id
+            ),
+            moved AS (
+                SELECT b.publisher_id AS previous_id, u.publisher_id AS current_id
+                FROM books b JOIN updated u ON u.id = b.id
+                WHERE b.publisher_id IS DISTINCT FROM u.publisher_id
+            ),
+            publishers_touched AS (
+                UPDATE publishers SET %s
+                WHERE id IN (SELECT previous_id FROM moved UNION SELECT current_id FROM moved)
+            )
+            SELECT id, true AS updated FROM updated
+            UNION ALL
+            SELECT b.id, false FROM books b JOIN patch p ON p.id = b.id
+            WHERE b.id NOT IN (SELECT id FROM updated)
+            """.formatted(Versions.BUMP, Versions.BUMP));
+
+    private static final NamedQuery LINK_AUTHORS = new NamedQuery("book.linkAuthors", "INSERT INTO book_author (book_id, author_id) VALUES (?, ?)");
+    private static final NamedQuery UNLINK_AUTHORS = new NamedQuery("book.unlinkAuthors", "DELETE FROM book_author WHERE book_id = ?");
+
+    private static final NamedQuery GET_VERSION = new NamedQuery("book.getVersion", "SELECT version, updated_at FROM books WHERE id = ?");
+    private static final NamedQuery GET_COLLECTION_VERSION = new NamedQuery("book.getCollectionVersion", "SELECT count(*), max(updated_at) FROM books");
+
+    // Издатель и авторы отдают списки id книг: их версия меняется вместе со связями
+    private static final NamedQuery TOUCH_PUBLISHER = new NamedQuery("book.touchPublisher",
+            "UPDATE publishers SET " + Versions.BUMP + " WHERE id = (SELECT publisher_id FROM books WHERE id = ?)");
+    private static final NamedQuery TOUCH_PUBLISHER_BY_KEY = new NamedQuery("book.touchPublisherByKey",
+            "UPDATE publishers SET " + Versions.BUMP + " WHERE id = (SELECT publisher_id FROM books WHERE external_key = ?)");
+    private static final NamedQuery TOUCH_AUTHORS = new NamedQuery("book.touchAuthors",
+            "UPDATE authors SET " + Versions.BUMP + " WHERE id IN (SELECT author_id FROM book_author WHERE book_id = ?)");
+
+    public static final String AUTHOR_IDS = "authorIds";
+    private static final Projection PROJECTION = new Projection("book", "books", Map.of(
+            "id", "id",
+            "title", "title",
+            "publishedDate", "published_date",
+            "genre", "genre",
+            "publisherId", "publisher_id"), Set.of(AUTHOR_IDS));
+
+    // Keyset-страницы по индексам (publisher_id, id) и book_author (author_id, book_id)
+    private static final NamedQuery PAGE_BY_PUBLISHER = new NamedQuery("book.pageByPublisher", """
+            SELECT id, title, published_date, genre, publisher_id
+            FROM books
+            WHERE publisher_id = ? AND id > ?
+            ORDER BY id
+            LIMIT ?
+            """);
+    private static final NamedQuery PAGE_BY_AUTHOR = new NamedQuery("book.pageByAuthor", """
+            SELECT b.id, b.title, b.published_date, b.genre, b.publisher_id
+            FROM book_author ba
+            JOIN books b ON b.id = ba.book_id
+            WHERE ba.author_id = ? AND ba.book_id > ?
+            ORDER BY ba.book_id
+            LIMIT ?
+            """);
+    private static final NamedQuery AUTHOR_IDS_FOR_BOOKS = new NamedQuery("book.authorIdsForBooks", "SELECT book_id, author_id FROM book_author WHERE book_id = ANY(?)");
+
+    private static final RowMapper.Factory<Map.Entry<Integer, Boolean>> PATCH_OUTCOME =
+            RowMapper.fixed(rs -> Map.entry(rs.getInt(1), rs.getBoolean(2)));
+
     private final DataSource dataSource;
+    private final DataSource listDataSource;
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate listJdbc;
+    private final JdbcTemplate writeJdbc;
 
     private static final Logger logger = LoggerFactory.getLogger(BookDAO.class);
 
     public BookDAO() {
-        this.dataSource = DataSourceProvider.getDataSource();
+        this(DataSourceProvider.getDataSource(Workload.POINT_READ),
+                DataSourceProvider.getDataSource(Workload.LIST),
+                DataSourceProvider.getDataSource(Workload.WRITE));
     }
 
-    private BookDAO(DataSource dataSource) {
+    private BookDAO(DataSource dataSource, DataSource listDataSource, DataSource writeDataSource) {
         this.dataSource = dataSource;
+        this.listDataSource = listDataSource;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.listJdbc = new JdbcTemplate(listDataSource);
+        this.writeJdbc = new JdbcTemplate(writeDataSource);
     }
 
     public static BookDAO forTests(DataSource dataSource) {
-        return new BookDAO(dataSource);
+        return new BookDAO(dataSource, dataSource, dataSource);
     }
 
     public Optional<Book> getById(int id) throws SQLException {
-        String sql = """
-        SELECT b.id, b.title, b.published_date, b.genre, 
-               p.id AS publisher_id, p.name AS publisher_name
-        FROM books b
-        LEFT JOIN publishers p ON b.publisher_id = p.id
-        WHERE b.id = ?
-        """;
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Book book = mapRowToBook(rs);
-                    book.setAuthors(getAuthorsForBook(id));
-                    return Optional.of(book);
-                }
-                return Optional.empty();
-            }
-        }
+        return jdbc.queryOne(GET_BY_ID, stmt -> stmt.setInt(1, id), new EntityGraph(dataSource)::books);
     }
 
-    private Book mapRowToBook(ResultSet rs) throws SQLException {
-        Book book = new Book();
-        book.setId(rs.getInt("id"));
-        book.setTitle(rs.getString("title"));
-        Date publishedDate = rs.getDate("published_date");
-        book.setPublishedDate(publishedDate != null ? publishedDate.toString() : null);
-        book.setGenre(rs.getString("genre"));
-
-        // Загрузка издателя
-        int publisherId = rs.getInt("publisher_id");
-        if (!rs.wasNull()) {
-            Publisher publisher = new Publisher();
-            publisher.setId(publisherId);
-            publisher.setName(rs.getString("publisher_name"));
-            book.setPublisher(publisher);
-        }
-
-        return book;
+    /**
+     * Загрузка только запрошенных полей DTO: без JOIN издателя, авторы — только при {@code authorIds}.
+     */
+    public Optional<Book> getById(int id, Set<String> fields) throws SQLException {
+        return jdbc.inConnection(session -> {
+            Optional<Book> book = session.queryOne(PROJECTION.selectById(fields), stmt -> stmt.setInt(1, id), BookDAO::projected);
+            if (book.isPresent() && fields.contains(AUTHOR_IDS)) {
+                loadAuthorIds(session, List.of(book.get()));
+            }
+            return book;
+        });
     }
 
-    public List<Book> getAll() throws SQLException {
-        String sql = """
-        SELECT b.id, b.title, b.published_date, b.genre, 
-               p.id AS publisher_id, p.name AS publisher_name
-        FROM books b
-        LEFT JOIN publishers p ON b.publisher_id = p.id
-        """;
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            List<Book> books = new ArrayList<>();
-            while (rs.next()) {
-                Book book = mapRowToBook(rs);
-                book.setAuthors(getAuthorsForBook(book.getId()));
-                books.add(book);
+    public List<Book> getAll(Set<String> fields) throws SQLException {
+        return listJdbc.inConnection(session -> {
+            List<Book> books = session.queryList(PROJECTION.selectAll(fields), Operation.BULK, Binder.NONE, BookDAO::projected);
+            if (fields.contains(AUTHOR_IDS)) {
+                loadAuthorIds(session, books);
             }
             return books;
-        }
+        });
     }
 
-    public void create(Book book) throws SQLException {
-        logger.info("Inserting book into DB: title={}, publisherId={}, authors={}",
-                book.getTitle(), book.getPublisher().getId(),
-                book.getAuthors().stream().map(Author::getId).toList());
+    /**
+     * Книги издателя с id больше {@code afterId}, не более {@code limit}, по возрастанию id.
+     */
+    public List<Book> getPageByPublisher(int publisherId, int afterId, int limit) throws SQLException {
+        return getPage(PAGE_BY_PUBLISHER, publisherId, afterId, limit);
+    }
 
-        String sql = "INSERT INTO books (title, published_date, publisher_id, genre) VALUES (?, ?, ?, ?)";
+    public List<Book> getPageByAuthor(int authorId, int afterId, int limit) throws SQLException {
+        return getPage(PAGE_BY_AUTHOR, authorId, afterId, limit);
+    }
+
+    private List<Book> getPage(NamedQuery query, int ownerId, int afterId, int limit) throws SQLException {
+        return listJdbc.inConnection(session -> {
+            List<Book> books = session.queryList(query, Operation.READ, stmt -> {
+                stmt.setInt(1, ownerId);
+                stmt.setInt(2, afterId);
+                stmt.setInt(3, limit);
+            }, BookDAO::projected);
+            loadAuthorIds(session, books);
+            return books;
+        });
+    }
 
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    // Авторы всех книг результата одним запросом вместо запроса на каждую книгу
+    private void loadAuthorIds(JdbcTemplate session, List<Book> books) throws SQLException {
+        if (books.isEmpty()) return;
 
-            setBookParameters(stmt, book);
-            stmt.executeUpdate();
-            setIdFromGeneratedKeys(stmt, book);
+        Map<Integer, Book> byId = new HashMap<>(books.size() * 2);
+        Integer[] ids = new Integer[books.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Book book = books.get(i);
+            byId.put(book.getId(), book);
+            ids[i] = book.getId();
         }
-        updateAuthorsOnBook(book);
+        session.query(AUTHOR_IDS_FOR_BOOKS, Operation.READ, JdbcTemplate.idArray(ids), RowMapper.fixed(rs -> {
+            Author author = new Author();
+            author.setId(rs.getInt(2));
+            return Map.entry(rs.getInt(1), author);
+        }), link -> byId.get(link.getKey()).getAuthors().add(link.getValue()));
     }
 
-    public void update(Book book) throws SQLException {
-        String sql = "UPDATE books SET title = ?, published_date = ?, publisher_id = ?, genre = ? WHERE id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public Optional<EntityVersion> getVersion(int id) throws SQLException {
+        return Versions.get(jdbc, GET_VERSION, id);
+    }
 
-            setBookParameters(stmt, book);
-            stmt.setInt(5, book.getId());
-            stmt.executeUpdate();
-        }
-        updateAuthorsOnBook(book);
+    public EntityVersion getCollectionVersion() throws SQLException {
+        return Versions.getForCollection(listJdbc, GET_COLLECTION_VERSION);
     }
 
-    public void delete(int id) throws SQLException {
-        String sql = "DELETE FROM books WHERE id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public List<Book> getAll() throws SQLException {
+        List<Book> books = new ArrayList<>();
+        listJdbc.forEach(GET_ALL, Binder.NONE, new EntityGraph(listDataSource)::books, books::add);
+        return books;
+    }
 
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
+    public void create(Book book) throws SQLException {
+        IdentityMap.evictAll();
+        // Аргументы собираются только при включённом DEBUG: путь записи не аллоцирует ради лога
+        if (logger.isDebugEnabled()) {
+            logger.debug("Inserting book into DB: title={}, publisherId={}, authors={}",
+                    book.getTitle(), book.getPublisher() != null ? book.getPublisher().getId() : null,
+                    authorIds(book));
         }
+
+        book.setId(writeJdbc.insert(INSERT, stmt -> setBookParameters(stmt, book)));
+        Versions.touch(writeJdbc, TOUCH_PUBLISHER, book.getId());
+        updateAuthorsOnBook(writeJdbc, book);
     }
 
-    private void setBookParameters(PreparedStatement stmt, Book book) throws SQLException {
-        stmt.setString(1, book.getTitle());
-        stmt.setDate(2, book.getPublishedDate() != null
-                ? Date.valueOf(book.getPublishedDate())
-                : null
-        );
-        stmt.setObject(3, book.getPublisher() != null
-                ? book.getPublisher().getId()
-                : null, Types.INTEGER
-        );
-        stmt.setString(4, book.getGenre());
+    /**
+     * Запись книги, прочитанной в версии {@code expectedVersion}; если её изменили после
+     * чтения — {@link com.library.exception.VersionConflictException} и ничего не записывается.
+     */
+    public void update(Book book, long expectedVersion) throws SQLException {
+        IdentityMap.evictAll();
+        writeJdbc.inTransaction(session -> {
+            Versions.touch(session, TOUCH_PUBLISHER, book.getId());
+            Versions.requireUpdated(session.update(UPDATE, stmt -> {
+                setBookParameters(stmt, book);
+                stmt.setInt(5, book.getId());
+                stmt.setLong(6, expectedVersion);
+            }), "Book", book.getId(), expectedVersion);
+            Versions.touch(session, TOUCH_PUBLISHER, book.getId());
+            updateAuthorsOnBook(session, book);
+            return null;
+        });
     }
 
-    private void setIdFromGeneratedKeys(PreparedStatement stmt, Book book) throws SQLException {
-        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-            if (generatedKeys.next()) {
-                book.setId(generatedKeys.getInt(1));
-            }
-        }
+    /**
+     * Создаёт или обновляет книгу с ключом {@code externalKey}; связи с авторами заменяются,
+     * как при {@link #update}. Повтор запроса с тем же ключом не создаёт дубль.
+     *
+     * @return {@code true}, если книга создана
+     */
+    public boolean upsert(String externalKey, Book book) throws SQLException {
+        IdentityMap.evictAll();
+        return writeJdbc.inTransaction(session -> {
+            // Прежний издатель, если книга с этим ключом уже есть и переходит к другому
+            session.update(TOUCH_PUBLISHER_BY_KEY, stmt -> stmt.setString(1, externalKey));
+            Upsert.Result result = session.updateReturning(UPSERT, stmt -> {
+                setBookParameters(stmt, book);
+                stmt.setString(5, externalKey);
+            }, Upsert.RESULT);
+            book.setId(result.id());
+            Versions.touch(session, TOUCH_PUBLISHER, book.getId());
+            updateAuthorsOnBook(session, book);
+            return result.created();
+        });
     }
 
-    private void updateAuthorsOnBook(Book book) throws SQLException {
-        if (book.getId() < 0) return;
+    public void delete(int id) throws SQLException {
+        IdentityMap.evictAll();
+        Versions.touch(writeJdbc, TOUCH_PUBLISHER, id);
+        Versions.touch(writeJdbc, TOUCH_AUTHORS, id);
+        writeJdbc.update(DELETE, stmt -> stmt.setInt(1, id));
+    }
 
-        logger.info("Updating authors for book ID {}. Removing old authors...", book.getId());
-        removeAllAuthorsFromBook(book.getId());
+    /**
+     * Удаление книг одним запросом; версии их издателей и авторов поднимаются в нём же.
+     *
+     * @return id удалённых книг, несуществующих в нём нет
+     */
+    public Set<Integer> deleteAll(Collection<Integer> ids) throws SQLException {
+        IdentityMap.evictAll();
+        if (ids.isEmpty()) return Set.of();
 
-        if (book.getAuthors() != null && !book.getAuthors().isEmpty()) {
-            logger.info("Adding authors {} to book ID {}",
-                    book.getAuthors().stream().map(Author::getId).toList(), book.getId());
-            addAuthorsToBook(book.getId(), book.getAuthors());
-        } else {
-            logger.info("No authors to add for book ID {}", book.getId());
-        }
+        return writeJdbc.updateReturningIds(DELETE_ALL, Operation.BULK, JdbcTemplate.idArray(ids.toArray(new Integer[0])));
     }
 
-    private Set<Author> getAuthorsForBook(int bookId) throws SQLException {
-        String sql = """
-                SELECT a.id, a.name, a.surname, a.country 
-                FROM authors a 
-                JOIN book_author ba ON a.id = ba.author_id 
-                WHERE ba.book_id = ?
-                """;
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, bookId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                Set<Author> authors = new HashSet<>();
-                while (rs.next()) {
-                    authors.add(mapRowToAuthor(rs));
+    /**
+     * Результат {@link #patchAll}: книги, которых нет ни в одном множестве, не найдены.
+     *
+     * @param conflicts книги, чья версия не совпала с ожидаемой
+     */
+    public record PatchResult(Set<Integer> updated, Set<Integer> conflicts) {
+    }
+
+    /**
+     * Частичное изменение книг одним запросом: колонки передаются массивами и
+     * разворачиваются {@code unnest}. Авторы не меняются; id в пакете не повторяются.
+     * Поле {@code null} в {@link BookPatch} не меняется, очистить его здесь нельзя.
+     */
+    public PatchResult patchAll(List<BookPatch> patches) throws SQLException {
+        IdentityMap.evictAll();
+        if (patches.isEmpty()) return new PatchResult(Set.of(), Set.of());
+
+        Set<Integer> updated = new HashSet<>();
+        Set<Integer> conflicts = new HashSet<>();
+        writeJdbc.query(PATCH_ALL, Operation.BULK, patchBinder(patches), PATCH_OUTCOME,
+                row -> (row.getValue() ? updated : conflicts).add(row.getKey()));
+        return new PatchResult(updated, conflicts);
+    }
+
+    // Колонки вне проекции имеют номер 0: их поля не заполняются; авторы догружает loadAuthorIds
+    private static RowMapper<Book> projected(NamedQuery query, ResultSet rs) throws SQLException {
+        BookColumns columns = BookColumns.LAYOUT.of(query, rs);
+        return row -> {
+            Book book = new Book();
+            book.setId(row.getInt(columns.id()));
+            if (columns.title() > 0) {
+                book.setTitle(row.getString(columns.title()));
+            }
+            if (columns.publishedDate() > 0) {
+                book.setPublishedDate(row.getObject(columns.publishedDate(), LocalDate.class));
+            }
+            if (columns.genre() > 0) {
+                book.setGenre(row.getString(columns.genre()));
+            }
+            if (columns.publisherId() > 0) {
+                int publisherId = row.getInt(columns.publisherId());
+                if (!row.wasNull()) {
+                    Publisher publisher = new Publisher();
+                    publisher.setId(publisherId);
+                    book.setPublisher(publisher);
                 }
-                return authors;
             }
+            return book;
+        };
+    }
+
+    // По массиву на колонку: число параметров не зависит от размера пакета
+    private static Binder patchBinder(List<BookPatch> patches) {
+        int size = patches.size();
+        Integer[] ids = new Integer[size];
+        Long[] versions = new Long[size];
+        String[] titles = new String[size];
+        String[] dates = new String[size];
+        String[] genres = new String[size];
+        Integer[] publisherIds = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            BookPatch patch = patches.get(i);
+            ids[i] = patch.id();
+            versions[i] = patch.expectedVersion();
+            titles[i] = patch.title();
+            dates[i] = patch.publishedDate() != null ? patch.publishedDate().toString() : null;
+            genres[i] = patch.genre();
+            publisherIds[i] = patch.publisherId();
         }
+        return stmt -> {
+            Connection conn = stmt.getConnection();
+            stmt.setArray(1, conn.createArrayOf("integer", ids));
+            stmt.setArray(2, conn.createArrayOf("bigint", versions));
+            stmt.setArray(3, conn.createArrayOf("text", titles));
+            stmt.setArray(4, conn.createArrayOf("date", dates));
+            stmt.setArray(5, conn.createArrayOf("text", genres));
+            stmt.setArray(6, conn.createArrayOf("integer", publisherIds));
+        };
     }
 
-    private Author mapRowToAuthor(ResultSet rs) throws SQLException {
-        Author author = new Author();
-        author.setId(rs.getInt("id"));
-        author.setName(rs.getString("name"));
-        author.setSurname(rs.getString("surname"));
-        author.setCountry(rs.getString("country"));
-        return author;
+    private void setBookParameters(PreparedStatement stmt, Book book) throws SQLException {
+        stmt.setString(1, book.getTitle());
+        stmt.setObject(2, book.getPublishedDate(), Types.DATE);
+        stmt.setObject(3, book.getPublisher() != null
+                ? book.getPublisher().getId()
+                : null, Types.INTEGER
+        );
+        stmt.setString(4, book.getGenre());
     }
 
-    private void addAuthorsToBook(int bookId, Set<Author> authors) throws SQLException {
-        String sql = "INSERT INTO book_author (book_id, author_id) VALUES (?, ?)";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, bookId);
+    private void updateAuthorsOnBook(JdbcTemplate session, Book book) throws SQLException {
+        if (book.getId() < 0) return;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Updating authors for book ID {}: {}", book.getId(), authorIds(book));
+        }
+        Versions.touch(session, TOUCH_AUTHORS, book.getId());
+        session.update(UNLINK_AUTHORS, stmt -> stmt.setInt(1, book.getId()));
 
-            for (Author author : authors) {
-                stmt.setInt(2, author.getId());
-                stmt.addBatch();
-                logger.info("Linking book ID {} with author ID {}", bookId, author.getId());
+        if (book.getAuthors() != null && !book.getAuthors().isEmpty()) {
+            session.batch(LINK_AUTHORS, stmt -> stmt.setInt(1, book.getId()), book.getAuthors(),
+                    (stmt, author) -> stmt.setInt(2, author.getId()));
+            if (logger.isDebugEnabled()) {
+                logger.debug("Linked {} authors to book ID {}", book.getAuthors().size(), book.getId());
             }
-            stmt.executeBatch();
-            logger.info("Authors successfully linked to book ID {}", bookId);
+            Versions.touch(session, TOUCH_AUTHORS, book.getId());
         }
     }
 
-    private void removeAllAuthorsFromBook(int bookId) throws SQLException {
-        String sql = "DELETE FROM book_author WHERE book_id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, bookId);
-            stmt.executeUpdate();
-        }
+    private static List<Integer> authorIds(Book book) {
+        return book.getAuthors() != null
+                ? book.getAuthors().stream().map(Author::getId).toList()
+                : List.of();
     }
     // endregion
 }
@@ -0,0 +1,52 @@
+package com.library.repository;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Номера колонок результата для чтения строк по индексу: {@code rs.getString("title")}
+ * в pgjdbc ищет метку через регистронезависимую карту на каждой строке. Метаданные
+ * разбираются один раз на {@link NamedQuery} — у одного SQL всегда одни и те же колонки.
+ *
+ * @param <L> запись с номерами колонок, 0 — колонки нет в результате
+ */
+final class ColumnLayout<L> {
+    @FunctionalInterface
+    interface Factory<L> {
+        /**
+         * @param indexOf номер колонки по метке (в нижнем регистре) или 0
+         */
+        L create(ToIntFunction<String> indexOf);
+    }
+
+    private final Factory<L> factory;
+    private final Map<NamedQuery, L> layouts = new ConcurrentHashMap<>();
+
+    ColumnLayout(Factory<L> factory) {
+        this.factory = factory;
+    }
+
+    L of(NamedQuery query, ResultSet rs) throws SQLException {
+        L layout = layouts.get(query);
+        if (layout == null) {
+            layout = factory.create(indexes(rs.getMetaData()));
+            layouts.putIfAbsent(query, layout);
+        }
+        return layout;
+    }
+
+    private static ToIntFunction<String> indexes(ResultSetMetaData meta) throws SQLException {
+        Map<String, Integer> byLabel = new HashMap<>();
+        // С конца: при повторной метке, как и в getXxx(label), выигрывает первая колонка
+        for (int i = meta.getColumnCount(); i >= 1; i--) {
+            byLabel.put(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        return label -> byLabel.getOrDefault(label, 0);
+    }
+}
@@ -0,0 +1,138 @@
+package com.library.repository;
+
+import com.library.model.Author;
+import com.library.model.Book;
+import com.library.model.Publisher;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Материализация строк в сущности через {@link IdentityMap}: повторная строка с тем же id
+ * возвращает уже созданный экземпляр, а связи новых сущностей подключаются к общим
+ * {@link BatchLoader}, так что вложенные коллекции тоже догружаются пачкой.
+ */
+final class EntityGraph {
+    /**
+     * Номера колонок книги; 0 — колонки нет в результате (проекция {@code ?fields=}).
+     */
+    record BookColumns(int id, int title, int publishedDate, int genre, int publisherId, int publisherName) {
+        static final ColumnLayout<BookColumns> LAYOUT = new ColumnLayout<>(indexOf -> new BookColumns(
+                indexOf.applyAsInt("id"), indexOf.applyAsInt("title"), indexOf.applyAsInt("published_date"),
+                indexOf.applyAsInt("genre"), indexOf.applyAsInt("publisher_id"), indexOf.applyAsInt("publisher_name")));
+    }
+
+    record AuthorColumns(int id, int name, int surname, int country) {
+        static final ColumnLayout<AuthorColumns> LAYOUT = new ColumnLayout<>(indexOf -> new AuthorColumns(
+                indexOf.applyAsInt("id"), indexOf.applyAsInt("name"), indexOf.applyAsInt("surname"),
+                indexOf.applyAsInt("country")));
+    }
+
+    record PublisherColumns(int id, int name) {
+        static final ColumnLayout<PublisherColumns> LAYOUT = new ColumnLayout<>(indexOf -> new PublisherColumns(
+                indexOf.applyAsInt("id"), indexOf.applyAsInt("name")));
+    }
+
+    private static final NamedQuery AUTHORS_FOR_BOOKS = new NamedQuery("book.authorsForBooks", """
+            SELECT ba.book_id AS owner_id, a.id, a.name, a.surname, a.country
+            FROM authors a
+            JOIN book_author ba ON a.id = ba.author_id
+            WHERE ba.book_id = ANY(?)
+            """);
+
+    private static final NamedQuery BOOKS_FOR_AUTHORS = new NamedQuery("author.booksForAuthors", """
+            SELECT ba.author_id AS owner_id, b.id, b.title, b.published_date, b.genre,
+                   p.id AS publisher_id, p.name AS publisher_name
+            FROM books b
+            LEFT JOIN publishers p ON b.publisher_id = p.id
+            INNER JOIN book_author ba ON b.id = ba.book_id
+            WHERE ba.author_id = ANY(?)
+            """);
+
+    private static final NamedQuery BOOKS_FOR_PUBLISHERS = new NamedQuery("publisher.booksForPublishers", """
+            SELECT b.publisher_id AS owner_id, b.id, b.title, b.published_date, b.genre,
+                   p.id AS publisher_id, p.name AS publisher_name
+            FROM books b
+            JOIN publishers p ON b.publisher_id = p.id
+            WHERE b.publisher_id = ANY(?)
+            """);
+
+    private final IdentityMap identities = IdentityMap.current();
+    private final BatchLoader<Author> bookAuthors;
+    private final BatchLoader<Book> authorBooks;
+    private final BatchLoader<Book> publisherBooks;
+
+    EntityGraph(DataSource dataSource) {
+        this.bookAuthors = new BatchLoader<>(dataSource, AUTHORS_FOR_BOOKS, this::authors);
+        this.authorBooks = new BatchLoader<>(dataSource, BOOKS_FOR_AUTHORS, this::books);
+        this.publisherBooks = new BatchLoader<>(dataSource, BOOKS_FOR_PUBLISHERS, this::books);
+    }
+
+    /**
+     * Маппер строк результата {@code query}. Колонки: id, title, published_date, genre,
+     * publisher_id, publisher_name.
+     */
+    RowMapper<Book> books(NamedQuery query, ResultSet rs) throws SQLException {
+        BookColumns columns = BookColumns.LAYOUT.of(query, rs);
+        return row -> book(row, columns);
+    }
+
+    private Book book(ResultSet rs, BookColumns columns) throws SQLException {
+        int id = rs.getInt(columns.id());
+        return identities.entity(Book.class, id, () -> {
+            Book book = new Book();
+            book.setId(id);
+            book.setTitle(rs.getString(columns.title()));
+            book.setPublishedDate(rs.getObject(columns.publishedDate(), LocalDate.class));
+            book.setGenre(rs.getString(columns.genre()));
+            int publisherId = rs.getInt(columns.publisherId());
+            if (!rs.wasNull()) {
+                book.setPublisher(publisher(publisherId, rs.getString(columns.publisherName())));
+            }
+            book.setAuthors(bookAuthors.lazySet(id));
+            return book;
+        });
+    }
+
+    /**
+     * Колонки: id, name, surname, country.
+     */
+    RowMapper<Author> authors(NamedQuery query, ResultSet rs) throws SQLException {
+        AuthorColumns columns = AuthorColumns.LAYOUT.of(query, rs);
+        return row -> author(row, columns);
+    }
+
+    private Author author(ResultSet rs, AuthorColumns columns) throws SQLException {
+        int id = rs.getInt(columns.id());
+        return identities.entity(Author.class, id, () -> {
+            Author author = new Author();
+            author.setId(id);
+            author.setName(rs.getString(columns.name()));
+            author.setSurname(rs.getString(columns.surname()));
+            author.setCountry(rs.getString(columns.country()));
+            author.setBooks(authorBooks.lazySet(id));
+            return author;
+        });
+    }
+
+    /**
+     * Колонки: id, name.
+     */
+    RowMapper<Publisher> publishers(NamedQuery query, ResultSet rs) throws SQLException {
+        PublisherColumns columns = PublisherColumns.LAYOUT.of(query, rs);
+        return row -> publisher(row.getInt(columns.id()), row.getString(columns.name()));
+    }
+
+    // Издатель книги — тот же экземпляр, что и в списке издателей
+    private Publisher publisher(int id, String name) throws SQLException {
+        return identities.entity(Publisher.class, id, () -> {
+            Publisher publisher = new Publisher();
+            publisher.setId(id);
+            publisher.setName(name);
+            publisher.setBooks(publisherBooks.lazyList(id));
+            return publisher;
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.library.repository;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Карта идентичности единицы работы (HTTP-запроса): каждая книга, автор и издатель
+ * материализуется один раз и разделяется всеми графами, загруженными в этом запросе.
+ * Вне запроса каждый вызов DAO получает собственную карту.
+ */
+public final class IdentityMap {
+    private static final ThreadLocal<IdentityMap> CURRENT = new ThreadLocal<>();
+
+    @FunctionalInterface
+    interface Materializer<T> {
+        T create() throws SQLException;
+    }
+
+    private record Key(Class<?> type, int id) {
+    }
+
+    private final Map<Key, Object> entities = new HashMap<>();
+
+    private IdentityMap() {
+    }
+
+    public static void start() {
+        CURRENT.set(new IdentityMap());
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    static IdentityMap current() {
+        IdentityMap map = CURRENT.get();
+        return map != null ? map : new IdentityMap();
+    }
+
+    /**
+     * После записи загруженные ранее экземпляры могут быть устаревшими.
+     */
+    static void evictAll() {
+        IdentityMap map = CURRENT.get();
+        if (map != null) {
+            map.entities.clear();
+        }
+    }
+
+    <T> T entity(Class<T> type, int id, Materializer<T> materializer) throws SQLException {
+        Key key = new Key(type, id);
+        Object existing = entities.get(key);
+        if (existing != null) {
+            return type.cast(existing);
+        }
+        T created = materializer.create();
+        entities.put(key, created);
+        return created;
+    }
+}
@@ -0,0 +1,279 @@
+package com.library.repository;
+
+import com.library.config.ApplicationProperties;
+import com.library.metrics.QueryStats;
+import com.library.repository.QueryTimeouts.Operation;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Общий JDBC-слой DAO: соединение, {@link NamedQuery}, таймаут {@link QueryTimeouts},
+ * маппинг строк по номерам колонок, пакеты и потоковое чтение. Настройки выполнения
+ * (таймауты, fetch size) меняются здесь, а не в каждом DAO.
+ * <p>
+ * Шаблон над {@link DataSource} берёт соединение на каждый вызов; внутри
+ * {@link #inConnection} все вызовы идут через одно соединение.
+ * <p>
+ * Время {@code execute*}, ошибки и число строк пишутся в {@link QueryStats} запроса здесь же:
+ * statement и result set драйвера не оборачиваются.
+ */
+final class JdbcTemplate {
+    @FunctionalInterface
+    interface Binder {
+        Binder NONE = stmt -> {
+        };
+
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    /**
+     * Первый параметр — массив id для {@code = ANY(?)}.
+     */
+    static Binder idArray(Integer[] ids) {
+        return stmt -> stmt.setArray(1, stmt.getConnection().createArrayOf("integer", ids));
+    }
+
+    @FunctionalInterface
+    interface ItemBinder<T> {
+        void bind(PreparedStatement stmt, T item) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface RowCallback<T> {
+        void accept(T row) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface ConnectionCallback<R> {
+        R run(JdbcTemplate template) throws SQLException;
+    }
+
+    private static final RowMapper.Factory<Integer> ID = RowMapper.fixed(rs -> rs.getInt(1));
+
+    // Строк за один проход курсора при потоковом чтении
+    private static final int FETCH_SIZE = ApplicationProperties.getInt("db.fetchSize", 1000);
+
+    private final DataSource dataSource;
+    // Соединение вызывающего внутри inConnection: шаблон его не закрывает
+    private final Connection connection;
+
+    JdbcTemplate(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.connection = null;
+    }
+
+    private JdbcTemplate(Connection connection) {
+        this.dataSource = null;
+        this.connection = connection;
+    }
+
+    <R> R inConnection(ConnectionCallback<R> work) throws SQLException {
+        if (connection != null) {
+            return work.run(this);
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            return work.run(new JdbcTemplate(conn));
+        }
+    }
+
+    /**
+     * Все вызовы {@code work} в одной транзакции: исключение откатывает их целиком.
+     * Внутри уже открытой транзакции просто выполняет {@code work}.
+     */
+    <R> R inTransaction(ConnectionCallback<R> work) throws SQLException {
+        return inConnection(template -> {
+            Connection conn = template.connection;
+            if (!conn.getAutoCommit()) {
+                return work.run(template);
+            }
+            conn.setAutoCommit(false);
+            try {
+                R result = work.run(template);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        });
+    }
+
+    <T> Optional<T> queryOne(NamedQuery query, Binder binder, RowMapper.Factory<T> mappers) throws SQLException {
+        return inConnection(template -> {
+            QueryStats stats = query.stats();
+            try (PreparedStatement stmt = template.prepare(query, Operation.READ, binder);
+                 ResultSet rs = stats.time(stmt::executeQuery)) {
+                if (!rs.next()) {
+                    stats.recordRows(0);
+                    return Optional.empty();
+                }
+                stats.recordRows(1);
+                return Optional.of(mappers.forResult(query, rs).map(rs));
+            }
+        });
+    }
+
+    <T> List<T> queryList(NamedQuery query, Operation operation, Binder binder, RowMapper.Factory<T> mappers) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        query(query, operation, binder, mappers, rows::add);
+        return rows;
+    }
+
+    <T> void query(NamedQuery query, Operation operation, Binder binder, RowMapper.Factory<T> mappers,
+                   RowCallback<T> callback) throws SQLException {
+        inConnection(template -> {
+            QueryStats stats = query.stats();
+            try (PreparedStatement stmt = template.prepare(query, operation, binder);
+                 ResultSet rs = stats.time(stmt::executeQuery)) {
+                readAll(stats, query, rs, mappers, callback);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Потоковое чтение курсором по {@code db.fetchSize} строк: драйвер не держит
+     * весь результат в памяти. pgjdbc открывает курсор только вне autocommit, поэтому
+     * на время чтения он выключается.
+     */
+    <T> void forEach(NamedQuery query, Binder binder, RowMapper.Factory<T> mappers, RowCallback<T> callback) throws SQLException {
+        inConnection(template -> {
+            Connection conn = template.connection;
+            boolean autoCommit = conn.getAutoCommit();
+            if (autoCommit) {
+                conn.setAutoCommit(false);
+            }
+            try (PreparedStatement stmt = template.prepare(query, Operation.BULK, binder)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                QueryStats stats = query.stats();
+                try (ResultSet rs = stats.time(stmt::executeQuery)) {
+                    readAll(stats, query, rs, mappers, callback);
+                }
+            } finally {
+                if (autoCommit) {
+                    // Завершает транзакцию чтения
+                    conn.setAutoCommit(true);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @return число изменённых строк
+     */
+    int update(NamedQuery query, Binder binder) throws SQLException {
+        return inConnection(template -> {
+            QueryStats stats = query.stats();
+            try (PreparedStatement stmt = template.prepare(query, Operation.WRITE, binder)) {
+                int count = stats.time(stmt::executeUpdate);
+                stats.recordRows(count);
+                return count;
+            }
+        });
+    }
+
+    /**
+     * Запись с {@code RETURNING id} по многим строкам, например по массиву id.
+     *
+     * @return id затронутых строк
+     */
+    Set<Integer> updateReturningIds(NamedQuery query, Operation operation, Binder binder) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        query(query, operation, binder, ID, ids::add);
+        return ids;
+    }
+
+    /**
+     * @return сгенерированный id или 0, если ключ не вернулся
+     */
+    int insert(NamedQuery query, Binder binder) throws SQLException {
+        return inConnection(template -> {
+            QueryStats stats = query.stats();
+            try (PreparedStatement stmt = query.prepareReturningKeys(template.connection)) {
+                QueryTimeouts.apply(stmt, Operation.WRITE);
+                binder.bind(stmt);
+                stats.recordRows(stats.time(stmt::executeUpdate));
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    return keys.next() ? keys.getInt(1) : 0;
+                }
+            }
+        });
+    }
+
+    /**
+     * Запись с {@code RETURNING}, которая всегда возвращает одну строку (INSERT, upsert).
+     */
+    <T> T updateReturning(NamedQuery query, Binder binder, RowMapper.Factory<T> mappers) throws SQLException {
+        return inConnection(template -> {
+            QueryStats stats = query.stats();
+            try (PreparedStatement stmt = template.prepare(query, Operation.WRITE, binder);
+                 ResultSet rs = stats.time(stmt::executeQuery)) {
+                if (!rs.next()) {
+                    throw new SQLException("No row returned by " + query.name());
+                }
+                stats.recordRows(1);
+                return mappers.forResult(query, rs).map(rs);
+            }
+        });
+    }
+
+    /**
+     * Один JDBC-пакет на все {@code items}; {@code common} задаёт параметры, общие для всех строк.
+     */
+    <T> void batch(NamedQuery query, Binder common, Iterable<T> items, ItemBinder<T> binder) throws SQLException {
+        inConnection(template -> {
+            QueryStats stats = query.stats();
+            try (PreparedStatement stmt = template.prepare(query, Operation.BULK, common)) {
+                for (T item : items) {
+                    binder.bind(stmt, item);
+                    stmt.addBatch();
+                }
+                long total = 0;
+                for (int count : stats.time(stmt::executeBatch)) {
+                    // SUCCESS_NO_INFO (-2) не считается
+                    total += Math.max(count, 0);
+                }
+                stats.recordRows(total);
+            }
+            return null;
+        });
+    }
+
+    private static <T> void readAll(QueryStats stats, NamedQuery query, ResultSet rs, RowMapper.Factory<T> mappers,
+                                    RowCallback<T> callback) throws SQLException {
+        RowMapper<T> mapper = mappers.forResult(query, rs);
+        long rows = 0;
+        try {
+            while (rs.next()) {
+                rows++;
+                callback.accept(mapper.map(rs));
+            }
+        } finally {
+            stats.recordRows(rows);
+        }
+    }
+
+    private PreparedStatement prepare(NamedQuery query, Operation operation, Binder binder) throws SQLException {
+        PreparedStatement stmt = query.prepare(connection);
+        try {
+            QueryTimeouts.apply(stmt, operation);
+            binder.bind(stmt);
+            return stmt;
+        } catch (SQLException | RuntimeException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.library.repository;
+
+import com.library.metrics.QueryMetrics;
+import com.library.metrics.QueryStats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SQL-запрос со стабильным именем ({@code book.getById}), под которым
+ * собираются метрики на {@code /admin/queries}.
+ */
+public record NamedQuery(String name, String sql) {
+
+    public PreparedStatement prepare(Connection conn) throws SQLException {
+        return conn.prepareStatement(sql);
+    }
+
+    public PreparedStatement prepareReturningKeys(Connection conn) throws SQLException {
+        return conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+    }
+
+    QueryStats stats() {
+        return QueryMetrics.forQuery(name);
+    }
+}
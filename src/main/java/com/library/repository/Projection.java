@@ -0,0 +1,60 @@
+package com.library.repository;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Проекция для {@code ?fields=}: в SELECT попадают только колонки запрошенных полей DTO.
+ * Связи (списки id) DAO догружает сам и только если они запрошены.
+ * Запросы кэшируются по набору полей: комбинаций немного, имя метрики одно на проекцию.
+ */
+final class Projection {
+    private final String name;
+    private final String table;
+    private final Map<String, String> columns;
+    private final Set<String> relations;
+    private final Map<Set<String>, NamedQuery> allQueries = new ConcurrentHashMap<>();
+    private final Map<Set<String>, NamedQuery> byIdQueries = new ConcurrentHashMap<>();
+
+    /**
+     * @param columns поле DTO → колонка таблицы; {@code id} выбирается всегда
+     */
+    Projection(String name, String table, Map<String, String> columns, Set<String> relations) {
+        this.name = name;
+        this.table = table;
+        this.columns = columns;
+        this.relations = relations;
+    }
+
+    NamedQuery selectAll(Set<String> fields) {
+        validate(fields);
+        return allQueries.computeIfAbsent(fields, key ->
+                new NamedQuery(name + ".getAllFields", "SELECT " + columnList(key) + " FROM " + table));
+    }
+
+    NamedQuery selectById(Set<String> fields) {
+        validate(fields);
+        return byIdQueries.computeIfAbsent(fields, key ->
+                new NamedQuery(name + ".getByIdFields", "SELECT " + columnList(key) + " FROM " + table + " WHERE id = ?"));
+    }
+
+    private void validate(Set<String> fields) {
+        for (String field : fields) {
+            if (!columns.containsKey(field) && !relations.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+    }
+
+    private String columnList(Set<String> fields) {
+        return "id" + fields.stream()
+                .filter(field -> !"id".equals(field))
+                .map(columns::get)
+                .filter(column -> column != null)
+                .sorted()
+                .map(column -> ", " + column)
+                .collect(Collectors.joining());
+    }
+}
@@ -1,156 +1,228 @@
 package com.library.repository;
 
 import com.library.config.DataSourceProvider;
+import com.library.config.Workload;
 import com.library.model.Book;
+import com.library.model.EntityVersion;
 import com.library.model.Publisher;
+import com.library.repository.EntityGraph.PublisherColumns;
+import com.library.repository.JdbcTemplate.Binder;
+import com.library.repository.QueryTimeouts.Operation;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import javax.sql.DataSource;
 
 public class PublisherDAO {
+    private static final NamedQuery GET_BY_ID = new NamedQuery("publisher.getById", "SELECT id, name FROM publishers WHERE id = ?");
+    private static final NamedQuery GET_ALL = new NamedQuery("publisher.getAll", "SELECT id, name FROM publishers");
+    private static final NamedQuery INSERT = new NamedQuery("publisher.create", "INSERT INTO publishers (name) VALUES (?)");
+    private static final NamedQuery UPDATE = new NamedQuery("publisher.update", "UPDATE publishers SET name = ?, " + Versions.BUMP + Versions.WHERE_VERSION);
+    private static final NamedQuery ASSIGN_BOOKS = new NamedQuery("publisher.assignBooks", "UPDATE books SET publisher_id = ?, " + Versions.BUMP + " WHERE id = ?");
+    // publisher_id книг обнуляет ON DELETE SET NULL; CTE в том же запросе поднимает их версию
+    private static final NamedQuery DELETE = new NamedQuery("publisher.delete", """
+            WITH deleted AS (DELETE FROM publishers WHERE id = ANY(?) RETURNING id),
+                 touched AS (UPDATE books SET %s WHERE publisher_id IN (SELECT id FROM deleted))
+            SELECT id FROM deleted
+            """.formatted(Versions.BUMP));
+    private static final NamedQuery UPSERT = Upsert.query("publisher.upsert", "publishers", "name");
+
+    private static final NamedQuery GET_VERSION = new NamedQuery("publisher.getVersion", "SELECT version, updated_at FROM publishers WHERE id = ?");
+    private static final NamedQuery GET_COLLECTION_VERSION = new NamedQuery("publisher.getCollectionVersion", "SELECT count(*), max(updated_at) FROM publishers");
+    private static final NamedQuery TOUCH = new NamedQuery("publisher.touch", "UPDATE publishers SET " + Versions.BUMP + " WHERE id = ?");
+    // Прежний издатель переназначаемой книги теряет её из своего списка
+    private static final NamedQuery TOUCH_PREVIOUS_PUBLISHER = new NamedQuery("publisher.touchPrevious",
+            "UPDATE publishers SET " + Versions.BUMP + " WHERE id = (SELECT publisher_id FROM books WHERE id = ?)");
+    // Книги отдают имя издателя
+    private static final NamedQuery TOUCH_BOOKS = new NamedQuery("publisher.touchBooks", "UPDATE books SET " + Versions.BUMP + " WHERE publisher_id = ?");
+
+    public static final String BOOK_IDS = "bookIds";
+    private static final Projection PROJECTION = new Projection("publisher", "publishers", Map.of(
+            "id", "id",
+            "name", "name"), Set.of(BOOK_IDS));
+    private static final NamedQuery BOOK_IDS_FOR_PUBLISHERS = new NamedQuery("publisher.bookIdsForPublishers", "SELECT publisher_id, id FROM books WHERE publisher_id = ANY(?)");
+
     private final DataSource dataSource;
+    private final DataSource listDataSource;
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate listJdbc;
+    private final JdbcTemplate writeJdbc;
 
     public PublisherDAO() {
-        this.dataSource = DataSourceProvider.getDataSource();
+        this(DataSourceProvider.getDataSource(Workload.POINT_READ),
+                DataSourceProvider.getDataSource(Workload.LIST),
+                DataSourceProvider.getDataSource(Workload.WRITE));
     }
 
-    private PublisherDAO(DataSource dataSource) {
+    private PublisherDAO(DataSource dataSource, DataSource listDataSource, DataSource writeDataSource) {
         this.dataSource = dataSource;
+        this.listDataSource = listDataSource;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.listJdbc = new JdbcTemplate(listDataSource);
+        this.writeJdbc = new JdbcTemplate(writeDataSource);
     }
 
     public static PublisherDAO forTests(DataSource dataSource) {
-        return new PublisherDAO(dataSource);
+        return new PublisherDAO(dataSource, dataSource, dataSource);
     }
 
     public Optional<Publisher> getById(int id) throws SQLException {
-        String sql = "SELECT id, name FROM publishers WHERE id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Publisher publisher = mapRowToPublisher(rs);
-                    publisher.setBooks(getBooksForPublisher(id));
-                    return Optional.of(publisher);
-                }
-                return Optional.empty();
+        return jdbc.queryOne(GET_BY_ID, stmt -> stmt.setInt(1, id), new EntityGraph(dataSource)::publishers);
+    }
+
+    /**
+     * Загрузка только запрошенных полей DTO: книги — только при {@code bookIds}.
+     */
+    public Optional<Publisher> getById(int id, Set<String> fields) throws SQLException {
+        return jdbc.inConnection(session -> {
+            Optional<Publisher> publisher = session.queryOne(PROJECTION.selectById(fields), stmt -> stmt.setInt(1, id), PublisherDAO::projected);
+            if (publisher.isPresent() && fields.contains(BOOK_IDS)) {
+                loadBookIds(session, List.of(publisher.get()));
             }
-        }
+            return publisher;
+        });
     }
 
-    public List<Publisher> getAll() throws SQLException {
-        String sql = "SELECT id, name FROM publishers";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            List<Publisher> publishers = new ArrayList<>();
-            while (rs.next()) {
-                Publisher publisher = mapRowToPublisher(rs);
-                publisher.setBooks(getBooksForPublisher(publisher.getId()));
-                publishers.add(publisher);
+    public List<Publisher> getAll(Set<String> fields) throws SQLException {
+        return listJdbc.inConnection(session -> {
+            List<Publisher> publishers = session.queryList(PROJECTION.selectAll(fields), Operation.BULK, Binder.NONE, PublisherDAO::projected);
+            if (fields.contains(BOOK_IDS)) {
+                loadBookIds(session, publishers);
             }
             return publishers;
-        }
+        });
     }
 
-    public void create(Publisher publisher) throws SQLException {
-        String sql = "INSERT INTO publishers (name) VALUES (?)";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    public Optional<EntityVersion> getVersion(int id) throws SQLException {
+        return Versions.get(jdbc, GET_VERSION, id);
+    }
 
-            stmt.setString(1, publisher.getName());
-            stmt.executeUpdate();
-            setIdFromGeneratedKeys(stmt, publisher);
-        }
+    public EntityVersion getCollectionVersion() throws SQLException {
+        return Versions.getForCollection(listJdbc, GET_COLLECTION_VERSION);
     }
 
-    public void update(Publisher publisher) throws SQLException {
-        String sql = "UPDATE publishers SET name = ? WHERE id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public List<Publisher> getAll() throws SQLException {
+        List<Publisher> publishers = new ArrayList<>();
+        listJdbc.forEach(GET_ALL, Binder.NONE, new EntityGraph(listDataSource)::publishers, publishers::add);
+        return publishers;
+    }
 
-            stmt.setString(1, publisher.getName());
-            stmt.setInt(2, publisher.getId());
-            stmt.executeUpdate();
-        }
+    public void create(Publisher publisher) throws SQLException {
+        IdentityMap.evictAll();
+        publisher.setId(writeJdbc.insert(INSERT, stmt -> stmt.setString(1, publisher.getName())));
     }
 
-    public void updatePublisherBooks(int publisherId, List<Integer> bookIds) throws SQLException {
-        String sql = "UPDATE books SET publisher_id = ? WHERE id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, publisherId);
-            for (Integer bookId : bookIds) {
-                stmt.setInt(2, bookId);
-                stmt.addBatch();
-            }
-            stmt.executeBatch();
-        }
+    /**
+     * Условная запись, как {@link BookDAO#update(com.library.model.Book, long)}: книги
+     * назначаются в той же транзакции, что и проверка версии.
+     */
+    public void update(Publisher publisher, Collection<Integer> bookIds, long expectedVersion) throws SQLException {
+        IdentityMap.evictAll();
+        writeJdbc.inTransaction(session -> {
+            Versions.requireUpdated(session.update(UPDATE, stmt -> {
+                stmt.setString(1, publisher.getName());
+                stmt.setInt(2, publisher.getId());
+                stmt.setLong(3, expectedVersion);
+            }), "Publisher", publisher.getId(), expectedVersion);
+            Versions.touch(session, TOUCH_BOOKS, publisher.getId());
+            assignBooks(session, publisher.getId(), bookIds);
+            return null;
+        });
+    }
+
+    /**
+     * Создаёт или обновляет издателя с ключом {@code externalKey}, см. {@link BookDAO#upsert}.
+     * Книги назначаются в той же транзакции: повтор запроса не застаёт запись наполовину.
+     *
+     * @return {@code true}, если издатель создан
+     */
+    public boolean upsert(String externalKey, Publisher publisher, Collection<Integer> bookIds) throws SQLException {
+        IdentityMap.evictAll();
+        return writeJdbc.inTransaction(session -> {
+            Upsert.Result result = session.updateReturning(UPSERT, stmt -> {
+                stmt.setString(1, publisher.getName());
+                stmt.setString(2, externalKey);
+            }, Upsert.RESULT);
+            publisher.setId(result.id());
+            Versions.touch(session, TOUCH_BOOKS, publisher.getId());
+            assignBooks(session, publisher.getId(), bookIds);
+            return result.created();
+        });
+    }
+
+    public void updatePublisherBooks(int publisherId, Collection<Integer> bookIds) throws SQLException {
+        IdentityMap.evictAll();
+        if (bookIds == null || bookIds.isEmpty()) return;
+
+        writeJdbc.inConnection(session -> {
+            assignBooks(session, publisherId, bookIds);
+            return null;
+        });
+        Versions.touch(writeJdbc, TOUCH, publisherId);
     }
 
     public void delete(int id) throws SQLException {
-        // Обнуляем publisher_id у связанных книг
-        String updateSql = "UPDATE books SET publisher_id = NULL WHERE publisher_id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(updateSql)) {
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        }
+        IdentityMap.evictAll();
+        writeJdbc.updateReturningIds(DELETE, Operation.WRITE, JdbcTemplate.idArray(new Integer[]{id}));
+    }
 
-        String sql = "DELETE FROM publishers WHERE id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Удаление издателей одним запросом; несуществующие id пропускаются.
+     *
+     * @return id удалённых издателей
+     */
+    public Set<Integer> deleteAll(Collection<Integer> ids) throws SQLException {
+        IdentityMap.evictAll();
+        if (ids.isEmpty()) return Set.of();
 
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        }
+        return writeJdbc.updateReturningIds(DELETE, Operation.BULK, JdbcTemplate.idArray(ids.toArray(new Integer[0])));
     }
 
     // region Helper Methods
-    private Publisher mapRowToPublisher(ResultSet rs) throws SQLException {
-        Publisher publisher = new Publisher();
-        publisher.setId(rs.getInt("id"));
-        publisher.setName(rs.getString("name"));
-        return publisher;
-    }
-
-    private List<Book> getBooksForPublisher(int publisherId) throws SQLException {
-        String sql = "SELECT id, title, published_date, genre FROM books WHERE publisher_id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, publisherId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                List<Book> books = new ArrayList<>();
-                while (rs.next()) {
-                    books.add(mapRowToBook(rs));
-                }
-                return books;
-            }
-        }
-    }
+    // Книги вне списка не отвязываются; прежние издатели назначаемых книг получают новую версию
+    private void assignBooks(JdbcTemplate session, int publisherId, Collection<Integer> bookIds) throws SQLException {
+        if (bookIds == null || bookIds.isEmpty()) return;
 
-    private Book mapRowToBook(ResultSet rs) throws SQLException {
-        Book book = new Book();
-        book.setId(rs.getInt("id"));
-        book.setTitle(rs.getString("title"));
-        Date publishedDate = rs.getDate("published_date");
-        book.setPublishedDate(Optional.ofNullable(publishedDate).map(Date::toString).orElse(null));
-        book.setGenre(rs.getString("genre"));
-        return book;
+        session.batch(TOUCH_PREVIOUS_PUBLISHER, Binder.NONE, bookIds, (stmt, bookId) -> stmt.setInt(1, bookId));
+        session.batch(ASSIGN_BOOKS, stmt -> stmt.setInt(1, publisherId), bookIds, (stmt, bookId) -> stmt.setInt(2, bookId));
     }
 
-    private void setIdFromGeneratedKeys(PreparedStatement stmt, Publisher publisher) throws SQLException {
-        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-            if (generatedKeys.next()) {
-                publisher.setId(generatedKeys.getInt(1));
+
+    // Колонки вне проекции имеют номер 0: их поля не заполняются; книги догружает loadBookIds
+    private static RowMapper<Publisher> projected(NamedQuery query, ResultSet rs) throws SQLException {
+        PublisherColumns columns = PublisherColumns.LAYOUT.of(query, rs);
+        return row -> {
+            Publisher publisher = new Publisher();
+            publisher.setId(row.getInt(columns.id()));
+            if (columns.name() > 0) {
+                publisher.setName(row.getString(columns.name()));
             }
+            return publisher;
+        };
+    }
+
+    // Книги всех издателей результата одним запросом по индексу (publisher_id, id)
+    private void loadBookIds(JdbcTemplate session, List<Publisher> publishers) throws SQLException {
+        if (publishers.isEmpty()) return;
+
+        Map<Integer, Publisher> byId = new HashMap<>(publishers.size() * 2);
+        Integer[] ids = new Integer[publishers.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Publisher publisher = publishers.get(i);
+            byId.put(publisher.getId(), publisher);
+            ids[i] = publisher.getId();
         }
+        session.query(BOOK_IDS_FOR_PUBLISHERS, Operation.READ, JdbcTemplate.idArray(ids), RowMapper.fixed(rs -> {
+            Book book = new Book();
+            book.setId(rs.getInt(2));
+            return Map.entry(rs.getInt(1), book);
+        }), link -> byId.get(link.getKey()).getBooks().add(link.getValue()));
     }
     // endregion
 }
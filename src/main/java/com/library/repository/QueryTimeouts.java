@@ -0,0 +1,45 @@
+package com.library.repository;
+
+import com.library.config.ApplicationProperties;
+import com.library.config.RequestDeadline;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+public class QueryTimeouts {
+    public enum Operation {
+        READ("db.timeout.read", 5),
+        WRITE("db.timeout.write", 10),
+        BULK("db.timeout.bulk", 30);
+
+        private final int seconds;
+
+        Operation(String property, int defaultSeconds) {
+            this.seconds = ApplicationProperties.getInt(property, defaultSeconds);
+        }
+
+        public int seconds() {
+            return seconds;
+        }
+    }
+
+    private QueryTimeouts() {
+    }
+
+    public static void apply(Statement stmt, Operation operation) throws SQLException {
+        stmt.setQueryTimeout(effectiveSeconds(operation.seconds(), RequestDeadline.remainingMillis()));
+    }
+
+    private static int effectiveSeconds(int operationSeconds, long remainingMillis) throws SQLTimeoutException {
+        if (remainingMillis == Long.MAX_VALUE) {
+            return operationSeconds;
+        }
+        if (remainingMillis <= 0) {
+            throw new SQLTimeoutException("Request deadline exceeded before query execution");
+        }
+        // JDBC принимает таймаут только в секундах, округляем вверх
+        long remainingSeconds = (remainingMillis + 999) / 1000;
+        return (int) Math.min(operationSeconds, remainingSeconds);
+    }
+}
@@ -0,0 +1,25 @@
+package com.library.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Строка результата в объект. Маппер создаётся на результат через {@link Factory}:
+ * номера колонок ({@link ColumnLayout}) разрешаются до чтения первой строки.
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+
+    @FunctionalInterface
+    interface Factory<T> {
+        RowMapper<T> forResult(NamedQuery query, ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Для мапперов, которым не нужны метаданные: {@code rs -> rs.getInt(1)}.
+     */
+    static <T> Factory<T> fixed(RowMapper<T> mapper) {
+        return (query, rs) -> mapper;
+    }
+}
@@ -0,0 +1,36 @@
+package com.library.repository;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Идемпотентная запись по {@code external_key}: {@code INSERT ... ON CONFLICT DO UPDATE ... RETURNING id}.
+ * Повтор с тем же ключом обновляет ту же строку одним запросом, без SELECT перед записью
+ * и без гонки между проверкой и вставкой. {@code xmax = 0} только у строки, вставленной
+ * этим запросом: так создание отличается от обновления.
+ */
+final class Upsert {
+    record Result(int id, boolean created) {
+    }
+
+    static final RowMapper.Factory<Result> RESULT = RowMapper.fixed(rs -> new Result(rs.getInt(1), rs.getBoolean(2)));
+
+    private Upsert() {
+    }
+
+    /**
+     * Параметры — значения {@code columns} по порядку, последним — внешний ключ.
+     */
+    static NamedQuery query(String name, String table, String... columns) {
+        String insertColumns = String.join(", ", columns);
+        String placeholders = Arrays.stream(columns).map(column -> "?").collect(Collectors.joining(", "));
+        String assignments = Arrays.stream(columns)
+                .map(column -> column + " = EXCLUDED." + column)
+                .collect(Collectors.joining(", "));
+        // В DO UPDATE колонки существующей строки квалифицируются именем таблицы
+        return new NamedQuery(name, "INSERT INTO " + table + " (" + insertColumns + ", external_key) VALUES (" + placeholders + ", ?)"
+                + " ON CONFLICT (external_key) DO UPDATE SET " + assignments
+                + ", version = " + table + ".version + 1, updated_at = now()"
+                + " RETURNING id, xmax = 0");
+    }
+}
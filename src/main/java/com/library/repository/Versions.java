@@ -0,0 +1,52 @@
+package com.library.repository;
+
+import com.library.exception.VersionConflictException;
+import com.library.model.EntityVersion;
+import com.library.repository.JdbcTemplate.Binder;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+class Versions {
+    static final String BUMP = "version = version + 1, updated_at = now()";
+    // Оптимистическая блокировка: запись проходит, только если строку никто не изменил после чтения
+    static final String WHERE_VERSION = " WHERE id = ? AND version = ?";
+
+    private static final RowMapper.Factory<EntityVersion> VERSION =
+            RowMapper.fixed(rs -> new EntityVersion(rs.getLong(1), toInstant(rs.getTimestamp(2))));
+
+    private Versions() {
+    }
+
+    static Optional<EntityVersion> get(JdbcTemplate jdbc, NamedQuery query, int id) throws SQLException {
+        return jdbc.queryOne(query, stmt -> stmt.setInt(1, id), VERSION);
+    }
+
+    // count(*)/max(...) всегда возвращает одну строку
+    static EntityVersion getForCollection(JdbcTemplate jdbc, NamedQuery query) throws SQLException {
+        return jdbc.queryOne(query, Binder.NONE, VERSION).orElseThrow();
+    }
+
+    /**
+     * Увеличивает версию связанных строк: их представление (списки id) изменилось.
+     */
+    static void touch(JdbcTemplate jdbc, NamedQuery query, int id) throws SQLException {
+        jdbc.update(query, stmt -> stmt.setInt(1, id));
+    }
+
+    /**
+     * Условный UPDATE не изменил строку: версия уже другая или строки больше нет.
+     * Исключение откатывает транзакцию записи.
+     */
+    static void requireUpdated(int rows, String entity, int id, long expectedVersion) {
+        if (rows == 0) {
+            throw new VersionConflictException(entity + " " + id + " was modified since version " + expectedVersion);
+        }
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : Instant.EPOCH;
+    }
+}
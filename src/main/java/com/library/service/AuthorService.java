@@ -5,16 +5,21 @@ import com.library.exception.BookServiceException;
 import com.library.model.Book;
 import com.library.repository.AuthorDAO;
 import com.library.dto.AuthorDTO;
+import com.library.dto.AuthorView;
+import com.library.dto.BulkResultDTO;
 import com.library.model.Author;
+import com.library.model.EntityVersion;
 import com.library.mapper.AuthorMapper;
 import com.library.repository.BookDAO;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 public class AuthorService {
     private final AuthorDAO authorDAO;
@@ -34,7 +39,7 @@ public class AuthorService {
         return new AuthorService(authorDAO, authorMapper);
     }
 
-    public List<AuthorDTO> getAllAuthors() {
+    public List<AuthorView> getAllAuthors() {
         List<Author> authors = null;
         try {
             authors = authorDAO.getAll();
@@ -42,20 +47,59 @@ public class AuthorService {
             throw new AuthorServiceException("Ошибка при получении списка авторов", e);
         }
         return authors.stream()
-                .map(authorMapper::toDTO)
+                .map(authorMapper::toView)
                 .toList();
     }
 
-    public AuthorDTO getAuthorById(int id) {
+    public AuthorView getAuthorById(int id) {
         try {
             return authorDAO.getById(id)
-                    .map(authorMapper::toDTO)
+                    .map(authorMapper::toView)
                     .orElseThrow(() -> new AuthorServiceException("Автор не найден", new RuntimeException()));
         } catch (SQLException e) {
             throw new AuthorServiceException("Ошибка при получении автора с ID " + id, e);
         }
     }
 
+    /**
+     * Только поля из {@code fields}; неизвестное поле — {@link IllegalArgumentException}.
+     */
+    public List<AuthorView> getAllAuthors(Set<String> fields) {
+        try {
+            return authorDAO.getAll(fields).stream()
+                    .map(authorMapper::toView)
+                    .toList();
+        } catch (SQLException e) {
+            throw new AuthorServiceException("Ошибка при получении списка авторов", e);
+        }
+    }
+
+    public AuthorView getAuthorById(int id, Set<String> fields) {
+        try {
+            return authorDAO.getById(id, fields)
+                    .map(authorMapper::toView)
+                    .orElseThrow(() -> new AuthorServiceException("Автор не найден", new RuntimeException()));
+        } catch (SQLException e) {
+            throw new AuthorServiceException("Ошибка при получении автора с ID " + id, e);
+        }
+    }
+
+    public Optional<EntityVersion> getAuthorVersion(int id) {
+        try {
+            return authorDAO.getVersion(id);
+        } catch (SQLException e) {
+            throw new AuthorServiceException("Ошибка при получении версии автора с ID " + id, e);
+        }
+    }
+
+    public EntityVersion getAuthorsVersion() {
+        try {
+            return authorDAO.getCollectionVersion();
+        } catch (SQLException e) {
+            throw new AuthorServiceException("Ошибка при получении версии списка авторов", e);
+        }
+    }
+
     public void addAuthor(AuthorDTO authorDTO) {
         BookDAO bookDAO = new BookDAO();
         try {
@@ -90,8 +134,16 @@ public class AuthorService {
         }
     }
 
-    public void updateAuthor(int id, AuthorDTO authorDTO) {
+    /**
+     * @param expectedVersion версия из If-Match; без неё — текущая, см. {@link BookService#updateBook}
+     */
+    public void updateAuthor(int id, AuthorDTO authorDTO, OptionalLong expectedVersion) {
         try {
+            long version = expectedVersion.isPresent()
+                    ? expectedVersion.getAsLong()
+                    : authorDAO.getVersion(id)
+                    .orElseThrow(() -> new AuthorServiceException("Author not found", new RuntimeException()))
+                    .version();
             Author existingAuthor = authorDAO.getById(id)
                     .orElseThrow(() -> new AuthorServiceException("Author not found", new RuntimeException()));
 
@@ -99,26 +151,34 @@ public class AuthorService {
             existingAuthor.setSurname(authorDTO.getSurname());
             existingAuthor.setCountry(authorDTO.getCountry());
 
-            Set<Integer> bookIds = authorDTO.getBookIds() != null
-                    ? authorDTO.getBookIds()
-                    : Collections.emptySet();
+            existingAuthor.setBooks(AuthorMapper.mapBookIdsToBooks(authorDTO.getBookIds()));
 
-            Set<Book> books = bookIds.stream()
-                    .map(bookId -> {
-                        Book book = new Book();
-                        book.setId(bookId);
-                        return book;
-                    })
-                    .collect(Collectors.toSet());
-            existingAuthor.setBooks(books);
-
-            authorDAO.update(existingAuthor);
-            authorDAO.updateBooksOfAuthor(existingAuthor);
+            authorDAO.update(existingAuthor, version);
         } catch (SQLException e) {
             throw new AuthorServiceException("Error while updating author with ID " + id, e);
         }
     }
 
+    /**
+     * Идемпотентная запись по внешнему ключу, см. {@link BookService#upsertBook}.
+     *
+     * @return {@code true}, если автор создан
+     */
+    public boolean upsertAuthor(String externalKey, AuthorDTO authorDTO) {
+        if (authorDTO.getName() == null || authorDTO.getName().isEmpty()) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        try {
+            Author author = authorMapper.toModel(authorDTO);
+            return authorDAO.upsert(externalKey, author);
+        } catch (SQLException e) {
+            if ("23503".equals(e.getSQLState())) {
+                throw new AuthorServiceException("Foreign key constraint error: book not found", e);
+            }
+            throw new AuthorServiceException("Error while upserting author with key " + externalKey, e);
+        }
+    }
+
     public void deleteAuthor(int id) {
         try {
             authorDAO.delete(id);
@@ -126,4 +186,15 @@ public class AuthorService {
             throw new AuthorServiceException("Ошибка при удалении автора с ID " + id, e);
         }
     }
+
+    /**
+     * Удаление пачки авторов одним запросом; их книги остаются.
+     */
+    public BulkResultDTO deleteAuthors(Collection<Integer> ids) {
+        try {
+            return BulkResultDTO.deleted(ids, authorDAO.deleteAll(ids));
+        } catch (SQLException e) {
+            throw new AuthorServiceException("Ошибка при удалении " + ids.size() + " авторов", e);
+        }
+    }
 }
@@ -1,20 +1,30 @@
 package com.library.service;
 
 import com.library.exception.BookServiceException;
+import com.library.exception.VersionConflictException;
 import com.library.model.Publisher;
 import com.library.repository.AuthorDAO;
 import com.library.repository.BookDAO;
 import com.library.dto.BookDTO;
+import com.library.dto.BookView;
+import com.library.dto.BookPatchDTO;
+import com.library.dto.BulkResultDTO;
+import com.library.dto.PageDTO;
 import com.library.model.Book;
+import com.library.model.BookPatch;
+import com.library.model.EntityVersion;
 import com.library.model.Author;
 import com.library.mapper.BookMapper;
 
 import java.sql.SQLException;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 public class BookService {
     private final BookDAO bookDAO;
@@ -34,20 +44,20 @@ public class BookService {
         return new BookService(bookDAO, bookMapper);
     }
 
-    public List<BookDTO> getAllBooks() {
+    public List<BookView> getAllBooks() {
         try {
             return bookDAO.getAll().stream()
-                    .map(bookMapper::toDTO)
+                    .map(bookMapper::toView)
                     .toList();
         } catch (SQLException e) {
             throw new BookServiceException("Error while getting list of books", e);
         }
     }
 
-    public BookDTO getBookById(int id) {
+    public BookView getBookById(int id) {
         try {
             return bookDAO.getById(id)
-                    .map(bookMapper::toDTO)
+                    .map(bookMapper::toView)
                     .orElseThrow(() -> new BookServiceException("Book not found", new RuntimeException()));
 
         } catch (SQLException e) {
@@ -55,6 +65,74 @@ public class BookService {
         }
     }
 
+    /**
+     * Только поля из {@code fields}; неизвестное поле — {@link IllegalArgumentException}.
+     */
+    public List<BookView> getAllBooks(Set<String> fields) {
+        try {
+            return bookDAO.getAll(fields).stream()
+                    .map(bookMapper::toView)
+                    .toList();
+        } catch (SQLException e) {
+            throw new BookServiceException("Error while getting list of books", e);
+        }
+    }
+
+    public BookView getBookById(int id, Set<String> fields) {
+        try {
+            return bookDAO.getById(id, fields)
+                    .map(bookMapper::toView)
+                    .orElseThrow(() -> new BookServiceException("Book not found", new RuntimeException()));
+        } catch (SQLException e) {
+            throw new BookServiceException("Error while getting book with ID " + id, e);
+        }
+    }
+
+    /**
+     * Страница книг издателя после {@code afterId}; запрашивается на одну книгу больше,
+     * чтобы узнать, есть ли следующая страница.
+     */
+    public PageDTO<BookView> getBooksByPublisher(int publisherId, int afterId, int limit) {
+        try {
+            return toPage(bookDAO.getPageByPublisher(publisherId, afterId, limit + 1), limit);
+        } catch (SQLException e) {
+            throw new BookServiceException("Error while getting books of publisher with ID " + publisherId, e);
+        }
+    }
+
+    public PageDTO<BookView> getBooksByAuthor(int authorId, int afterId, int limit) {
+        try {
+            return toPage(bookDAO.getPageByAuthor(authorId, afterId, limit + 1), limit);
+        } catch (SQLException e) {
+            throw new BookServiceException("Error while getting books of author with ID " + authorId, e);
+        }
+    }
+
+    private PageDTO<BookView> toPage(List<Book> books, int limit) {
+        List<BookView> items = books.stream()
+                .limit(limit)
+                .map(bookMapper::toView)
+                .toList();
+        Integer nextAfter = books.size() > limit ? items.get(items.size() - 1).id() : null;
+        return new PageDTO<>(items, nextAfter);
+    }
+
+    public Optional<EntityVersion> getBookVersion(int id) {
+        try {
+            return bookDAO.getVersion(id);
+        } catch (SQLException e) {
+            throw new BookServiceException("Error while getting version of book with ID " + id, e);
+        }
+    }
+
+    public EntityVersion getBooksVersion() {
+        try {
+            return bookDAO.getCollectionVersion();
+        } catch (SQLException e) {
+            throw new BookServiceException("Error while getting version of books", e);
+        }
+    }
+
     public void addBook(BookDTO bookDTO) {
         AuthorDAO authorDAO = new AuthorDAO();
         try {
@@ -85,12 +163,21 @@ public class BookService {
     }
 
 
-    public void updateBook(int id, BookDTO bookDTO) {
+    /**
+     * @param expectedVersion версия из If-Match; без неё — текущая версия, прочитанная до книги.
+     *                        Если книгу изменили после этой версии — {@link VersionConflictException}
+     */
+    public void updateBook(int id, BookDTO bookDTO, OptionalLong expectedVersion) {
         try {
             if (bookDTO.getPublisherId() == null) {
                 throw new IllegalArgumentException("Publisher ID is required");
             }
 
+            long version = expectedVersion.isPresent()
+                    ? expectedVersion.getAsLong()
+                    : bookDAO.getVersion(id)
+                    .orElseThrow(() -> new BookServiceException("Book not found", new RuntimeException()))
+                    .version();
             Book existingBook = bookDAO.getById(id)
                     .orElseThrow(() -> new BookServiceException("Book not found", new RuntimeException()));
 
@@ -106,25 +193,34 @@ public class BookService {
             publisher.setId(bookDTO.getPublisherId());
             existingBook.setPublisher(publisher);
 
-            Set<Integer> authorIds = bookDTO.getAuthorIds() != null
-                    ? bookDTO.getAuthorIds()
-                    : Collections.emptySet();
-
-            Set<Author> authors = authorIds.stream()
-                    .map(authorId -> {
-                        Author author = new Author();
-                        author.setId(authorId);
-                        return author;
-                    })
-                    .collect(Collectors.toSet());
-            existingBook.setAuthors(authors);
+            existingBook.setAuthors(BookMapper.mapAuthorIdsToAuthors(bookDTO.getAuthorIds()));
 
-            bookDAO.update(existingBook);
+            bookDAO.update(existingBook, version);
         } catch (SQLException e) {
             throw new BookServiceException("Error while updating book with ID " + id, e);
         }
     }
 
+    /**
+     * Идемпотентная запись по внешнему ключу: повтор после таймаута обновляет ту же книгу.
+     *
+     * @return {@code true}, если книга создана
+     */
+    public boolean upsertBook(String externalKey, BookDTO bookDTO) {
+        if (bookDTO.getTitle() == null || bookDTO.getTitle().isEmpty()) {
+            throw new IllegalArgumentException("Title is required");
+        }
+        try {
+            Book book = bookMapper.toModel(bookDTO);
+            return bookDAO.upsert(externalKey, book);
+        } catch (SQLException e) {
+            if ("23503".equals(e.getSQLState())) {
+                throw new BookServiceException("Foreign key constraint error: referenced publisher or author not found", e);
+            }
+            throw new BookServiceException("Error while upserting book with key " + externalKey, e);
+        }
+    }
+
     public void deleteBook(int id) {
         try {
             bookDAO.delete(id);
@@ -132,4 +228,42 @@ public class BookService {
             throw new BookServiceException("Error while deleting book with ID " + id, e);
         }
     }
+
+    /**
+     * Удаление пачки книг одним запросом.
+     */
+    public BulkResultDTO deleteBooks(Collection<Integer> ids) {
+        try {
+            return BulkResultDTO.deleted(ids, bookDAO.deleteAll(ids));
+        } catch (SQLException e) {
+            throw new BookServiceException("Error while deleting " + ids.size() + " books", e);
+        }
+    }
+
+    /**
+     * Частичное изменение пачки книг одним запросом. Книги с устаревшей {@code version}
+     * получают {@link BulkResultDTO.Status#CONFLICT}, остальные меняются.
+     */
+    public BulkResultDTO patchBooks(List<BookPatchDTO> items) {
+        Set<Integer> ids = new HashSet<>();
+        List<BookPatch> patches = new ArrayList<>(items.size());
+        for (BookPatchDTO item : items) {
+            if (!ids.add(item.id())) {
+                throw new IllegalArgumentException("Duplicate book ID " + item.id());
+            }
+            if (item.title() != null && item.title().isBlank()) {
+                throw new IllegalArgumentException("Title must not be empty");
+            }
+            patches.add(new BookPatch(item.id(), item.version(), item.title(), item.publishedDate(), item.genre(), item.publisherId()));
+        }
+        try {
+            BookDAO.PatchResult result = bookDAO.patchAll(patches);
+            return BulkResultDTO.updated(items.stream().map(BookPatchDTO::id).toList(), result.updated(), result.conflicts());
+        } catch (SQLException e) {
+            if ("23503".equals(e.getSQLState())) {
+                throw new BookServiceException("Foreign key constraint error: referenced publisher not found", e);
+            }
+            throw new BookServiceException("Error while updating " + items.size() + " books", e);
+        }
+    }
 }
\ No newline at end of file
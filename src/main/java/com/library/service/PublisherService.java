@@ -1,15 +1,20 @@
 package com.library.service;
 
 import com.library.exception.PublisherServiceException;
-import com.library.model.Book;
 import com.library.repository.PublisherDAO;
 import com.library.dto.PublisherDTO;
+import com.library.dto.PublisherView;
+import com.library.dto.BulkResultDTO;
 import com.library.model.Publisher;
+import com.library.model.EntityVersion;
 import com.library.mapper.PublisherMapper;
 
 import java.sql.SQLException;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 
 public class PublisherService {
     private final PublisherDAO publisherDAO;
@@ -29,26 +34,65 @@ public class PublisherService {
         return new PublisherService(publisherDAO, publisherMapper);
     }
 
-    public List<PublisherDTO> getAllPublishers() {
+    public List<PublisherView> getAllPublishers() {
         try {
             return publisherDAO.getAll().stream()
-                    .map(publisherMapper::toDTO)
+                    .map(publisherMapper::toView)
                     .toList();
         } catch (SQLException e) {
             throw new PublisherServiceException("Error while getting list of publishers", e);
         }
     }
 
-    public PublisherDTO getPublisherById(int id) {
+    public PublisherView getPublisherById(int id) {
         try {
             return publisherDAO.getById(id)
-                    .map(publisherMapper::toDTO)
+                    .map(publisherMapper::toView)
                     .orElseThrow(() -> new PublisherServiceException("Publisher not found", new RuntimeException()));
         } catch (SQLException e) {
             throw new PublisherServiceException("Error while getting publisher with ID " + id, e);
         }
     }
 
+    /**
+     * Только поля из {@code fields}; неизвестное поле — {@link IllegalArgumentException}.
+     */
+    public List<PublisherView> getAllPublishers(Set<String> fields) {
+        try {
+            return publisherDAO.getAll(fields).stream()
+                    .map(publisherMapper::toView)
+                    .toList();
+        } catch (SQLException e) {
+            throw new PublisherServiceException("Error while getting list of publishers", e);
+        }
+    }
+
+    public PublisherView getPublisherById(int id, Set<String> fields) {
+        try {
+            return publisherDAO.getById(id, fields)
+                    .map(publisherMapper::toView)
+                    .orElseThrow(() -> new PublisherServiceException("Publisher not found", new RuntimeException()));
+        } catch (SQLException e) {
+            throw new PublisherServiceException("Error while getting publisher with ID " + id, e);
+        }
+    }
+
+    public Optional<EntityVersion> getPublisherVersion(int id) {
+        try {
+            return publisherDAO.getVersion(id);
+        } catch (SQLException e) {
+            throw new PublisherServiceException("Error while getting version of publisher with ID " + id, e);
+        }
+    }
+
+    public EntityVersion getPublishersVersion() {
+        try {
+            return publisherDAO.getCollectionVersion();
+        } catch (SQLException e) {
+            throw new PublisherServiceException("Error while getting version of publishers", e);
+        }
+    }
+
     public void addPublisher(PublisherDTO publisherDTO) {
         Publisher publisher = publisherMapper.toModel(publisherDTO);
         if (publisherDTO.getName() == null || publisherDTO.getName().isEmpty()) {
@@ -63,32 +107,43 @@ public class PublisherService {
         }
     }
 
-    public void updatePublisher(int id, PublisherDTO publisherDTO) {
+    /**
+     * @param expectedVersion версия из If-Match; без неё — текущая, см. {@link BookService#updateBook}
+     */
+    public void updatePublisher(int id, PublisherDTO publisherDTO, OptionalLong expectedVersion) {
         try {
+            long version = expectedVersion.isPresent()
+                    ? expectedVersion.getAsLong()
+                    : publisherDAO.getVersion(id)
+                    .orElseThrow(() -> new PublisherServiceException("Publisher not found", new RuntimeException()))
+                    .version();
             Publisher existingPublisher = publisherDAO.getById(id)
                     .orElseThrow(() -> new PublisherServiceException("Publisher not found", new RuntimeException()));
             existingPublisher.setName(publisherDTO.getName());
 
-            List<Integer> bookIds = publisherDTO.getBookIds() != null
-                    ? publisherDTO.getBookIds()
-                    : Collections.emptyList();
-
-            List<Book> books = bookIds.stream()
-                    .map(bookId -> {
-                        Book book = new Book();
-                        book.setId(bookId);
-                        return book;
-                    })
-                    .toList();
-            existingPublisher.setBooks(books);
-
-            publisherDAO.update(existingPublisher);
-            publisherDAO.updatePublisherBooks(id, publisherDTO.getBookIds());
+            publisherDAO.update(existingPublisher, publisherDTO.getBookIds(), version);
         } catch (SQLException e) {
             throw new PublisherServiceException("Error while updating publisher with ID " + id, e);
         }
     }
 
+    /**
+     * Идемпотентная запись по внешнему ключу, см. {@link BookService#upsertBook}.
+     *
+     * @return {@code true}, если издатель создан
+     */
+    public boolean upsertPublisher(String externalKey, PublisherDTO publisherDTO) {
+        if (publisherDTO.getName() == null || publisherDTO.getName().isEmpty()) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        try {
+            Publisher publisher = publisherMapper.toModel(publisherDTO);
+            return publisherDAO.upsert(externalKey, publisher, publisherDTO.getBookIds());
+        } catch (SQLException e) {
+            throw new PublisherServiceException("Error while upserting publisher with key " + externalKey, e);
+        }
+    }
+
     public void deletePublisher(int id) {
         try {
             publisherDAO.delete(id);
@@ -96,4 +151,15 @@ public class PublisherService {
             throw new PublisherServiceException("Error while deleting publisher with ID " + id, e);
         }
     }
+
+    /**
+     * Удаление пачки издателей одним запросом; книги остаются без издателя.
+     */
+    public BulkResultDTO deletePublishers(Collection<Integer> ids) {
+        try {
+            return BulkResultDTO.deleted(ids, publisherDAO.deleteAll(ids));
+        } catch (SQLException e) {
+            throw new PublisherServiceException("Error while deleting " + ids.size() + " publishers", e);
+        }
+    }
 }
\ No newline at end of file
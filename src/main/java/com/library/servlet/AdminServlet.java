@@ -0,0 +1,34 @@
+package com.library.servlet;
+
+import com.library.codec.JacksonCodec;
+import com.library.metrics.QueryMetrics;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@WebServlet("/admin/*")
+public class AdminServlet extends HttpServlet {
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+        String pathInfo = req.getPathInfo();
+        resp.setContentType("application/json");
+
+        try {
+            if ("/queries".equals(pathInfo)) {
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("queries", QueryMetrics.querySnapshots());
+                body.put("connectionWait", QueryMetrics.connectionWaitSnapshots());
+                JacksonCodec.JSON.writer(Map.class, null).writeValue(resp.getWriter(), body);
+            } else {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            }
+        } catch (IOException e) {
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.library.servlet;
 
+import com.library.codec.JacksonCodec;
 import com.library.dto.AuthorDTO;
+import com.library.dto.AuthorView;
+import com.library.dto.BookView;
+import com.library.dto.BulkDeleteDTO;
+import com.library.dto.BulkResultDTO;
+import com.library.dto.PageDTO;
+import com.library.exception.AuthorServiceException;
 import com.library.exception.BookServiceException;
+import com.library.exception.VersionConflictException;
 import com.library.service.AuthorService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.service.BookService;
 import com.library.service.Fabric;
 
 import javax.servlet.ServletException;
@@ -14,6 +22,8 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
 
 @WebServlet("/authors/*")
 public class AuthorServlet extends HttpServlet {
@@ -22,53 +32,81 @@ public class AuthorServlet extends HttpServlet {
     private static final String ERROR_SERVER_PREFIX = "{\"error\":\"Server error: ";
     private static final String ERROR_SERVER_SUFFIX = "\"}";
     private static final String ERROR_ID_MISMATCH = "{\"error\":\"ID in path and body mismatch\"}";
+    private static final String ERROR_VERSION_CONFLICT = "{\"error\":\"Version conflict\"}";
+    private static final String ERROR_INVALID_REQUEST = "{\"error\":\"Invalid request: ";
+    private static final PathRouter ROUTER = new PathRouter("/authors", "books", "_bulk-delete");
 
     private AuthorService authorService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BookService bookService;
 
     @Override
     public void init() throws ServletException {
         super.init();
         this.authorService = Fabric.getAuthorService();
+        this.bookService = Fabric.getBookService();
     }
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
-        String pathInfo = req.getPathInfo();
+        PathRouter.Route route = ROUTER.route(req);
         resp.setContentType("application/json");
 
         try {
-            if (pathInfo == null || pathInfo.equals("/")) {
-                // Получение всех авторов
-                List<AuthorDTO> authors = authorService.getAllAuthors();
-                objectMapper.writeValue(resp.getWriter(), authors);
-            } else {
-                // Получение одного автора
-                String[] parts = pathInfo.split("/");
-                if (parts.length != 2) {
-                    resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                    return;
-                }
-
-                int authorId = Integer.parseInt(parts[1]);
-                AuthorDTO author = authorService.getAuthorById(authorId);
-                if (author != null) {
-                    objectMapper.writeValue(resp.getWriter(), author);
-                } else {
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                }
+            Set<String> fields = SparseFields.parse(req);
+            switch (route.kind()) {
+                case COLLECTION -> getAll(req, resp, fields);
+                case ITEM -> getOne(req, resp, route.id(), fields);
+                case SUB_RESOURCE -> getBooks(req, resp, route.id());
+                case INVALID_ID -> handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+                default -> resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             }
-        } catch (NumberFormatException e) {
-            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+        } catch (IllegalArgumentException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, "{\"error\":\"" + e.getMessage() + "\"}");
         } catch (Exception e) {
             handleServerError(resp, e);
         }
     }
 
+    private void getAll(HttpServletRequest req, HttpServletResponse resp, Set<String> fields) throws IOException {
+        if (ConditionalGet.isNotModifiedCollection(req, resp, authorService.getAuthorsVersion())) {
+            return;
+        }
+        List<AuthorView> authors = fields == null ? authorService.getAllAuthors() : authorService.getAllAuthors(fields);
+        ResponseFormat.negotiate(req).writeList(resp, authors, AuthorView.class, fields);
+    }
+
+    private void getOne(HttpServletRequest req, HttpServletResponse resp, int authorId, Set<String> fields) throws IOException {
+        if (ConditionalGet.isNotModified(req, resp, authorService.getAuthorVersion(authorId))) {
+            return;
+        }
+        AuthorView author = fields == null ? authorService.getAuthorById(authorId) : authorService.getAuthorById(authorId, fields);
+        if (author != null) {
+            ResponseFormat.negotiate(req).write(resp, author, fields);
+        } else {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    // Книги автора постранично: /authors/{id}/books?after=&limit=
+    private void getBooks(HttpServletRequest req, HttpServletResponse resp, int authorId) throws IOException {
+        PageRequest page = PageRequest.parse(req);
+        if (authorService.getAuthorVersion(authorId).isEmpty()) {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        PageDTO<BookView> books = bookService.getBooksByAuthor(authorId, page.after(), page.limit());
+        page.writeNextLink(req, resp, books.nextAfter());
+        ResponseFormat.negotiate(req).write(resp, books, null);
+    }
+
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) {
+        if (ROUTER.route(req).kind() == PathRouter.Kind.ACTION) {
+            bulkDelete(req, resp);
+            return;
+        }
         try {
-            AuthorDTO author = objectMapper.readValue(req.getReader(), AuthorDTO.class);
+            AuthorDTO author = JacksonCodec.JSON.read(req.getReader(), AuthorDTO.class);
 
             if (author.getName() == null || author.getName().trim().isEmpty()) {
                 handleError(resp, 400, "{\"error\": \"Name is required\"}");
@@ -87,58 +125,97 @@ public class AuthorServlet extends HttpServlet {
         }
     }
 
+    // POST /authors/_bulk-delete {"ids": [...]}: вся пачка одним запросом, в ответе исход по каждому id
+    private void bulkDelete(HttpServletRequest req, HttpServletResponse resp) {
+        BulkDeleteDTO request;
+        try {
+            request = JacksonCodec.JSON.read(req.getReader(), BulkDeleteDTO.class);
+        } catch (IOException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_REQUEST + e.getMessage() + "\"}");
+            return;
+        }
+        try {
+            BulkResultDTO result = authorService.deleteAuthors(request.ids());
+            resp.setContentType("application/json");
+            JacksonCodec.JSON.writer(BulkResultDTO.class, null).writeValue(resp.getWriter(), result);
+        } catch (Exception e) {
+            handleServerError(resp, e);
+        }
+    }
+
     @Override
     protected void doPut(HttpServletRequest req, HttpServletResponse resp) {
         try {
-            String pathInfo = req.getPathInfo();
-            if (pathInfo == null || pathInfo.equals("/")) {
-                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            PathRouter.Route route = ROUTER.route(req);
+            if (route.kind() == PathRouter.Kind.BY_KEY) {
+                upsert(req, resp, route.key());
                 return;
             }
-
-            String[] parts = pathInfo.split("/");
-            if (parts.length != 2) {
+            if (route.kind() == PathRouter.Kind.INVALID_ID) {
+                handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+                return;
+            }
+            if (route.kind() != PathRouter.Kind.ITEM) {
                 resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 return;
             }
 
-            int authorId = Integer.parseInt(parts[1]);
-            AuthorDTO author = objectMapper.readValue(req.getReader(), AuthorDTO.class);
+            int authorId = route.id();
+            AuthorDTO author = JacksonCodec.JSON.read(req.getReader(), AuthorDTO.class);
 
             if (author.getId() != authorId) {
                 handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_ID_MISMATCH);
                 return;
             }
 
-            authorService.updateAuthor(authorId, author);
+            OptionalLong expectedVersion = ConditionalUpdate.expectedVersion(req, () -> authorService.getAuthorVersion(authorId));
+            authorService.updateAuthor(authorId, author, expectedVersion);
             resp.setStatus(HttpServletResponse.SC_OK);
-        } catch (NumberFormatException e) {
-            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+        } catch (VersionConflictException e) {
+            handleError(resp, ConditionalUpdate.conflictStatus(req), ERROR_VERSION_CONFLICT);
         } catch (Exception e) {
             handleServerError(resp, e);
         }
     }
 
+    // PUT /authors/by-key/{key}: повтор запроса обновляет ту же запись; 201 — создана, 200 — обновлена
+    private void upsert(HttpServletRequest req, HttpServletResponse resp, String key) {
+        AuthorDTO author;
+        try {
+            author = JacksonCodec.JSON.read(req.getReader(), AuthorDTO.class);
+        } catch (IOException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_REQUEST + e.getMessage() + "\"}");
+            return;
+        }
+        try {
+            boolean created = authorService.upsertAuthor(key, author);
+            resp.setStatus(created ? HttpServletResponse.SC_CREATED : HttpServletResponse.SC_OK);
+        } catch (IllegalArgumentException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, "{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (AuthorServiceException e) {
+            if (e.getCause() instanceof SQLException sql && "23503".equals(sql.getSQLState())) {
+                handleError(resp, HttpServletResponse.SC_NOT_FOUND, "{\"error\": \"Book not found\"}");
+            } else {
+                handleServerError(resp, e);
+            }
+        }
+    }
+
     @Override
     protected void doDelete(HttpServletRequest req, HttpServletResponse resp) {
         try {
-            String pathInfo = req.getPathInfo();
-            if (pathInfo == null || pathInfo.equals("/")) {
-                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            PathRouter.Route route = ROUTER.route(req);
+            if (route.kind() == PathRouter.Kind.INVALID_ID) {
+                handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
                 return;
             }
-
-            String[] parts = pathInfo.split("/");
-            if (parts.length != 2) {
+            if (route.kind() != PathRouter.Kind.ITEM) {
                 resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 return;
             }
 
-            int authorId = Integer.parseInt(parts[1]);
-            authorService.deleteAuthor(authorId);
+            authorService.deleteAuthor(route.id());
             resp.setStatus(HttpServletResponse.SC_NO_CONTENT);
-        } catch (NumberFormatException e) {
-            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
         } catch (Exception e) {
             handleServerError(resp, e);
         }
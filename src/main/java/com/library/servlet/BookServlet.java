@@ -1,9 +1,14 @@
 package com.library.servlet;
 
+import com.library.codec.JacksonCodec;
 import com.library.dto.BookDTO;
+import com.library.dto.BookView;
+import com.library.dto.BulkDeleteDTO;
+import com.library.dto.BulkPatchDTO;
+import com.library.dto.BulkResultDTO;
 import com.library.exception.BookServiceException;
+import com.library.exception.VersionConflictException;
 import com.library.service.BookService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.service.Fabric;
 
 import javax.servlet.ServletException;
@@ -14,6 +19,8 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
 
 
 @WebServlet("/books/*")
@@ -22,9 +29,13 @@ public class BookServlet extends HttpServlet {
     private static final String ERROR_SERVER_PREFIX = "{\"error\":\"Server error: ";
     private static final String ERROR_SERVER_SUFFIX = "\"}";
     private static final String ERROR_ID_MISMATCH = "{\"error\":\"ID in path and body mismatch\"}";
+    private static final String ERROR_VERSION_CONFLICT = "{\"error\":\"Version conflict\"}";
+    private static final String ERROR_INVALID_REQUEST = "{\"error\":\"Invalid request: ";
+    private static final String BULK_DELETE = "_bulk-delete";
+    private static final String BULK_PATCH = "_bulk";
+    private static final PathRouter ROUTER = new PathRouter("/books", BULK_DELETE, BULK_PATCH);
 
     private BookService bookService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
     public void init() throws ServletException {
@@ -34,39 +45,67 @@ public class BookServlet extends HttpServlet {
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
-        String pathInfo = req.getPathInfo();
+        PathRouter.Route route = ROUTER.route(req);
         resp.setContentType("application/json");
 
         try {
-            if (pathInfo == null || pathInfo.equals("/")) {
-                List<BookDTO> books = bookService.getAllBooks();
-                objectMapper.writeValue(resp.getWriter(), books);
-            } else {
-                String[] parts = pathInfo.split("/");
-                if (parts.length != 2) {
-                    resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                    return;
-                }
-
-                int bookId = Integer.parseInt(parts[1]);
-                BookDTO book = bookService.getBookById(bookId);
-                if (book != null) {
-                    objectMapper.writeValue(resp.getWriter(), book);
-                } else {
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                }
+            Set<String> fields = SparseFields.parse(req);
+            switch (route.kind()) {
+                case COLLECTION -> getAll(req, resp, fields);
+                case ITEM -> getOne(req, resp, route.id(), fields);
+                case INVALID_ID -> handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+                default -> resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             }
-        } catch (NumberFormatException e) {
-            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+        } catch (IllegalArgumentException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, "{\"error\":\"" + e.getMessage() + "\"}");
         } catch (Exception e) {
             handleServerError(resp, e);
         }
     }
 
+    private void getAll(HttpServletRequest req, HttpServletResponse resp, Set<String> fields) throws IOException {
+        if (ConditionalGet.isNotModifiedCollection(req, resp, bookService.getBooksVersion())) {
+            return;
+        }
+        List<BookView> books = fields == null ? bookService.getAllBooks() : bookService.getAllBooks(fields);
+        ResponseFormat.negotiate(req).writeList(resp, books, BookView.class, fields);
+    }
+
+    private void getOne(HttpServletRequest req, HttpServletResponse resp, int bookId, Set<String> fields) throws IOException {
+        if (ConditionalGet.isNotModified(req, resp, bookService.getBookVersion(bookId))) {
+            return;
+        }
+        BookView book = fields == null ? bookService.getBookById(bookId) : bookService.getBookById(bookId, fields);
+        if (book != null) {
+            ResponseFormat.negotiate(req).write(resp, book, fields);
+        } else {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    // HttpServlet не знает PATCH: он разбирается здесь, остальные методы — как обычно
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if ("PATCH".equals(req.getMethod())) {
+            doPatch(req, resp);
+        } else {
+            super.service(req, resp);
+        }
+    }
+
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) {
+        PathRouter.Route route = ROUTER.route(req);
+        if (route.kind() == PathRouter.Kind.ACTION) {
+            if (BULK_DELETE.equals(route.subResource())) {
+                bulkDelete(req, resp);
+            } else {
+                resp.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            }
+            return;
+        }
         try {
-            BookDTO book = objectMapper.readValue(req.getReader(), BookDTO.class);
+            BookDTO book = JacksonCodec.JSON.read(req.getReader(), BookDTO.class);
 
             if (book.getTitle() == null || book.getTitle().trim().isEmpty()) {
                 handleError(resp, 400, "{\"error\": \"Title is required\"}");
@@ -86,58 +125,130 @@ public class BookServlet extends HttpServlet {
         }
     }
 
+    // POST /books/_bulk-delete {"ids": [...]}: вся пачка одним запросом, в ответе исход по каждому id
+    private void bulkDelete(HttpServletRequest req, HttpServletResponse resp) {
+        BulkDeleteDTO request;
+        try {
+            request = JacksonCodec.JSON.read(req.getReader(), BulkDeleteDTO.class);
+        } catch (IOException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_REQUEST + e.getMessage() + "\"}");
+            return;
+        }
+        try {
+            writeResult(resp, bookService.deleteBooks(request.ids()));
+        } catch (Exception e) {
+            handleServerError(resp, e);
+        }
+    }
+
+    // PATCH /books/_bulk {"items": [...]}: одно выражение UPDATE на пачку, исход по каждой книге.
+    // Отсутствующее поле и явный null одинаково значат «не менять»: очистить поле можно только через PUT
+    private void doPatch(HttpServletRequest req, HttpServletResponse resp) {
+        PathRouter.Route route = ROUTER.route(req);
+        if (route.kind() != PathRouter.Kind.ACTION || !BULK_PATCH.equals(route.subResource())) {
+            resp.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+        BulkPatchDTO request;
+        try {
+            request = JacksonCodec.JSON.read(req.getReader(), BulkPatchDTO.class);
+        } catch (IOException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_REQUEST + e.getMessage() + "\"}");
+            return;
+        }
+        try {
+            writeResult(resp, bookService.patchBooks(request.items()));
+        } catch (IllegalArgumentException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, "{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (BookServiceException e) {
+            if (e.getCause() instanceof SQLException sql && "23503".equals(sql.getSQLState())) {
+                handleError(resp, HttpServletResponse.SC_NOT_FOUND, "{\"error\": \"Publisher not found\"}");
+            } else {
+                handleServerError(resp, e);
+            }
+        } catch (Exception e) {
+            handleServerError(resp, e);
+        }
+    }
+
+    private void writeResult(HttpServletResponse resp, BulkResultDTO result) throws IOException {
+        resp.setContentType("application/json");
+        JacksonCodec.JSON.writer(BulkResultDTO.class, null).writeValue(resp.getWriter(), result);
+    }
+
     @Override
     protected void doPut(HttpServletRequest req, HttpServletResponse resp) {
         try {
-            String pathInfo = req.getPathInfo();
-            if (pathInfo == null || pathInfo.equals("/")) {
-                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            PathRouter.Route route = ROUTER.route(req);
+            if (route.kind() == PathRouter.Kind.BY_KEY) {
+                upsert(req, resp, route.key());
                 return;
             }
-
-            String[] parts = pathInfo.split("/");
-            if (parts.length != 2) {
+            if (route.kind() == PathRouter.Kind.INVALID_ID) {
+                handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+                return;
+            }
+            if (route.kind() != PathRouter.Kind.ITEM) {
                 resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 return;
             }
 
-            int bookId = Integer.parseInt(parts[1]);
-            BookDTO book = objectMapper.readValue(req.getReader(), BookDTO.class);
+            int bookId = route.id();
+            BookDTO book = JacksonCodec.JSON.read(req.getReader(), BookDTO.class);
 
             if (book.getId() != bookId) {
                 handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_ID_MISMATCH);
                 return;
             }
 
-            bookService.updateBook(bookId, book);
+            OptionalLong expectedVersion = ConditionalUpdate.expectedVersion(req, () -> bookService.getBookVersion(bookId));
+            bookService.updateBook(bookId, book, expectedVersion);
             resp.setStatus(HttpServletResponse.SC_OK);
-        } catch (NumberFormatException e) {
-            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+        } catch (VersionConflictException e) {
+            handleError(resp, ConditionalUpdate.conflictStatus(req), ERROR_VERSION_CONFLICT);
         } catch (Exception e) {
             handleServerError(resp, e);
         }
     }
 
+    // PUT /books/by-key/{key}: повтор запроса обновляет ту же запись; 201 — создана, 200 — обновлена
+    private void upsert(HttpServletRequest req, HttpServletResponse resp, String key) {
+        BookDTO book;
+        try {
+            book = JacksonCodec.JSON.read(req.getReader(), BookDTO.class);
+        } catch (IOException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_REQUEST + e.getMessage() + "\"}");
+            return;
+        }
+        try {
+            boolean created = bookService.upsertBook(key, book);
+            resp.setStatus(created ? HttpServletResponse.SC_CREATED : HttpServletResponse.SC_OK);
+        } catch (IllegalArgumentException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, "{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (BookServiceException e) {
+            if (e.getCause() instanceof SQLException sql && "23503".equals(sql.getSQLState())) {
+                handleError(resp, HttpServletResponse.SC_NOT_FOUND, "{\"error\": \"Author or Publisher not found\"}");
+            } else {
+                handleServerError(resp, e);
+            }
+        }
+    }
+
     @Override
     protected void doDelete(HttpServletRequest req, HttpServletResponse resp) {
         try {
-            String pathInfo = req.getPathInfo();
-            if (pathInfo == null || pathInfo.equals("/")) {
-                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            PathRouter.Route route = ROUTER.route(req);
+            if (route.kind() == PathRouter.Kind.INVALID_ID) {
+                handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
                 return;
             }
-
-            String[] parts = pathInfo.split("/");
-            if (parts.length != 2) {
+            if (route.kind() != PathRouter.Kind.ITEM) {
                 resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 return;
             }
 
-            int bookId = Integer.parseInt(parts[1]);
-            bookService.deleteBook(bookId);
+            bookService.deleteBook(route.id());
             resp.setStatus(HttpServletResponse.SC_NO_CONTENT);
-        } catch (NumberFormatException e) {
-            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
         } catch (Exception e) {
             handleServerError(resp, e);
         }
@@ -0,0 +1,361 @@
+package com.library.servlet;
+
+import com.library.config.ApplicationProperties;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сжатие ответов gzip/deflate по Accept-Encoding. Тело копится в буфере до порога:
+ * короткие ответы уходят как есть с Content-Length, длинные сжимаются потоком.
+ */
+public class CompressionFilter implements Filter {
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private final boolean enabled;
+    private final int minBytes;
+    private final int level;
+    private final int bufferSize;
+
+    public CompressionFilter() {
+        this(ApplicationProperties.getBoolean("http.compression.enabled", true),
+                ApplicationProperties.getInt("http.compression.minBytes", 1024),
+                ApplicationProperties.getInt("http.compression.level", 5),
+                ApplicationProperties.getInt("http.response.bufferSize", 32768));
+    }
+
+    public CompressionFilter(boolean enabled, int minBytes, int level, int bufferSize) {
+        this.enabled = enabled;
+        this.minBytes = minBytes;
+        this.level = level;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse resp = (HttpServletResponse) response;
+        // Буфер контейнера больше значения по умолчанию (8 КБ): меньше системных вызовов на больших списках
+        resp.setBufferSize(bufferSize);
+
+        String encoding = enabled && !"HEAD".equals(req.getMethod())
+                ? negotiate(req.getHeader("Accept-Encoding"))
+                : null;
+        if (encoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        resp.addHeader("Vary", "Accept-Encoding");
+        CompressingResponse wrapper = new CompressingResponse(resp, encoding);
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            // И при исключении: Deflater держит нативную память до end()
+            wrapper.finish();
+        }
+    }
+
+    /**
+     * Выбирает кодировку с наибольшим q; при равенстве предпочтителен gzip.
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        // -1: кодировка не указана явно, берётся q у "*"
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            double q = quality(tokens);
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzip = Math.max(gzip, q);
+                case DEFLATE -> deflate = Math.max(deflate, q);
+                case "*" -> wildcard = q;
+                default -> {
+                }
+            }
+        }
+        if (gzip < 0) {
+            gzip = wildcard;
+        }
+        if (deflate < 0) {
+            deflate = wildcard;
+        }
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    private static double quality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+        private final String encoding;
+        private CompressingOutputStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, String encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        // Длина известна только после сжатия: фильтр выставляет её сам
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (stream != null) {
+                stream.flush();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            discard();
+        }
+
+        // reset() снимает и заголовки, и выбор между getWriter() и getOutputStream()
+        @Override
+        public void reset() {
+            super.reset();
+            discard();
+            stream = null;
+            writer = null;
+            addHeader("Vary", "Accept-Encoding");
+        }
+
+        // Отбрасывает символы в кодировщике writer, несжатый буфер и начатое сжатие
+        private void discard() {
+            if (stream == null) {
+                return;
+            }
+            if (writer != null) {
+                stream.discarding = true;
+                try {
+                    writer.flush();
+                } finally {
+                    stream.discarding = false;
+                }
+            }
+            stream.reset();
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.finish();
+            }
+        }
+
+        private CompressingOutputStream stream() {
+            if (stream == null) {
+                stream = new CompressingOutputStream(this);
+            }
+            return stream;
+        }
+
+        private HttpServletResponse response() {
+            return (HttpServletResponse) getResponse();
+        }
+    }
+
+    private final class CompressingOutputStream extends ServletOutputStream {
+        private final CompressingResponse response;
+        private byte[] pending = new byte[minBytes];
+        private int count;
+        private OutputStream target;
+        private Deflater deflater;
+        // Content-Encoding выставлен фильтром, а не сервлетом
+        private boolean encoded;
+        private boolean finished;
+        private boolean discarding;
+
+        CompressingOutputStream(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (discarding) {
+                return;
+            }
+            if (target == null) {
+                if (count < pending.length) {
+                    pending[count++] = (byte) b;
+                    return;
+                }
+                startCompression();
+            }
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (discarding) {
+                return;
+            }
+            if (target == null) {
+                if (count + len <= pending.length) {
+                    System.arraycopy(b, off, pending, count, len);
+                    count += len;
+                    return;
+                }
+                startCompression();
+            }
+            target.write(b, off, len);
+        }
+
+        // До порога flush ничего не отправляет: иначе ответ был бы зафиксирован несжатым
+        @Override
+        public void flush() throws IOException {
+            if (target != null && !discarding) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new IllegalStateException("Non-blocking output is not supported by " + CompressionFilter.class.getSimpleName());
+        }
+
+        // Вызывается после сброса буфера контейнера: заголовок gzip и сжатые байты уже отброшены
+        void reset() {
+            if (deflater != null) {
+                deflater.end();
+                deflater = null;
+            }
+            if (target != null) {
+                target = null;
+                pending = new byte[minBytes];
+                if (encoded) {
+                    encoded = false;
+                    response.response().setHeader("Content-Encoding", null);
+                }
+            }
+            count = 0;
+            finished = false;
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (target == null) {
+                if (count > 0) {
+                    HttpServletResponse out = response.response();
+                    out.setContentLength(count);
+                    out.getOutputStream().write(pending, 0, count);
+                }
+                return;
+            }
+            try {
+                target.close();
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+        }
+
+        private void startCompression() throws IOException {
+            HttpServletResponse out = response.response();
+            if (out.containsHeader("Content-Encoding")) {
+                target = out.getOutputStream();
+            } else {
+                out.setHeader("Content-Encoding", response.encoding);
+                encoded = true;
+                target = GZIP.equals(response.encoding) ? gzip(out.getOutputStream()) : deflate(out.getOutputStream());
+            }
+            target.write(pending, 0, count);
+            pending = null;
+        }
+
+        private OutputStream gzip(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, bufferSize) {
+                {
+                    def.setLevel(level);
+                    deflater = def;
+                }
+            };
+        }
+
+        private OutputStream deflate(OutputStream out) {
+            deflater = new Deflater(level);
+            return new DeflaterOutputStream(out, deflater, bufferSize);
+        }
+    }
+}
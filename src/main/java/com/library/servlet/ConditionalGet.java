@@ -0,0 +1,83 @@
+package com.library.servlet;
+
+import com.library.model.EntityVersion;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Условный GET: выставляет ETag / Last-Modified по версии из БД и отвечает 304,
+ * если представление у клиента актуально. Версия читается до загрузки графа сущности.
+ */
+final class ConditionalGet {
+    private static final String WILDCARD = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * @return {@code true}, если ответ 304 уже отправлен и тело формировать не нужно
+     */
+    static boolean isNotModified(HttpServletRequest req, HttpServletResponse resp, Optional<EntityVersion> version) {
+        if (version == null || version.isEmpty()) {
+            return false;
+        }
+        return isNotModified(req, resp, "W/\"" + version.get().version() + "\"", version.get().updatedAt());
+    }
+
+    static boolean isNotModifiedCollection(HttpServletRequest req, HttpServletResponse resp, EntityVersion version) {
+        if (version == null) {
+            return false;
+        }
+        // count учитывает удаления, которые не двигают max(updated_at)
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, version.updatedAt());
+        return isNotModified(req, resp, "W/\"" + version.version() + "-" + micros + "\"", version.updatedAt());
+    }
+
+    private static boolean isNotModified(HttpServletRequest req, HttpServletResponse resp, String etag, Instant updatedAt) {
+        resp.setHeader("ETag", etag);
+        resp.setDateHeader("Last-Modified", updatedAt.toEpochMilli());
+
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        boolean notModified = ifNoneMatch != null
+                ? matches(ifNoneMatch, etag)
+                : notModifiedSince(req, updatedAt);
+        if (notModified) {
+            // 304 должен нести те же Vary, что и 200; на 200 его добавляет ResponseFormat
+            resp.addHeader("Vary", "Accept");
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    // Для GET сравнение слабое: префикс W/ игнорируется
+    private static boolean matches(String ifNoneMatch, String etag) {
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (WILDCARD.equals(tag) || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+
+    private static boolean notModifiedSince(HttpServletRequest req, Instant updatedAt) {
+        long since;
+        try {
+            since = req.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // Last-Modified передаётся с точностью до секунды
+        return since >= 0 && updatedAt.getEpochSecond() <= since / 1000;
+    }
+}
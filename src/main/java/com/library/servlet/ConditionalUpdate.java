@@ -0,0 +1,64 @@
+package com.library.servlet;
+
+import com.library.exception.VersionConflictException;
+import com.library.model.EntityVersion;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+
+/**
+ * Условный PUT: If-Match с ETag из GET задаёт версию, поверх которой пишется изменение.
+ * Гонку между проверкой заголовка и записью закрывает {@code UPDATE ... AND version = ?} в DAO.
+ */
+final class ConditionalUpdate {
+    private static final String IF_MATCH = "If-Match";
+    private static final String WILDCARD = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private ConditionalUpdate() {
+    }
+
+    /**
+     * @return версия из If-Match или пусто без заголовка
+     * @throws VersionConflictException если ни один тег не совпал с текущей версией
+     */
+    static OptionalLong expectedVersion(HttpServletRequest req, Supplier<Optional<EntityVersion>> current) {
+        String ifMatch = req.getHeader(IF_MATCH);
+        if (ifMatch == null) {
+            return OptionalLong.empty();
+        }
+        Optional<EntityVersion> version = current.get();
+        if (version.isEmpty() || !matches(ifMatch, version.get().version())) {
+            throw new VersionConflictException("If-Match does not match the current version");
+        }
+        return OptionalLong.of(version.get().version());
+    }
+
+    /**
+     * 412 — не совпал If-Match клиента, 409 — запись без него проиграла гонку другой записи.
+     */
+    static int conflictStatus(HttpServletRequest req) {
+        return req.getHeader(IF_MATCH) != null
+                ? HttpServletResponse.SC_PRECONDITION_FAILED
+                : HttpServletResponse.SC_CONFLICT;
+    }
+
+    // ETag строки слабый только формально: версия меняется при любой записи, поэтому W/ игнорируется
+    private static boolean matches(String ifMatch, long version) {
+        String opaque = "\"" + version + "\"";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (WILDCARD.equals(tag) || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
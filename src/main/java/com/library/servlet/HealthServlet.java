@@ -0,0 +1,37 @@
+package com.library.servlet;
+
+import com.library.config.ApplicationState;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@WebServlet("/health/*")
+public class HealthServlet extends HttpServlet {
+    private static final String STATUS_UP = "{\"status\":\"UP\"}";
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+        String pathInfo = req.getPathInfo();
+        resp.setContentType("application/json");
+
+        try {
+            if (pathInfo == null || pathInfo.equals("/") || pathInfo.equals("/live")) {
+                resp.setStatus(HttpServletResponse.SC_OK);
+                resp.getWriter().write(STATUS_UP);
+            } else if (pathInfo.equals("/ready")) {
+                ApplicationState.Status status = ApplicationState.getStatus();
+                resp.setStatus(status == ApplicationState.Status.READY
+                        ? HttpServletResponse.SC_OK
+                        : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                resp.getWriter().write("{\"status\":\"" + status + "\"}");
+            } else {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            }
+        } catch (IOException e) {
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.library.servlet;
+
+import com.library.repository.IdentityMap;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+
+/**
+ * Единица работы для {@link IdentityMap}: сущности разделяются в пределах одного запроса.
+ */
+public class IdentityMapFilter implements Filter {
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        IdentityMap.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            IdentityMap.clear();
+        }
+    }
+}
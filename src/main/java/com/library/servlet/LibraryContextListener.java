@@ -0,0 +1,73 @@
+package com.library.servlet;
+
+import com.library.config.ApplicationProperties;
+import com.library.config.ApplicationState;
+import com.library.config.DataSourceProvider;
+import com.library.config.DatabaseMigrator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterRegistration;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@WebListener
+public class LibraryContextListener implements ServletContextListener {
+    private static final Logger logger = LoggerFactory.getLogger(LibraryContextListener.class);
+
+    private ExecutorService migrationExecutor;
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        ServletContext context = sce.getServletContext();
+        // Фильтры регистрируются здесь, чтобы порядок их вызова был явным
+        FilterRegistration.Dynamic metrics = context.addFilter("metricsFilter", new MetricsFilter());
+        metrics.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "/*");
+        FilterRegistration.Dynamic compression = context.addFilter("compressionFilter", new CompressionFilter());
+        compression.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "/*");
+        FilterRegistration.Dynamic readiness = context.addFilter("readinessFilter", new ReadinessFilter());
+        readiness.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "/*");
+        FilterRegistration.Dynamic deadline = context.addFilter("requestDeadlineFilter", new RequestDeadlineFilter());
+        deadline.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "/*");
+        FilterRegistration.Dynamic identityMap = context.addFilter("identityMapFilter", new IdentityMapFilter());
+        identityMap.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "/*");
+
+        if (!ApplicationProperties.getBoolean("db.migration.onStartup", true)) {
+            ApplicationState.markReady();
+            return;
+        }
+
+        // Миграции выполняются в фоне: /health/ready отвечает 503, пока схема не готова
+        migrationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flyway-migration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        migrationExecutor.submit(LibraryContextListener::runMigrations);
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (migrationExecutor != null) {
+            migrationExecutor.shutdownNow();
+        }
+        ApplicationState.reset();
+    }
+
+    static void runMigrations() {
+        try (HikariDataSource migrationDataSource = DataSourceProvider.createMigrationDataSource()) {
+            DatabaseMigrator.migrate(migrationDataSource);
+            ApplicationState.markReady();
+        } catch (RuntimeException e) {
+            logger.error("Database migration failed, application stays not ready", e);
+            ApplicationState.markFailed();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.library.servlet;
+
+import com.library.metrics.HttpMetrics;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletMapping;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public class MetricsFilter implements Filter {
+    /**
+     * Сервлет может указать шаблон маршрута явно ({@code /authors/{id}/books}),
+     * иначе он выводится из url-pattern и pathInfo.
+     */
+    public static final String ROUTE_ATTRIBUTE = "com.library.route";
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse resp = (HttpServletResponse) response;
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : resp.getStatus();
+            HttpMetrics.record(resolveRoute(req), req.getMethod(), status, System.nanoTime() - start);
+        }
+    }
+
+    private static String resolveRoute(HttpServletRequest req) {
+        Object explicit = req.getAttribute(ROUTE_ATTRIBUTE);
+        if (explicit instanceof String route) {
+            return route;
+        }
+
+        HttpServletMapping mapping = req.getHttpServletMapping();
+        String pattern = mapping != null ? mapping.getPattern() : null;
+        if (pattern == null || pattern.isEmpty() || pattern.equals("/")) {
+            // Сервлет по умолчанию: не размножаем серии по произвольным URL
+            return "/";
+        }
+        if (!pattern.endsWith("/*")) {
+            return pattern;
+        }
+
+        String base = pattern.substring(0, pattern.length() - 2);
+        String pathInfo = req.getPathInfo();
+        if (pathInfo == null || pathInfo.equals("/")) {
+            return base;
+        }
+
+        StringBuilder route = new StringBuilder(base.length() + 16).append(base);
+        int segmentStart = 1;
+        int length = pathInfo.length();
+        while (segmentStart <= length) {
+            int segmentEnd = pathInfo.indexOf('/', segmentStart);
+            if (segmentEnd < 0) {
+                segmentEnd = length;
+            }
+            if (segmentEnd > segmentStart) {
+                route.append('/').append(isDigits(pathInfo, segmentStart, segmentEnd) ? "{id}" : "*");
+            }
+            segmentStart = segmentEnd + 1;
+        }
+        return route.toString();
+    }
+
+    private static boolean isDigits(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
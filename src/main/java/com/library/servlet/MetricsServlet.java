@@ -0,0 +1,22 @@
+package com.library.servlet;
+
+import com.library.metrics.PrometheusFormatter;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+        resp.setContentType(PrometheusFormatter.CONTENT_TYPE);
+        try {
+            resp.getWriter().write(PrometheusFormatter.format());
+        } catch (IOException e) {
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.library.servlet;
+
+import com.library.config.ApplicationProperties;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Параметры keyset-страницы {@code ?after=<id>&limit=<n>}: limit ограничен сверху,
+ * чтобы один запрос не выбирал весь каталог крупного издателя.
+ */
+record PageRequest(int after, int limit) {
+    private static final int DEFAULT_LIMIT = ApplicationProperties.getInt("http.page.defaultLimit", 100);
+    private static final int MAX_LIMIT = ApplicationProperties.getInt("http.page.maxLimit", 1000);
+
+    /**
+     * @throws IllegalArgumentException если after или limit — не неотрицательные целые
+     */
+    static PageRequest parse(HttpServletRequest req) {
+        int after = parameter(req, "after", 0);
+        int limit = parameter(req, "limit", DEFAULT_LIMIT);
+        if (limit == 0) {
+            throw new IllegalArgumentException("Parameter 'limit' must be positive");
+        }
+        return new PageRequest(after, Math.min(limit, MAX_LIMIT));
+    }
+
+    private static int parameter(HttpServletRequest req, String name, int defaultValue) {
+        String value = req.getParameter(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        int parsed = PathRouter.parseId(value, 0, value.length());
+        if (parsed < 0) {
+            throw new IllegalArgumentException("Invalid '" + name + "' parameter");
+        }
+        return parsed;
+    }
+
+    /**
+     * Ссылка на следующую страницу в заголовке Link (RFC 8288).
+     */
+    void writeNextLink(HttpServletRequest req, HttpServletResponse resp, Integer nextAfter) {
+        if (nextAfter != null) {
+            resp.setHeader("Link", "<" + req.getRequestURI() + "?after=" + nextAfter + "&limit=" + limit + ">; rel=\"next\"");
+        }
+    }
+}
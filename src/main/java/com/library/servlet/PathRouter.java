@@ -0,0 +1,160 @@
+package com.library.servlet;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+
+/**
+ * Разбор pathInfo вида {@code /}, {@code /{id}}, {@code /{id}/{sub}}, {@code /by-key/{key}} и {@code /_action} без split, regex
+ * и исключений: некорректный id — обычный результат {@link Kind#INVALID_ID}, а не
+ * NumberFormatException. Маршруты без id — общие константы, имена подресурсов
+ * сравниваются на месте без substring.
+ */
+public final class PathRouter {
+    public enum Kind {
+        COLLECTION,
+        ITEM,
+        SUB_RESOURCE,
+        BY_KEY,
+        ACTION,
+        INVALID_ID,
+        MALFORMED
+    }
+
+    /**
+     * @param subResource имя подресурса или действия ({@link Kind#ACTION})
+     * @param key         внешний ключ для {@link Kind#BY_KEY}
+     * @param template    шаблон для метрик ({@code /books/{id}}), см. {@link MetricsFilter#ROUTE_ATTRIBUTE}
+     */
+    public record Route(Kind kind, int id, String subResource, String key, String template) {
+    }
+
+    private static final String BY_KEY_PREFIX = "/by-key/";
+    // Размер колонки external_key
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final String itemTemplate;
+    private final String keyTemplate;
+    private final String[] subResources;
+    private final String[] subTemplates;
+    private final Route[] actions;
+    private final Route collection;
+    private final Route invalidId;
+    private final Route malformed;
+
+    /**
+     * @param base     путь сервлета без {@code /*}, например {@code /books}
+     * @param segments имена допустимых подресурсов ({@code /{id}/authors}) и действий над
+     *                 коллекцией ({@code /_bulk-delete}): имя действия начинается с {@code _}
+     */
+    public PathRouter(String base, String... segments) {
+        this.itemTemplate = base + "/{id}";
+        this.keyTemplate = base + "/by-key/{key}";
+        this.subResources = Arrays.stream(segments).filter(name -> !name.startsWith("_")).toArray(String[]::new);
+        this.subTemplates = new String[subResources.length];
+        for (int i = 0; i < subResources.length; i++) {
+            subTemplates[i] = itemTemplate + "/" + subResources[i];
+        }
+        this.actions = Arrays.stream(segments)
+                .filter(name -> name.startsWith("_"))
+                .map(name -> new Route(Kind.ACTION, 0, name, null, base + "/" + name))
+                .toArray(Route[]::new);
+        this.collection = new Route(Kind.COLLECTION, 0, null, null, base);
+        this.invalidId = new Route(Kind.INVALID_ID, 0, null, null, base + "/*");
+        this.malformed = new Route(Kind.MALFORMED, 0, null, null, base + "/*");
+    }
+
+    /**
+     * Разбирает pathInfo запроса и сохраняет шаблон маршрута для метрик.
+     */
+    public Route route(HttpServletRequest req) {
+        Route route = route(req.getPathInfo());
+        req.setAttribute(MetricsFilter.ROUTE_ATTRIBUTE, route.template());
+        return route;
+    }
+
+    public Route route(String pathInfo) {
+        if (pathInfo == null || pathInfo.isEmpty() || pathInfo.equals("/")) {
+            return collection;
+        }
+        if (pathInfo.startsWith(BY_KEY_PREFIX)) {
+            return routeByKey(pathInfo);
+        }
+        int length = pathInfo.length();
+        if (length > 1 && pathInfo.charAt(1) == '_') {
+            return routeAction(pathInfo);
+        }
+        int idEnd = pathInfo.indexOf('/', 1);
+        if (idEnd < 0) {
+            idEnd = length;
+        }
+        if (pathInfo.charAt(0) != '/' || idEnd == 1) {
+            return malformed;
+        }
+
+        int id = parseId(pathInfo, 1, idEnd);
+        if (id < 0) {
+            return invalidId;
+        }
+
+        // "/5" и "/5/" — один и тот же элемент
+        if (idEnd >= length - 1) {
+            return new Route(Kind.ITEM, id, null, null, itemTemplate);
+        }
+
+        int nameStart = idEnd + 1;
+        int nameEnd = pathInfo.charAt(length - 1) == '/' ? length - 1 : length;
+        int nameLength = nameEnd - nameStart;
+        for (int i = 0; i < subResources.length; i++) {
+            String name = subResources[i];
+            if (name.length() == nameLength && pathInfo.regionMatches(nameStart, name, 0, nameLength)) {
+                return new Route(Kind.SUB_RESOURCE, id, name, null, subTemplates[i]);
+            }
+        }
+        return malformed;
+    }
+
+    private Route routeAction(String pathInfo) {
+        int nameEnd = pathInfo.charAt(pathInfo.length() - 1) == '/' ? pathInfo.length() - 1 : pathInfo.length();
+        int nameLength = nameEnd - 1;
+        for (Route action : actions) {
+            String name = action.subResource();
+            if (name.length() == nameLength && pathInfo.regionMatches(1, name, 0, nameLength)) {
+                return action;
+            }
+        }
+        return malformed;
+    }
+
+    // Ключ — один непустой сегмент; завершающий "/" допускается, как у id
+    private Route routeByKey(String pathInfo) {
+        int keyStart = BY_KEY_PREFIX.length();
+        int keyEnd = pathInfo.charAt(pathInfo.length() - 1) == '/' ? pathInfo.length() - 1 : pathInfo.length();
+        int slash = pathInfo.indexOf('/', keyStart);
+        if (keyEnd <= keyStart || keyEnd - keyStart > MAX_KEY_LENGTH || (slash >= 0 && slash < keyEnd)) {
+            return malformed;
+        }
+        return new Route(Kind.BY_KEY, 0, null, pathInfo.substring(keyStart, keyEnd), keyTemplate);
+    }
+
+    /**
+     * Неотрицательное int из {@code value[from, to)} или -1, если там не только цифры
+     * или число не помещается в int.
+     */
+    static int parseId(String value, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+            if (id > Integer.MAX_VALUE) {
+                return -1;
+            }
+        }
+        return (int) id;
+    }
+}
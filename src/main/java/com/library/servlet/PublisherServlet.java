@@ -1,9 +1,16 @@
 package com.library.servlet;
 
+import com.library.codec.JacksonCodec;
 import com.library.dto.PublisherDTO;
+import com.library.dto.PublisherView;
+import com.library.dto.BookView;
+import com.library.dto.BulkDeleteDTO;
+import com.library.dto.BulkResultDTO;
+import com.library.dto.PageDTO;
+import com.library.exception.VersionConflictException;
 import com.library.service.Fabric;
 import com.library.service.PublisherService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.service.BookService;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -12,6 +19,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
 
 @WebServlet("/publishers/*")
 public class PublisherServlet extends HttpServlet {
@@ -19,52 +28,81 @@ public class PublisherServlet extends HttpServlet {
     private static final String ERROR_SERVER_PREFIX = "{\"error\":\"Server error: ";
     private static final String ERROR_SERVER_SUFFIX = "\"}";
     private static final String ERROR_ID_MISMATCH = "{\"error\":\"ID in path and body mismatch\"}";
+    private static final String ERROR_VERSION_CONFLICT = "{\"error\":\"Version conflict\"}";
+    private static final PathRouter ROUTER = new PathRouter("/publishers", "books", "_bulk-delete");
     private static final String ERROR_INVALID_REQUEST = "{\"error\":\"Invalid request: ";
 
     private PublisherService publisherService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BookService bookService;
 
     @Override
     public void init() throws ServletException {
         super.init();
         this.publisherService = Fabric.getPublisherService();
+        this.bookService = Fabric.getBookService();
     }
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
-        String pathInfo = req.getPathInfo();
+        PathRouter.Route route = ROUTER.route(req);
         resp.setContentType("application/json");
 
         try {
-            if (pathInfo == null || pathInfo.equals("/")) {
-                List<PublisherDTO> publishers = publisherService.getAllPublishers();
-                objectMapper.writeValue(resp.getWriter(), publishers);
-            } else {
-                String[] parts = pathInfo.split("/");
-                if (parts.length != 2) {
-                    resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                    return;
-                }
-
-                int publisherId = Integer.parseInt(parts[1]);
-                PublisherDTO publisher = publisherService.getPublisherById(publisherId);
-                if (publisher != null) {
-                    objectMapper.writeValue(resp.getWriter(), publisher);
-                } else {
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                }
+            Set<String> fields = SparseFields.parse(req);
+            switch (route.kind()) {
+                case COLLECTION -> getAll(req, resp, fields);
+                case ITEM -> getOne(req, resp, route.id(), fields);
+                case SUB_RESOURCE -> getBooks(req, resp, route.id());
+                case INVALID_ID -> handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+                default -> resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             }
-        } catch (NumberFormatException e) {
-            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+        } catch (IllegalArgumentException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, "{\"error\":\"" + e.getMessage() + "\"}");
         } catch (Exception e) {
             handleServerError(resp, e);
         }
     }
 
+    private void getAll(HttpServletRequest req, HttpServletResponse resp, Set<String> fields) throws IOException {
+        if (ConditionalGet.isNotModifiedCollection(req, resp, publisherService.getPublishersVersion())) {
+            return;
+        }
+        List<PublisherView> publishers = fields == null ? publisherService.getAllPublishers() : publisherService.getAllPublishers(fields);
+        ResponseFormat.negotiate(req).writeList(resp, publishers, PublisherView.class, fields);
+    }
+
+    private void getOne(HttpServletRequest req, HttpServletResponse resp, int publisherId, Set<String> fields) throws IOException {
+        if (ConditionalGet.isNotModified(req, resp, publisherService.getPublisherVersion(publisherId))) {
+            return;
+        }
+        PublisherView publisher = fields == null ? publisherService.getPublisherById(publisherId) : publisherService.getPublisherById(publisherId, fields);
+        if (publisher != null) {
+            ResponseFormat.negotiate(req).write(resp, publisher, fields);
+        } else {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    // Книги издателя постранично: /publishers/{id}/books?after=&limit=
+    private void getBooks(HttpServletRequest req, HttpServletResponse resp, int publisherId) throws IOException {
+        PageRequest page = PageRequest.parse(req);
+        if (publisherService.getPublisherVersion(publisherId).isEmpty()) {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        PageDTO<BookView> books = bookService.getBooksByPublisher(publisherId, page.after(), page.limit());
+        page.writeNextLink(req, resp, books.nextAfter());
+        ResponseFormat.negotiate(req).write(resp, books, null);
+    }
+
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) {
+        if (ROUTER.route(req).kind() == PathRouter.Kind.ACTION) {
+            bulkDelete(req, resp);
+            return;
+        }
         try {
-            PublisherDTO publisher = objectMapper.readValue(req.getReader(), PublisherDTO.class);
+            PublisherDTO publisher = JacksonCodec.JSON.read(req.getReader(), PublisherDTO.class);
             publisherService.addPublisher(publisher);
             resp.setStatus(HttpServletResponse.SC_CREATED);
         } catch (Exception e) {
@@ -72,58 +110,91 @@ public class PublisherServlet extends HttpServlet {
         }
     }
 
+    // POST /publishers/_bulk-delete {"ids": [...]}: вся пачка одним запросом, в ответе исход по каждому id
+    private void bulkDelete(HttpServletRequest req, HttpServletResponse resp) {
+        BulkDeleteDTO request;
+        try {
+            request = JacksonCodec.JSON.read(req.getReader(), BulkDeleteDTO.class);
+        } catch (IOException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_REQUEST + e.getMessage() + "\"}");
+            return;
+        }
+        try {
+            BulkResultDTO result = publisherService.deletePublishers(request.ids());
+            resp.setContentType("application/json");
+            JacksonCodec.JSON.writer(BulkResultDTO.class, null).writeValue(resp.getWriter(), result);
+        } catch (Exception e) {
+            handleServerError(resp, e);
+        }
+    }
+
     @Override
     protected void doPut(HttpServletRequest req, HttpServletResponse resp) {
         try {
-            String pathInfo = req.getPathInfo();
-            if (pathInfo == null || pathInfo.equals("/")) {
-                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            PathRouter.Route route = ROUTER.route(req);
+            if (route.kind() == PathRouter.Kind.BY_KEY) {
+                upsert(req, resp, route.key());
                 return;
             }
-
-            String[] parts = pathInfo.split("/");
-            if (parts.length != 2) {
+            if (route.kind() == PathRouter.Kind.INVALID_ID) {
+                handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+                return;
+            }
+            if (route.kind() != PathRouter.Kind.ITEM) {
                 resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 return;
             }
 
-            int publisherId = Integer.parseInt(parts[1]);
-            PublisherDTO publisher = objectMapper.readValue(req.getReader(), PublisherDTO.class);
+            int publisherId = route.id();
+            PublisherDTO publisher = JacksonCodec.JSON.read(req.getReader(), PublisherDTO.class);
 
             if (publisher.getId() != publisherId) {
                 handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_ID_MISMATCH);
                 return;
             }
 
-            publisherService.updatePublisher(publisherId, publisher);
+            OptionalLong expectedVersion = ConditionalUpdate.expectedVersion(req, () -> publisherService.getPublisherVersion(publisherId));
+            publisherService.updatePublisher(publisherId, publisher, expectedVersion);
             resp.setStatus(HttpServletResponse.SC_OK);
-        } catch (NumberFormatException e) {
-            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
+        } catch (VersionConflictException e) {
+            handleError(resp, ConditionalUpdate.conflictStatus(req), ERROR_VERSION_CONFLICT);
         } catch (Exception e) {
             handleServerError(resp, e);
         }
     }
 
+    // PUT /publishers/by-key/{key}: повтор запроса обновляет ту же запись; 201 — создана, 200 — обновлена
+    private void upsert(HttpServletRequest req, HttpServletResponse resp, String key) {
+        PublisherDTO publisher;
+        try {
+            publisher = JacksonCodec.JSON.read(req.getReader(), PublisherDTO.class);
+        } catch (IOException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_REQUEST + e.getMessage() + "\"}");
+            return;
+        }
+        try {
+            boolean created = publisherService.upsertPublisher(key, publisher);
+            resp.setStatus(created ? HttpServletResponse.SC_CREATED : HttpServletResponse.SC_OK);
+        } catch (IllegalArgumentException e) {
+            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, "{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
     @Override
     protected void doDelete(HttpServletRequest req, HttpServletResponse resp) {
         try {
-            String pathInfo = req.getPathInfo();
-            if (pathInfo == null || pathInfo.equals("/")) {
-                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            PathRouter.Route route = ROUTER.route(req);
+            if (route.kind() == PathRouter.Kind.INVALID_ID) {
+                handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
                 return;
             }
-
-            String[] parts = pathInfo.split("/");
-            if (parts.length != 2) {
+            if (route.kind() != PathRouter.Kind.ITEM) {
                 resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 return;
             }
 
-            int publisherId = Integer.parseInt(parts[1]);
-            publisherService.deletePublisher(publisherId);
+            publisherService.deletePublisher(route.id());
             resp.setStatus(HttpServletResponse.SC_NO_CONTENT);
-        } catch (NumberFormatException e) {
-            handleError(resp, HttpServletResponse.SC_BAD_REQUEST, ERROR_INVALID_ID_FORMAT);
         } catch (Exception e) {
             handleServerError(resp, e);
         }
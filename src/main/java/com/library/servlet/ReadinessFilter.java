@@ -0,0 +1,42 @@
+package com.library.servlet;
+
+import com.library.config.ApplicationState;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public class ReadinessFilter implements Filter {
+    private static final String HEALTH_PATH = "/health";
+    private static final String RETRY_AFTER_SECONDS = "5";
+    private static final String ERROR_NOT_READY = "{\"error\":\"Service is starting, database migrations in progress\"}";
+    private static final String ERROR_FAILED = "{\"error\":\"Service unavailable: database migrations failed\"}";
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (ApplicationState.isReady()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest req = (HttpServletRequest) request;
+        if (req.getServletPath().startsWith(HEALTH_PATH)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletResponse resp = (HttpServletResponse) response;
+        resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        resp.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+        resp.setContentType("application/json");
+        resp.getWriter().write(ApplicationState.getStatus() == ApplicationState.Status.FAILED
+                ? ERROR_FAILED
+                : ERROR_NOT_READY);
+    }
+}
@@ -0,0 +1,51 @@
+package com.library.servlet;
+
+import com.library.config.ApplicationProperties;
+import com.library.config.RequestDeadline;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+public class RequestDeadlineFilter implements Filter {
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final long maxTimeoutMillis;
+
+    public RequestDeadlineFilter() {
+        this(ApplicationProperties.getLong("http.requestTimeoutMs", 30000));
+    }
+
+    public RequestDeadlineFilter(long maxTimeoutMillis) {
+        this.maxTimeoutMillis = maxTimeoutMillis;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        RequestDeadline.start(resolveTimeout((HttpServletRequest) request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    private long resolveTimeout(HttpServletRequest request) {
+        // Клиент может сообщить свой таймаут: после него ответ уже никто не прочитает
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header == null) {
+            return maxTimeoutMillis;
+        }
+        try {
+            long clientTimeout = Long.parseLong(header.trim());
+            return clientTimeout > 0 ? Math.min(clientTimeout, maxTimeoutMillis) : maxTimeoutMillis;
+        } catch (NumberFormatException e) {
+            return maxTimeoutMillis;
+        }
+    }
+}
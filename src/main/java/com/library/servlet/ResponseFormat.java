@@ -0,0 +1,97 @@
+package com.library.servlet;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.library.codec.JacksonCodec;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Формат тела ответа по заголовку Accept. Бинарные CBOR и Smile — для межсервисных
+ * вызовов: та же модель данных и тот же путь сериализации Jackson, без текстового JSON.
+ */
+enum ResponseFormat {
+    JSON("application/json", JacksonCodec.JSON, false),
+    CBOR("application/cbor", JacksonCodec.CBOR, true),
+    SMILE("application/x-jackson-smile", JacksonCodec.SMILE, true);
+
+    private final String contentType;
+    private final JacksonCodec codec;
+    private final boolean binary;
+
+    ResponseFormat(String contentType, JacksonCodec codec, boolean binary) {
+        this.contentType = contentType;
+        this.codec = codec;
+        this.binary = binary;
+    }
+
+    /**
+     * Выбирает формат с наибольшим q из Accept; без заголовка или без совпадений — JSON.
+     */
+    static ResponseFormat negotiate(HttpServletRequest req) {
+        String accept = req.getHeader("Accept");
+        if (accept == null || accept.isEmpty()) {
+            return JSON;
+        }
+        ResponseFormat best = JSON;
+        double bestQuality = 0;
+        for (String part : accept.split(",")) {
+            String[] tokens = part.split(";");
+            ResponseFormat format = forMediaType(tokens[0].trim().toLowerCase());
+            double q = quality(tokens);
+            if (format != null && q > bestQuality) {
+                best = format;
+                bestQuality = q;
+            }
+        }
+        return best;
+    }
+
+    private static ResponseFormat forMediaType(String mediaType) {
+        for (ResponseFormat format : values()) {
+            if (format.contentType.equals(mediaType)) {
+                return format;
+            }
+        }
+        return "*/*".equals(mediaType) || "application/*".equals(mediaType) ? JSON : null;
+    }
+
+    private static double quality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Пишет значение в ответ; {@code fields} ограничивает свойства (см. {@link SparseFields}).
+     */
+    void write(HttpServletResponse resp, Object value, Set<String> fields) throws IOException {
+        write(resp, codec.writer(value.getClass(), fields), value);
+    }
+
+    void writeList(HttpServletResponse resp, List<?> values, Class<?> elementType, Set<String> fields) throws IOException {
+        write(resp, codec.listWriter(elementType, fields), values);
+    }
+
+    private void write(HttpServletResponse resp, ObjectWriter writer, Object value) throws IOException {
+        resp.addHeader("Vary", "Accept");
+        if (binary) {
+            // application/json сервлет выставляет заранее: в этом формате отдаются и ошибки
+            resp.setContentType(contentType);
+            writer.writeValue(resp.getOutputStream(), value);
+        } else {
+            writer.writeValue(resp.getWriter(), value);
+        }
+    }
+}
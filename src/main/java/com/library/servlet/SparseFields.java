@@ -0,0 +1,41 @@
+package com.library.servlet;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Параметр {@code ?fields=id,title}: DAO выбирает только эти колонки, а в ответ
+ * попадают только эти свойства. Без параметра ответ полный, как раньше.
+ */
+final class SparseFields {
+    static final String PARAMETER = "fields";
+    // Имя свойства DTO: такие имена можно вернуть в тексте ошибки без экранирования
+    private static final Pattern FIELD_NAME = Pattern.compile("[A-Za-z][A-Za-z0-9]*");
+
+    private SparseFields() {
+    }
+
+    /**
+     * @return запрошенные поля или {@code null}, если параметр не задан
+     * @throws IllegalArgumentException если имя поля не похоже на свойство DTO
+     */
+    static Set<String> parse(HttpServletRequest req) {
+        String value = req.getParameter(PARAMETER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        Set<String> fields = Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        for (String field : fields) {
+            if (!FIELD_NAME.matcher(field).matches()) {
+                throw new IllegalArgumentException("Invalid field name in '" + PARAMETER + "' parameter");
+            }
+        }
+        return fields;
+    }
+}
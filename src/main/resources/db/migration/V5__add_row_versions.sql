@@ -0,0 +1,23 @@
+-- Версия строки и время изменения для ETag / Last-Modified.
+-- version увеличивается DAO при каждой записи, влияющей на представление сущности
+ALTER TABLE publishers
+    ADD COLUMN version    BIGINT      NOT NULL DEFAULT 0,
+    ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+ALTER TABLE authors
+    ADD COLUMN version    BIGINT      NOT NULL DEFAULT 0,
+    ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+ALTER TABLE books
+    ADD COLUMN version    BIGINT      NOT NULL DEFAULT 0,
+    ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+-- Проверка версии одной сущности выполняется index-only scan без чтения строки
+CREATE UNIQUE INDEX idx_publishers_id_version ON publishers (id) INCLUDE (version, updated_at);
+CREATE UNIQUE INDEX idx_authors_id_version ON authors (id) INCLUDE (version, updated_at);
+CREATE UNIQUE INDEX idx_books_id_version ON books (id) INCLUDE (version, updated_at);
+
+-- max(updated_at) для ETag коллекций
+CREATE INDEX idx_publishers_updated_at ON publishers (updated_at);
+CREATE INDEX idx_authors_updated_at ON authors (updated_at);
+CREATE INDEX idx_books_updated_at ON books (updated_at);
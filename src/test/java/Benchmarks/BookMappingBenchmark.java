@@ -0,0 +1,70 @@
+package Benchmarks;
+
+import com.library.dto.BookDTO;
+import com.library.mapper.BookMapper;
+import com.library.model.Author;
+import com.library.model.Book;
+import com.library.model.Publisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг страницы из 100 книг в DTO, как в GET /books. Аллокации на страницу —
+ * в колонке gc.alloc.rate.norm.
+ * Запуск: main() из IDE (включает GC-профайлер) или
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main BookMappingBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookMappingBenchmark {
+    private final List<Book> books = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        Publisher publisher = new Publisher(1, "Publisher", new ArrayList<>());
+        for (int i = 1; i <= 100; i++) {
+            Book book = new Book(i, "Book title number " + i, LocalDate.of(2020, 1, 1), "Fiction", publisher, new HashSet<>());
+            book.getAuthors().add(new Author(1000 + i, "Name", "Surname", "Country", new HashSet<>()));
+            book.getAuthors().add(new Author(2000 + i, "Name", "Surname", "Country", new HashSet<>()));
+            books.add(book);
+        }
+    }
+
+    @Benchmark
+    public List<BookDTO> toDTO() {
+        List<BookDTO> page = new ArrayList<>(books.size());
+        for (Book book : books) {
+            page.add(BookMapper.INSTANCE.toDTO(book));
+        }
+        return page;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookMappingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,33 @@
+package Benchmarks;
+
+import com.library.dto.BookDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Типичная страница GET /books для бенчмарков.
+ */
+final class BookPages {
+    private static final String[] GENRES = {"Fiction", "Science", "History", "Poetry", "Drama"};
+
+    private BookPages() {
+    }
+
+    static List<BookDTO> page(int size) {
+        List<BookDTO> books = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            BookDTO book = new BookDTO();
+            book.setId(i);
+            book.setTitle("Book title number " + i);
+            book.setPublishedDate(LocalDate.of(2010 + i % 15, 1 + i % 9, 10 + i % 9));
+            book.setGenre(GENRES[i % GENRES.length]);
+            book.setPublisherId(1 + i % 50);
+            book.setAuthorIds(Set.of(1 + i % 200, 201 + i % 300));
+            books.add(book);
+        }
+        return books;
+    }
+}
@@ -0,0 +1,149 @@
+package Benchmarks;
+
+import com.library.model.Author;
+import com.library.model.Book;
+import com.library.model.Publisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка графа каталога в HashSet/HashMap: прежнее равенство по всем полям (record
+ * с теми же полями, что сравнивали Book/Author/Publisher) против равенства по id.
+ * Каждая книга добавляется в общий Set&lt;Book&gt;, её авторы — в Set&lt;Author&gt;,
+ * и книга — в множество книг каждого автора.
+ * Запуск: main() из IDE или {@code java -cp <test classpath> org.openjdk.jmh.Main EntityHashingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityHashingBenchmark {
+    private static final String[] GENRES = {"Fiction", "Science", "History", "Poetry", "Drama"};
+
+    private record ValuePublisher(int id, String name) {
+    }
+
+    private record ValueBook(int id, String title, LocalDate publishedDate, String genre, ValuePublisher publisher) {
+    }
+
+    private record ValueAuthor(int id, String name, String surname, String country) {
+    }
+
+    @Param({"1000", "10000"})
+    public int books;
+
+    private Book[] entityBooks;
+    private Author[][] entityAuthors;
+    private ValueBook[] valueBooks;
+    private ValueAuthor[][] valueAuthors;
+
+    @Setup
+    public void setUp() {
+        int authorCount = Math.max(books / 5, 2);
+        Publisher[] publishers = new Publisher[50];
+        ValuePublisher[] valuePublishers = new ValuePublisher[publishers.length];
+        for (int i = 0; i < publishers.length; i++) {
+            publishers[i] = new Publisher(i + 1, "Publisher number " + (i + 1), new ArrayList<>());
+            valuePublishers[i] = new ValuePublisher(i + 1, "Publisher number " + (i + 1));
+        }
+        Author[] authors = new Author[authorCount];
+        ValueAuthor[] valueAuthorPool = new ValueAuthor[authorCount];
+        for (int i = 0; i < authorCount; i++) {
+            authors[i] = new Author(i + 1, "Name" + i, "Surname number " + i, "Country " + i % 30, new HashSet<>());
+            valueAuthorPool[i] = new ValueAuthor(i + 1, "Name" + i, "Surname number " + i, "Country " + i % 30);
+        }
+
+        entityBooks = new Book[books];
+        entityAuthors = new Author[books][];
+        valueBooks = new ValueBook[books];
+        valueAuthors = new ValueAuthor[books][];
+        for (int i = 0; i < books; i++) {
+            String title = "Book title number " + i;
+            LocalDate date = LocalDate.of(2010 + i % 15, 1 + i % 9, 10 + i % 9);
+            String genre = GENRES[i % GENRES.length];
+            int publisher = i % publishers.length;
+            int first = i % authorCount;
+            int second = (i * 7 + 1) % authorCount;
+
+            // Как при загрузке без карты идентичности: у каждой строки свои экземпляры
+            entityBooks[i] = new Book(i + 1, title, date, genre, copy(publishers[publisher]), new HashSet<>());
+            entityAuthors[i] = new Author[]{copy(authors[first]), copy(authors[second])};
+            valueBooks[i] = new ValueBook(i + 1, new String(title), date, genre,
+                    new ValuePublisher(publisher + 1, new String(valuePublishers[publisher].name())));
+            valueAuthors[i] = new ValueAuthor[]{copy(valueAuthorPool[first]), copy(valueAuthorPool[second])};
+        }
+    }
+
+    private static Publisher copy(Publisher publisher) {
+        return new Publisher(publisher.getId(), new String(publisher.getName()), new ArrayList<>());
+    }
+
+    private static Author copy(Author author) {
+        return new Author(author.getId(), new String(author.getName()), new String(author.getSurname()),
+                new String(author.getCountry()), new HashSet<>());
+    }
+
+    private static ValueAuthor copy(ValueAuthor author) {
+        return new ValueAuthor(author.id(), new String(author.name()), new String(author.surname()), new String(author.country()));
+    }
+
+    @Benchmark
+    public int valueEquality() {
+        Set<ValueBook> allBooks = new HashSet<>();
+        Set<ValueAuthor> allAuthors = new HashSet<>();
+        Map<ValueAuthor, Set<ValueBook>> booksByAuthor = new HashMap<>();
+        for (int i = 0; i < valueBooks.length; i++) {
+            ValueBook book = valueBooks[i];
+            allBooks.add(book);
+            for (ValueAuthor author : valueAuthors[i]) {
+                allAuthors.add(author);
+                booksByAuthor.computeIfAbsent(author, key -> new HashSet<>()).add(book);
+            }
+        }
+        return allBooks.size() + allAuthors.size() + booksByAuthor.size();
+    }
+
+    @Benchmark
+    public int idEquality() {
+        Set<Book> allBooks = new HashSet<>();
+        Set<Author> allAuthors = new HashSet<>();
+        Map<Author, Set<Book>> booksByAuthor = new HashMap<>();
+        for (int i = 0; i < entityBooks.length; i++) {
+            Book book = entityBooks[i];
+            allBooks.add(book);
+            for (Author author : entityAuthors[i]) {
+                allAuthors.add(author);
+                booksByAuthor.computeIfAbsent(author, key -> new HashSet<>()).add(book);
+            }
+        }
+        return allBooks.size() + allAuthors.size() + booksByAuthor.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EntityHashingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package Benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.library.codec.JacksonCodec;
+import com.library.dto.BookDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость сериализации на один запрос: тело POST /books (чтение одной книги)
+ * и ответ GET /books на 100 книг.
+ * <ul>
+ *     <li>{@code newMapper} — новый ObjectMapper на запрос (нижняя граница);</li>
+ *     <li>{@code sharedMapper} — ObjectMapper на сервлет и {@code readValue(reader, Class)}, как было до кодека;</li>
+ *     <li>{@code sharedBlackbird} — то же с модулем Blackbird;</li>
+ *     <li>{@code codec} — {@link JacksonCodec}: готовые ObjectReader/ObjectWriter и Blackbird.</li>
+ * </ul>
+ * Запуск: main() из IDE или {@code java -cp <test classpath> org.openjdk.jmh.Main JsonCodecBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({"newMapper", "sharedMapper", "sharedBlackbird", "codec"})
+    public String path;
+
+    private final ObjectMapper sharedMapper = new ObjectMapper();
+    private final ObjectMapper blackbirdMapper = new ObjectMapper().registerModule(new BlackbirdModule());
+    private String requestBody;
+    private List<BookDTO> page;
+
+    @Setup
+    public void setUp() throws IOException {
+        page = BookPages.page(100);
+        requestBody = sharedMapper.writeValueAsString(page.get(0));
+    }
+
+    @Benchmark
+    public BookDTO readRequestBody() throws IOException {
+        StringReader reader = new StringReader(requestBody);
+        return switch (path) {
+            case "newMapper" -> new ObjectMapper().readValue(reader, BookDTO.class);
+            case "sharedMapper" -> sharedMapper.readValue(reader, BookDTO.class);
+            case "sharedBlackbird" -> blackbirdMapper.readValue(reader, BookDTO.class);
+            default -> JacksonCodec.JSON.read(reader, BookDTO.class);
+        };
+    }
+
+    @Benchmark
+    public int writeResponsePage() throws IOException {
+        StringWriter writer = new StringWriter(16 * 1024);
+        switch (path) {
+            case "newMapper" -> new ObjectMapper().writeValue(writer, page);
+            case "sharedMapper" -> sharedMapper.writeValue(writer, page);
+            case "sharedBlackbird" -> blackbirdMapper.writeValue(writer, page);
+            default -> JacksonCodec.JSON.listWriter(BookDTO.class, null).writeValue(writer, page);
+        }
+        return writer.getBuffer().length();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,76 @@
+package Benchmarks;
+
+import com.library.servlet.PathRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор pathInfo: прежний split("/") + Integer.parseInt с NumberFormatException
+ * против {@link PathRouter}. Аллокации — в колонке gc.alloc.rate.norm (байт на операцию).
+ * Запуск: main() из IDE (включает GC-профайлер) или
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main PathRouterBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathRouterBenchmark {
+    private static final int INVALID = -1;
+    private static final int BAD_REQUEST = -2;
+
+    // "/abc" и "/wp-login.php" — типичный трафик сканеров
+    @Param({"/", "/12345", "/abc", "/wp-login.php", "/12345/books"})
+    public String pathInfo;
+
+    private final PathRouter router = new PathRouter("/authors", "books");
+
+    @Benchmark
+    public int splitAndParse() {
+        if (pathInfo == null || pathInfo.equals("/")) {
+            return 0;
+        }
+        String[] parts = pathInfo.split("/");
+        if (parts.length != 2) {
+            return BAD_REQUEST;
+        }
+        try {
+            return Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return INVALID;
+        }
+    }
+
+    @Benchmark
+    public int router() {
+        PathRouter.Route route = router.route(pathInfo);
+        return switch (route.kind()) {
+            case COLLECTION -> 0;
+            case ITEM, SUB_RESOURCE -> route.id();
+            case INVALID_ID -> INVALID;
+            case BY_KEY, ACTION, MALFORMED -> BAD_REQUEST;
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PathRouterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
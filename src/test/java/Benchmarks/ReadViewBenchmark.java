@@ -0,0 +1,92 @@
+package Benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.library.codec.JacksonCodec;
+import com.library.dto.BookDTO;
+import com.library.dto.BookView;
+import com.library.mapper.BookMapper;
+import com.library.model.Author;
+import com.library.model.Book;
+import com.library.model.Publisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Путь GET /books целиком без БД: маппинг страницы из 100 книг и запись JSON.
+ * {@code bean} — изменяемые {@link BookDTO}, {@code view} — записи {@link BookView},
+ * которые теперь отдают сервлеты. Аллокации на страницу — в gc.alloc.rate.norm.
+ * Запуск: main() из IDE (включает GC-профайлер) или
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main ReadViewBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadViewBenchmark {
+    private final List<Book> books = new ArrayList<>();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(16384);
+    private final ObjectWriter beanWriter = JacksonCodec.JSON.listWriter(BookDTO.class, null);
+    private final ObjectWriter viewWriter = JacksonCodec.JSON.listWriter(BookView.class, null);
+
+    @Setup
+    public void setUp() {
+        Publisher publisher = new Publisher(1, "Publisher", new ArrayList<>());
+        for (int i = 1; i <= 100; i++) {
+            Book book = new Book(i, "Book title number " + i, LocalDate.of(2020, 1, 1), "Fiction", publisher, new HashSet<>());
+            book.getAuthors().add(new Author(1000 + i, "Name", "Surname", "Country", new HashSet<>()));
+            book.getAuthors().add(new Author(2000 + i, "Name", "Surname", "Country", new HashSet<>()));
+            books.add(book);
+        }
+    }
+
+    @Benchmark
+    public int bean() throws IOException {
+        List<BookDTO> page = new ArrayList<>(books.size());
+        for (Book book : books) {
+            page.add(BookMapper.INSTANCE.toDTO(book));
+        }
+        out.reset();
+        beanWriter.writeValue(out, page);
+        return out.size();
+    }
+
+    @Benchmark
+    public int view() throws IOException {
+        List<BookView> page = new ArrayList<>(books.size());
+        for (Book book : books) {
+            page.add(BookMapper.INSTANCE.toView(book));
+        }
+        out.reset();
+        viewWriter.writeValue(out, page);
+        return out.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReadViewBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+package Benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.dto.BookDTO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Стоимость сжатия типичной страницы GET /books (10 000 книг): время на CPU и байты в сети.
+ * Запуск: main() из IDE или {@code java -cp <test classpath> org.openjdk.jmh.Main ResponseCompressionBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseCompressionBenchmark {
+    @Param({"identity", "gzip", "deflate"})
+    public String encoding;
+
+    @Param({"1", "5", "9"})
+    public int level;
+
+    @Param({"8192", "32768"})
+    public int bufferSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<BookDTO> books;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Wire {
+        // Байт на страницу = bytes / pages
+        public long bytes;
+        public long pages;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            pages = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        books = BookPages.page(10_000);
+    }
+
+    @Benchmark
+    public long writeBooksPage(Wire wire) throws IOException {
+        CountingOutputStream socket = new CountingOutputStream();
+        try (OutputStream out = encode(socket)) {
+            objectMapper.writeValue(out, books);
+        }
+        wire.bytes += socket.count;
+        wire.pages++;
+        return socket.count;
+    }
+
+    private OutputStream encode(OutputStream socket) throws IOException {
+        return switch (encoding) {
+            case "gzip" -> new GZIPOutputStream(socket, bufferSize) {
+                {
+                    def.setLevel(level);
+                }
+            };
+            case "deflate" -> new DeflaterOutputStream(socket, new Deflater(level), bufferSize) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    def.end();
+                }
+            };
+            default -> new BufferedOutputStream(socket, bufferSize);
+        };
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseCompressionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,137 @@
+package Benchmarks;
+
+import com.library.model.Book;
+import com.library.model.Publisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Скан 1 000 000 строк книг в сущности: чтение колонок по метке ({@code rs.getString("title")},
+ * как было в DAO) против чтения по номерам, разрешённым один раз на результат, как в
+ * {@code ColumnLayout}. Нужен Docker: PostgreSQL поднимается через Testcontainers.
+ * Запуск: main() из IDE или {@code java -cp <test classpath> org.openjdk.jmh.Main RowMappingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RowMappingBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final String SCAN = """
+            SELECT b.id, b.title, b.published_date, b.genre,
+                   p.id AS publisher_id, p.name AS publisher_name
+            FROM books b
+            LEFT JOIN publishers p ON b.publisher_id = p.id
+            """;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection conn;
+
+    @Setup
+    public void setUp() throws SQLException {
+        postgres = new PostgreSQLContainer<>("postgres:14");
+        postgres.start();
+        conn = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE publishers (id SERIAL PRIMARY KEY, name VARCHAR(255) NOT NULL)");
+            stmt.execute("""
+                    CREATE TABLE books (id SERIAL PRIMARY KEY, title VARCHAR(255) NOT NULL, published_date DATE,
+                                        genre VARCHAR(100), publisher_id INT REFERENCES publishers(id))
+                    """);
+            stmt.execute("INSERT INTO publishers (name) SELECT 'Publisher ' || i FROM generate_series(1, 100) i");
+            stmt.execute("INSERT INTO books (title, published_date, genre, publisher_id) "
+                    + "SELECT 'Book title number ' || i, DATE '2000-01-01' + i % 9000, 'Fiction', 1 + i % 100 "
+                    + "FROM generate_series(1, " + ROWS + ") i");
+        }
+        // Курсор с fetchSize вместо всего результата в памяти драйвера
+        conn.setAutoCommit(false);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public long byLabel() throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement stmt = scan(); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Book book = new Book();
+                book.setId(rs.getInt("id"));
+                book.setTitle(rs.getString("title"));
+                book.setPublishedDate(rs.getObject("published_date", LocalDate.class));
+                book.setGenre(rs.getString("genre"));
+                int publisherId = rs.getInt("publisher_id");
+                if (!rs.wasNull()) {
+                    book.setPublisher(new Publisher(publisherId, rs.getString("publisher_name"), null));
+                }
+                checksum += book.getId();
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long byIndex() throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement stmt = scan(); ResultSet rs = stmt.executeQuery()) {
+            int id = rs.findColumn("id");
+            int title = rs.findColumn("title");
+            int publishedDate = rs.findColumn("published_date");
+            int genre = rs.findColumn("genre");
+            int publisherIdColumn = rs.findColumn("publisher_id");
+            int publisherName = rs.findColumn("publisher_name");
+            while (rs.next()) {
+                Book book = new Book();
+                book.setId(rs.getInt(id));
+                book.setTitle(rs.getString(title));
+                book.setPublishedDate(rs.getObject(publishedDate, LocalDate.class));
+                book.setGenre(rs.getString(genre));
+                int publisherId = rs.getInt(publisherIdColumn);
+                if (!rs.wasNull()) {
+                    book.setPublisher(new Publisher(publisherId, rs.getString(publisherName), null));
+                }
+                checksum += book.getId();
+            }
+        }
+        return checksum;
+    }
+
+    private PreparedStatement scan() throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(SCAN);
+        stmt.setFetchSize(10_000);
+        return stmt;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RowMappingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package Benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.library.dto.BookDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON против CBOR и Smile на странице из 10 000 книг: время кодирования и
+ * декодирования; размер тела печатается в конце прогона каждого формата.
+ * Запуск: main() из IDE или {@code java -cp <test classpath> org.openjdk.jmh.Main SerializationFormatBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private List<BookDTO> books;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+        books = BookPages.page(10_000);
+        encoded = mapper.writeValueAsBytes(books);
+    }
+
+    @TearDown
+    public void printPayloadSize() {
+        System.out.printf("%n%s payload: %d bytes%n", format, encoded.length);
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.length);
+        mapper.writeValue(out, books);
+        return out.size();
+    }
+
+    @Benchmark
+    public BookDTO[] decode() throws IOException {
+        return mapper.readValue(encoded, BookDTO[].class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerializationFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,145 @@
+package CodecTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.library.codec.JacksonCodec;
+import com.library.dto.BookDTO;
+import com.library.dto.BookView;
+import com.library.dto.IdSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+class JacksonCodecTest {
+
+    @Test
+    void read_BookBody_ReturnsDto() throws Exception {
+        BookDTO book = JacksonCodec.JSON.read(new StringReader("{\"id\":7,\"title\":\"1984\",\"authorIds\":[1,2]}"), BookDTO.class);
+
+        assertThat(book.getId()).isEqualTo(7);
+        assertThat(book.getTitle()).isEqualTo("1984");
+        assertThat(book.getAuthorIds()).containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    void read_AuthorIds_ReadAsSortedDistinctIdSet() throws Exception {
+        BookDTO book = JacksonCodec.JSON.read(new StringReader("{\"authorIds\":[5,1,5,3]}"), BookDTO.class);
+
+        assertThat(book.getAuthorIds()).isEqualTo(IdSet.of(1, 3, 5));
+    }
+
+    @Test
+    void publishedDate_IsoStringBothWays() throws Exception {
+        BookDTO book = JacksonCodec.JSON.read(new StringReader("{\"publishedDate\":\"1949-06-08\"}"), BookDTO.class);
+        StringWriter out = new StringWriter();
+
+        JacksonCodec.JSON.writer(BookDTO.class, Set.of("publishedDate")).writeValue(out, book);
+
+        assertThat(book.getPublishedDate()).isEqualTo(LocalDate.of(1949, 6, 8));
+        assertThat(out.toString()).isEqualTo("{\"publishedDate\":\"1949-06-08\"}");
+    }
+
+    @Test
+    void read_AuthorIdsNotNumbers_Rejected() {
+        assertThatThrownBy(() -> JacksonCodec.JSON.read(new StringReader("{\"authorIds\":[\"a\"]}"), BookDTO.class))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void writer_IdSet_WrittenAsIntArray() throws Exception {
+        BookDTO book = new BookDTO();
+        book.setAuthorIds(Set.of(20, 10));
+        StringWriter out = new StringWriter();
+
+        JacksonCodec.JSON.writer(BookDTO.class, Set.of("authorIds")).writeValue(out, book);
+
+        assertThat(out.toString()).isEqualTo("{\"authorIds\":[10,20]}");
+    }
+
+    @Test
+    void listWriter_WithFields_WritesOnlyRequestedProperties() throws Exception {
+        BookDTO book = new BookDTO();
+        book.setId(1);
+        book.setTitle("1984");
+        book.setGenre("Dystopia");
+        StringWriter out = new StringWriter();
+
+        JacksonCodec.JSON.listWriter(BookDTO.class, Set.of("title")).writeValue(out, List.of(book));
+
+        assertThat(out.toString()).isEqualTo("[{\"title\":\"1984\"}]");
+    }
+
+    @Test
+    void writer_WithoutFields_WritesAllProperties() throws Exception {
+        BookDTO book = new BookDTO();
+        book.setId(1);
+        StringWriter out = new StringWriter();
+
+        JacksonCodec.JSON.writer(BookDTO.class, null).writeValue(out, book);
+
+        assertThat(out.toString()).contains("\"id\":1", "\"title\":null", "\"authorIds\"");
+    }
+
+    @Test
+    void writer_BookView_SameJsonAsBean() throws Exception {
+        BookDTO bean = new BookDTO();
+        bean.setId(1);
+        bean.setTitle("1984");
+        bean.setPublishedDate(LocalDate.of(1949, 6, 8));
+        bean.setGenre("Dystopia");
+        bean.setPublisherId(3);
+        bean.setAuthorIds(Set.of(2, 1));
+        BookView view = new BookView(1, "1984", LocalDate.of(1949, 6, 8), "Dystopia", 3, IdSet.of(1, 2));
+        StringWriter beanOut = new StringWriter();
+        StringWriter viewOut = new StringWriter();
+
+        JacksonCodec.JSON.writer(BookDTO.class, null).writeValue(beanOut, bean);
+        JacksonCodec.JSON.writer(BookView.class, null).writeValue(viewOut, view);
+
+        assertThat(viewOut.toString()).isEqualTo(beanOut.toString());
+    }
+
+    @Test
+    void listWriter_BookViewWithFields_WritesOnlyRequestedProperties() throws Exception {
+        StringWriter out = new StringWriter();
+
+        JacksonCodec.JSON.listWriter(BookView.class, Set.of("id", "authorIds"))
+                .writeValue(out, List.of(new BookView(1, "1984", null, null, null, null)));
+
+        assertThat(out.toString()).isEqualTo("[{\"id\":1,\"authorIds\":[]}]");
+    }
+
+    @Test
+    void writer_DoesNotCloseTarget() throws Exception {
+        boolean[] closed = {false};
+        Writer target = new StringWriter() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        JacksonCodec.JSON.writer(BookDTO.class, null).writeValue(target, new BookDTO());
+
+        assertThat(closed[0]).isFalse();
+        assertThat(target.toString()).startsWith("{");
+    }
+
+    @Test
+    void cbor_RoundTrip() throws Exception {
+        BookDTO book = new BookDTO();
+        book.setId(3);
+        book.setTitle("Мы");
+
+        byte[] encoded = JacksonCodec.CBOR.writer(BookDTO.class, null).writeValueAsBytes(book);
+
+        assertThat(JacksonCodec.CBOR.read(encoded, BookDTO.class).getTitle()).isEqualTo("Мы");
+    }
+}
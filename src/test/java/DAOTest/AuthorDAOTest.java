@@ -9,6 +9,9 @@ import java.util.*;
 
 import javax.sql.DataSource;
 
+import com.library.metrics.QueryMetrics;
+import com.library.metrics.QueryStats;
+import com.library.model.LazySet;
 import com.library.model.Publisher;
 import com.library.repository.PublisherDAO;
 import com.zaxxer.hikari.HikariConfig;
@@ -24,6 +27,7 @@ import com.library.model.Author;
 import com.library.model.Book;
 import com.library.repository.AuthorDAO;
 import com.library.repository.BookDAO;
+import com.library.repository.IdentityMap;
 
 @Testcontainers
 class AuthorDAOTest {
@@ -117,7 +121,7 @@ class AuthorDAOTest {
         // Обновляем поля автора
         author.setName("Лев Николаевич");
         author.setCountry("Российская Империя");
-        authorDAO.update(author);
+        authorDAO.update(author, authorDAO.getVersion(author.getId()).orElseThrow().version());
 
         // Получаем обновленного автора
         Optional<Author> updated = authorDAO.getById(author.getId());
@@ -169,7 +173,7 @@ class AuthorDAOTest {
         bookDAO.create(book2);
 
         author.setBooks(new HashSet<>(Arrays.asList(book1, book2)));
-        authorDAO.update(author);
+        authorDAO.update(author, authorDAO.getVersion(author.getId()).orElseThrow().version());
 
         Author retrieved = authorDAO.getById(author.getId()).orElseThrow();
         assertThat(retrieved.getBooks())
@@ -199,14 +203,14 @@ class AuthorDAOTest {
         Set<Book> books = new HashSet<>();
         books.add(book);
         author.setBooks(books);
-        authorDAO.update(author);
+        authorDAO.update(author, authorDAO.getVersion(author.getId()).orElseThrow().version());
 
         author.setBooks(new HashSet<>(Collections.singleton(book)));
-        authorDAO.update(author);
+        authorDAO.update(author, authorDAO.getVersion(author.getId()).orElseThrow().version());
 
         // Удаляем книгу у автора
         author.setBooks(new HashSet<>());
-        authorDAO.update(author);
+        authorDAO.update(author, authorDAO.getVersion(author.getId()).orElseThrow().version());
 
         // Получаем автора
         Optional<Author> found = authorDAO.getById(author.getId());
@@ -220,4 +224,104 @@ class AuthorDAOTest {
         Optional<Author> found = authorDAO.getById(-1);
         assertThat(found).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldLoadBooksOfAllAuthorsWithOneQueryOnFirstAccess() throws SQLException {
+        Book book = new Book();
+        book.setTitle("Двенадцать стульев");
+        bookDAO.create(book);
+
+        for (String surname : List.of("Ильф", "Петров")) {
+            Author author = new Author();
+            author.setName("Автор");
+            author.setSurname(surname);
+            author.setBooks(new HashSet<>(Collections.singleton(book)));
+            authorDAO.create(author);
+        }
+
+        QueryStats stats = QueryMetrics.forQuery("author.booksForAuthors");
+        long before = stats.snapshot().latency().count();
+
+        List<Author> authors = authorDAO.getAll();
+        assertThat(authors).hasSize(2);
+        assertThat(((LazySet<Book>) authors.get(0).getBooks()).isLoaded()).isFalse();
+        assertThat(stats.snapshot().latency().count()).isEqualTo(before);
+
+        assertThat(authors).allSatisfy(author ->
+                assertThat(author.getBooks()).extracting(Book::getId).containsExactly(book.getId()));
+        assertThat(stats.snapshot().latency().count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void shouldDeleteAuthorsInBulkKeepingBooks() throws SQLException {
+        Publisher publisher = new Publisher();
+        publisher.setName("Азбука");
+        PublisherDAO.forTests(dataSource).create(publisher);
+
+        Book book = new Book();
+        book.setTitle("Двенадцать стульев");
+        book.setPublisher(publisher);
+        bookDAO.create(book);
+
+        Author author = new Author();
+        author.setName("Илья");
+        author.setSurname("Ильф");
+        author.setBooks(new HashSet<>(Collections.singleton(book)));
+        authorDAO.create(author);
+        long bookVersion = bookDAO.getVersion(book.getId()).orElseThrow().version();
+
+        Set<Integer> deleted = authorDAO.deleteAll(List.of(author.getId(), Integer.MAX_VALUE));
+
+        assertThat(deleted).containsExactly(author.getId());
+        assertThat(authorDAO.getById(author.getId())).isEmpty();
+        Book kept = bookDAO.getById(book.getId()).orElseThrow();
+        assertThat(kept.getAuthors()).isEmpty();
+        assertThat(bookDAO.getVersion(book.getId()).orElseThrow().version()).isGreaterThan(bookVersion);
+    }
+
+    @Test
+    void shouldShareBookInstanceBetweenCoAuthors() throws SQLException {
+        Publisher publisher = new Publisher();
+        publisher.setName("Художественная литература");
+        PublisherDAO.forTests(dataSource).create(publisher);
+
+        Book book = new Book();
+        book.setTitle("Двенадцать стульев");
+        book.setPublisher(publisher);
+        bookDAO.create(book);
+
+        for (String surname : List.of("Ильф", "Петров")) {
+            Author author = new Author();
+            author.setName("Автор");
+            author.setSurname(surname);
+            author.setBooks(new HashSet<>(Collections.singleton(book)));
+            authorDAO.create(author);
+        }
+
+        List<Author> authors = authorDAO.getAll();
+        Book first = authors.get(0).getBooks().iterator().next();
+        Book second = authors.get(1).getBooks().iterator().next();
+        assertThat(first).isSameAs(second);
+        assertThat(first.getAuthors()).containsExactlyInAnyOrderElementsOf(authors);
+    }
+
+    @Test
+    void shouldReuseInstancesWithinUnitOfWorkUntilWrite() throws SQLException {
+        Author author = new Author();
+        author.setName("Антон");
+        author.setSurname("Чехов");
+        authorDAO.create(author);
+
+        IdentityMap.start();
+        try {
+            Author loaded = authorDAO.getById(author.getId()).orElseThrow();
+            assertThat(authorDAO.getAll()).singleElement().isSameAs(loaded);
+
+            loaded.setCountry("Россия");
+            authorDAO.update(loaded, authorDAO.getVersion(loaded.getId()).orElseThrow().version());
+            assertThat(authorDAO.getById(author.getId()).orElseThrow()).isNotSameAs(loaded);
+        } finally {
+            IdentityMap.clear();
+        }
+    }
+}
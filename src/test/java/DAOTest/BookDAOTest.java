@@ -2,14 +2,18 @@ package DAOTest;
 
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
@@ -22,8 +26,10 @@ import org.testcontainers.containers.wait.strategy.Wait;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import com.library.exception.VersionConflictException;
 import com.library.model.Author;
 import com.library.model.Book;
+import com.library.model.BookPatch;
 import com.library.model.Publisher;
 import com.library.repository.AuthorDAO;
 import com.library.repository.BookDAO;
@@ -97,7 +103,7 @@ class BookDAOTest {
 
         Book book = new Book();
         book.setTitle("1984");
-        book.setPublishedDate(LocalDate.now().toString());
+        book.setPublishedDate(LocalDate.now());
         book.setGenre("Антиутопия");
         book.setPublisher(publisher);
 
@@ -125,7 +131,7 @@ class BookDAOTest {
 
         book.setTitle("Старик и море (обновлённое)");
         book.setGenre("Роман");
-        bookDAO.update(book);
+        bookDAO.update(book, bookDAO.getVersion(book.getId()).orElseThrow().version());
 
         Optional<Book> updated = bookDAO.getById(book.getId());
         assertThat(updated).isPresent();
@@ -148,6 +154,75 @@ class BookDAOTest {
         assertThat(bookDAO.getById(book.getId())).isEmpty();
     }
 
+    @Test
+    void shouldDeleteBooksInBulkAndBumpOwnerVersions() throws SQLException {
+        Publisher publisher = new Publisher();
+        publisher.setName("Test Publisher");
+        publisherDAO.create(publisher);
+
+        Author author = new Author();
+        author.setName("Михаил");
+        author.setSurname("Булгаков");
+        authorDAO.create(author);
+
+        Book first = new Book();
+        first.setTitle("Мастер и Маргарита");
+        first.setPublisher(publisher);
+        first.setAuthors(new HashSet<>(Collections.singleton(author)));
+        bookDAO.create(first);
+        Book second = new Book();
+        second.setTitle("Собачье сердце");
+        second.setPublisher(publisher);
+        bookDAO.create(second);
+        long publisherVersion = publisherDAO.getVersion(publisher.getId()).orElseThrow().version();
+        long authorVersion = authorDAO.getVersion(author.getId()).orElseThrow().version();
+
+        Set<Integer> deleted = bookDAO.deleteAll(List.of(first.getId(), second.getId(), Integer.MAX_VALUE));
+
+        assertThat(deleted).containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(bookDAO.getAll()).isEmpty();
+        assertThat(publisherDAO.getVersion(publisher.getId()).orElseThrow().version()).isGreaterThan(publisherVersion);
+        assertThat(authorDAO.getVersion(author.getId()).orElseThrow().version()).isGreaterThan(authorVersion);
+        assertThat(authorDAO.getById(author.getId()).orElseThrow().getBooks()).isEmpty();
+    }
+
+    @Test
+    void shouldPatchBooksInBulkWithPerBookVersionCheck() throws SQLException {
+        Publisher publisher = new Publisher();
+        publisher.setName("Test Publisher");
+        publisherDAO.create(publisher);
+        Publisher other = new Publisher();
+        other.setName("Other Publisher");
+        publisherDAO.create(other);
+
+        Book moved = new Book();
+        moved.setTitle("Белая гвардия");
+        moved.setGenre("Novel");
+        moved.setPublisher(publisher);
+        bookDAO.create(moved);
+        Book stale = new Book();
+        stale.setTitle("Бег");
+        stale.setPublisher(publisher);
+        bookDAO.create(stale);
+        long staleVersion = bookDAO.getVersion(stale.getId()).orElseThrow().version();
+        long otherVersion = publisherDAO.getVersion(other.getId()).orElseThrow().version();
+
+        BookDAO.PatchResult result = bookDAO.patchAll(List.of(
+                new BookPatch(moved.getId(), null, null, LocalDate.of(1925, 1, 1), null, other.getId()),
+                new BookPatch(stale.getId(), staleVersion + 1, "Бег (пьеса)", null, null, null),
+                new BookPatch(Integer.MAX_VALUE, null, "Нет такой", null, null, null)));
+
+        assertThat(result.updated()).containsExactly(moved.getId());
+        assertThat(result.conflicts()).containsExactly(stale.getId());
+        Book patched = bookDAO.getById(moved.getId()).orElseThrow();
+        assertThat(patched.getTitle()).isEqualTo("Белая гвардия");
+        assertThat(patched.getGenre()).isEqualTo("Novel");
+        assertThat(patched.getPublishedDate()).isEqualTo(LocalDate.of(1925, 1, 1));
+        assertThat(patched.getPublisher().getId()).isEqualTo(other.getId());
+        assertThat(bookDAO.getById(stale.getId()).orElseThrow().getTitle()).isEqualTo("Бег");
+        assertThat(publisherDAO.getVersion(other.getId()).orElseThrow().version()).isGreaterThan(otherVersion);
+    }
+
     @Test
     void shouldHandleAuthorRelations() throws SQLException {
         Publisher publisher = new Publisher();
@@ -189,4 +264,114 @@ class BookDAOTest {
                 .extracting(Publisher::getName)
                 .isEqualTo("Эксмо");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldLoadOnlyRequestedFields() throws SQLException {
+        Publisher publisher = new Publisher();
+        publisher.setName("Эксмо");
+        publisherDAO.create(publisher);
+
+        Author author = new Author();
+        author.setName("Джордж");
+        author.setSurname("Оруэлл");
+        authorDAO.create(author);
+
+        Book book = new Book();
+        book.setTitle("1984");
+        book.setGenre("Антиутопия");
+        book.setPublisher(publisher);
+        book.setAuthors(new HashSet<>(Collections.singleton(author)));
+        bookDAO.create(book);
+
+        Book titleOnly = bookDAO.getById(book.getId(), Set.of("id", "title")).orElseThrow();
+        assertThat(titleOnly.getTitle()).isEqualTo("1984");
+        assertThat(titleOnly.getGenre()).isNull();
+        assertThat(titleOnly.getPublisher()).isNull();
+        assertThat(titleOnly.getAuthors()).isEmpty();
+
+        Book withAuthors = bookDAO.getAll(Set.of("authorIds")).get(0);
+        assertThat(withAuthors.getAuthors())
+                .extracting(Author::getId)
+                .containsExactly(author.getId());
+    }
+
+    @Test
+    void shouldPageBooksByPublisherAndAuthorWithKeyset() throws SQLException {
+        Publisher publisher = new Publisher();
+        publisher.setName("Эксмо");
+        publisherDAO.create(publisher);
+
+        Author author = new Author();
+        author.setName("Лев");
+        author.setSurname("Толстой");
+        authorDAO.create(author);
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book();
+            book.setTitle("Том " + i);
+            book.setPublisher(publisher);
+            book.setAuthors(new HashSet<>(Collections.singleton(author)));
+            bookDAO.create(book);
+            ids.add(book.getId());
+        }
+
+        List<Book> first = bookDAO.getPageByPublisher(publisher.getId(), 0, 2);
+        assertThat(first).extracting(Book::getId).containsExactly(ids.get(0), ids.get(1));
+        assertThat(first.get(0).getAuthors()).extracting(Author::getId).containsExactly(author.getId());
+
+        List<Book> rest = bookDAO.getPageByAuthor(author.getId(), ids.get(1), 2);
+        assertThat(rest).extracting(Book::getId).containsExactly(ids.get(2));
+    }
+
+    @Test
+    void shouldRejectUpdateOverStaleVersion() throws SQLException {
+        Publisher publisher = new Publisher();
+        publisher.setName("Test Publisher");
+        publisherDAO.create(publisher);
+
+        Book book = new Book();
+        book.setTitle("Старик и море");
+        book.setPublisher(publisher);
+        bookDAO.create(book);
+        long version = bookDAO.getVersion(book.getId()).orElseThrow().version();
+
+        book.setTitle("Первая запись");
+        bookDAO.update(book, version);
+
+        book.setTitle("Вторая запись");
+        assertThatThrownBy(() -> bookDAO.update(book, version))
+                .isInstanceOf(VersionConflictException.class);
+        assertThat(bookDAO.getById(book.getId()).orElseThrow().getTitle()).isEqualTo("Первая запись");
+        assertThat(bookDAO.getVersion(book.getId()).orElseThrow().version()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void shouldUpsertByExternalKeyWithoutDuplicates() throws SQLException {
+        Publisher publisher = new Publisher();
+        publisher.setName("Test Publisher");
+        publisherDAO.create(publisher);
+
+        Book book = new Book();
+        book.setTitle("Старик и море");
+        book.setPublisher(publisher);
+        assertThat(bookDAO.upsert("ingest-42", book)).isTrue();
+        int id = book.getId();
+
+        Book retry = new Book();
+        retry.setTitle("Старик и море (повтор)");
+        retry.setPublisher(publisher);
+        assertThat(bookDAO.upsert("ingest-42", retry)).isFalse();
+
+        assertThat(retry.getId()).isEqualTo(id);
+        assertThat(bookDAO.getAll()).singleElement()
+                .extracting(Book::getTitle).isEqualTo("Старик и море (повтор)");
+    }
+
+    @Test
+    void shouldRejectUnknownField() {
+        assertThatThrownBy(() -> bookDAO.getAll(Set.of("title", "isbn")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("isbn");
+    }
+}
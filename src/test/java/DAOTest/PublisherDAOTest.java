@@ -5,7 +5,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
@@ -97,7 +99,7 @@ class PublisherDAOTest {
         publisherDAO.create(publisher);
 
         publisher.setName("Росмэн (обновлённое)");
-        publisherDAO.update(publisher);
+        publisherDAO.update(publisher, List.of(), publisherDAO.getVersion(publisher.getId()).orElseThrow().version());
 
         Optional<Publisher> updated = publisherDAO.getById(publisher.getId());
         assertThat(updated).isPresent();
@@ -156,4 +158,39 @@ class PublisherDAOTest {
                 .isNull();
     }
 
+    @Test
+    void shouldBumpBookVersionOnPublisherDelete() throws SQLException {
+        Publisher publisher = new Publisher();
+        publisher.setName("Эксмо");
+        publisherDAO.create(publisher);
+
+        Book book = new Book();
+        book.setTitle("Мастер и Маргарита");
+        book.setPublisher(publisher);
+        bookDAO.create(book);
+        long before = bookDAO.getVersion(book.getId()).orElseThrow().version();
+
+        publisherDAO.delete(publisher.getId());
+
+        // Книга изменилась (издатель обнулён) — старый ETag не должен совпасть
+        assertThat(bookDAO.getVersion(book.getId()).orElseThrow().version()).isGreaterThan(before);
+    }
+
+    @Test
+    void shouldDeletePublishersInBulk() throws SQLException {
+        Publisher first = new Publisher();
+        first.setName("Питер");
+        publisherDAO.create(first);
+        Publisher second = new Publisher();
+        second.setName("Альпина");
+        publisherDAO.create(second);
+
+        Set<Integer> deleted = publisherDAO.deleteAll(List.of(first.getId(), second.getId(), Integer.MAX_VALUE));
+
+        assertThat(deleted).containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(publisherDAO.getById(first.getId())).isEmpty();
+        assertThat(publisherDAO.getById(second.getId())).isEmpty();
+        assertThat(publisherDAO.deleteAll(List.of())).isEmpty();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package DAOTest;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import com.library.config.RequestDeadline;
+import com.library.repository.QueryTimeouts;
+import com.library.repository.QueryTimeouts.Operation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+
+@ExtendWith(MockitoExtension.class)
+class QueryTimeoutsTest {
+
+    @Mock
+    private PreparedStatement stmt;
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void apply_OutsideRequest_UsesOperationTimeout() throws Exception {
+        QueryTimeouts.apply(stmt, Operation.BULK);
+
+        verify(stmt).setQueryTimeout(Operation.BULK.seconds());
+    }
+
+    @Test
+    void apply_ShortRequestDeadline_CapsTimeout() throws Exception {
+        RequestDeadline.start(1500);
+
+        QueryTimeouts.apply(stmt, Operation.BULK);
+
+        verify(stmt).setQueryTimeout(intThat(seconds -> seconds >= 1 && seconds <= 2));
+    }
+
+    @Test
+    void apply_ExpiredDeadline_FailsWithoutExecuting() {
+        RequestDeadline.start(-1);
+
+        assertThatThrownBy(() -> QueryTimeouts.apply(stmt, Operation.READ))
+                .isInstanceOf(SQLTimeoutException.class);
+        verifyNoInteractions(stmt);
+    }
+}
@@ -7,6 +7,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 import com.library.dto.AuthorDTO;
+import com.library.dto.AuthorView;
+import com.library.mapper.AuthorMapper;
 import com.library.model.Author;
 import com.library.model.Book;
 
@@ -30,7 +32,7 @@ public class AuthorDTOTest {
     }
 
     @Test
-    public void testParameterizedConstructor() {
+    public void testViewFromMapper() {
         // Подготавливаем модель Author с набором книг
         Author author = new Author();
         author.setId(2);
@@ -47,13 +49,13 @@ public class AuthorDTOTest {
         books.add(book2);
         author.setBooks(books);
 
-        // Создаем DTO через конструктор, принимающий Author
-        AuthorDTO authorDTO = new AuthorDTO(author);
-        assertEquals(2, authorDTO.getId());
-        assertEquals("Dostoevsky", authorDTO.getName());
-        assertEquals("Fyodor", authorDTO.getSurname());
-        assertEquals("Russia", authorDTO.getCountry());
+        // Представление для чтения собирает MapStruct
+        AuthorView authorView = AuthorMapper.INSTANCE.toView(author);
+        assertEquals(2, authorView.id());
+        assertEquals("Dostoevsky", authorView.name());
+        assertEquals("Fyodor", authorView.surname());
+        assertEquals("Russia", authorView.country());
         Set<Integer> expectedBookIds = new HashSet<>(Arrays.asList(100, 200));
-        assertEquals(expectedBookIds, authorDTO.getBookIds());
+        assertEquals(expectedBookIds, authorView.bookIds());
     }
 }
@@ -2,10 +2,13 @@ package DTOTest;
 
 import static org.junit.Assert.*;
 import org.junit.Test;
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
 import com.library.dto.BookDTO;
+import com.library.dto.BookView;
+import com.library.mapper.BookMapper;
 import com.library.model.Book;
 import com.library.model.Author;
 import com.library.model.Publisher;
@@ -17,7 +20,7 @@ public class BookDTOTest {
         BookDTO bookDTO = new BookDTO();
         bookDTO.setId(10);
         bookDTO.setTitle("Book Title");
-        bookDTO.setPublishedDate("2023-01-01");
+        bookDTO.setPublishedDate(LocalDate.of(2023, 1, 1));
         bookDTO.setGenre("Fiction");
         bookDTO.setPublisherId(5);
         Set<Integer> authorIds = new HashSet<>();
@@ -27,19 +30,19 @@ public class BookDTOTest {
 
         assertEquals(10, bookDTO.getId());
         assertEquals("Book Title", bookDTO.getTitle());
-        assertEquals("2023-01-01", bookDTO.getPublishedDate());
+        assertEquals(LocalDate.of(2023, 1, 1), bookDTO.getPublishedDate());
         assertEquals("Fiction", bookDTO.getGenre());
         assertEquals((Integer) 5, bookDTO.getPublisherId());
         assertEquals(authorIds, bookDTO.getAuthorIds());
     }
 
     @Test
-    public void testParameterizedConstructor() {
+    public void testViewFromMapper() {
         // Создаем модель Book
         Book book = new Book();
         book.setId(20);
         book.setTitle("Parameterized Book");
-        book.setPublishedDate("2024-05-05");
+        book.setPublishedDate(LocalDate.of(2024, 5, 5));
         book.setGenre("Mystery");
 
         // Задаем издателя
@@ -57,17 +60,17 @@ public class BookDTOTest {
         authors.add(author2);
         book.setAuthors(authors);
 
-        // Создаем DTO через конструктор, принимающий Book
-        BookDTO bookDTO = new BookDTO(book);
-        assertEquals(20, bookDTO.getId());
-        assertEquals("Parameterized Book", bookDTO.getTitle());
-        assertEquals("2024-05-05", bookDTO.getPublishedDate());
-        assertEquals("Mystery", bookDTO.getGenre());
-        assertEquals((Integer) 3, bookDTO.getPublisherId());
+        // Представление для чтения собирает MapStruct
+        BookView bookView = BookMapper.INSTANCE.toView(book);
+        assertEquals(20, bookView.id());
+        assertEquals("Parameterized Book", bookView.title());
+        assertEquals(LocalDate.of(2024, 5, 5), bookView.publishedDate());
+        assertEquals("Mystery", bookView.genre());
+        assertEquals((Integer) 3, bookView.publisherId());
 
         Set<Integer> expectedAuthorIds = new HashSet<>();
         expectedAuthorIds.add(100);
         expectedAuthorIds.add(101);
-        assertEquals(expectedAuthorIds, bookDTO.getAuthorIds());
+        assertEquals(expectedAuthorIds, bookView.authorIds());
     }
 }
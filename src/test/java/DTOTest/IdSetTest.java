@@ -0,0 +1,60 @@
+package DTOTest;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.library.dto.IdSet;
+import com.library.model.Author;
+
+public class IdSetTest {
+
+    @Test
+    public void testOfSortsAndRemovesDuplicates() {
+        IdSet ids = IdSet.of(3, 1, 3, 2);
+
+        assertEquals(3, ids.size());
+        assertArrayEquals(new int[]{1, 2, 3}, ids.toIntArray());
+        assertTrue(ids.contains(2));
+        assertFalse(ids.contains(4));
+        assertEquals("[1, 2, 3]", ids.toString());
+    }
+
+    @Test
+    public void testEqualsAndHashCodeFollowSetContract() {
+        IdSet ids = IdSet.of(10, 20);
+
+        assertEquals(Set.of(10, 20), ids);
+        assertEquals(ids, Set.of(10, 20));
+        assertEquals(Set.of(10, 20).hashCode(), ids.hashCode());
+        assertNotEquals(IdSet.of(10), ids);
+    }
+
+    @Test
+    public void testCollectFromEntities() {
+        Author first = new Author();
+        first.setId(7);
+        Author second = new Author();
+        second.setId(5);
+
+        IdSet ids = IdSet.collect(List.of(first, second), Author::getId);
+
+        assertArrayEquals(new int[]{5, 7}, ids.toIntArray());
+        assertTrue(IdSet.collect(null, Author::getId).isEmpty());
+    }
+
+    @Test
+    public void testCopyOfKeepsIdSetAndNull() {
+        IdSet ids = IdSet.of(1);
+
+        assertSame(ids, IdSet.copyOf(ids));
+        assertNull(IdSet.copyOf(null));
+
+        List<Integer> visited = new ArrayList<>();
+        IdSet.copyOf(List.of(2, 1)).forEachId(visited::add);
+        assertEquals(List.of(1, 2), visited);
+    }
+}
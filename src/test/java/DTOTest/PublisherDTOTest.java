@@ -5,7 +5,10 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.List;
 
+import com.library.dto.IdSet;
 import com.library.dto.PublisherDTO;
+import com.library.dto.PublisherView;
+import com.library.mapper.PublisherMapper;
 import com.library.model.Publisher;
 import com.library.model.Book;
 
@@ -21,11 +24,11 @@ public class PublisherDTOTest {
 
         assertEquals(15, publisherDTO.getId());
         assertEquals("Test Publisher", publisherDTO.getName());
-        assertEquals(bookIds, publisherDTO.getBookIds());
+        assertEquals(IdSet.of(1, 2, 3), publisherDTO.getBookIds());
     }
 
     @Test
-    public void testParameterizedConstructor() {
+    public void testViewFromMapper() {
         // Создаем модель Publisher с книгами
         Publisher publisher = new Publisher();
         publisher.setId(25);
@@ -38,11 +41,10 @@ public class PublisherDTOTest {
         // Допустим, что Publisher хранит книги в виде списка
         publisher.setBooks(Arrays.asList(book1, book2));
 
-        // Создаем DTO через конструктор, принимающий Publisher
-        PublisherDTO publisherDTO = new PublisherDTO(publisher);
-        assertEquals(25, publisherDTO.getId());
-        assertEquals("Parameterized Publisher", publisherDTO.getName());
-        List<Integer> expectedBookIds = Arrays.asList(50, 51);
-        assertEquals(expectedBookIds, publisherDTO.getBookIds());
+        // Представление для чтения собирает MapStruct
+        PublisherView publisherView = PublisherMapper.INSTANCE.toView(publisher);
+        assertEquals(25, publisherView.id());
+        assertEquals("Parameterized Publisher", publisherView.name());
+        assertEquals(IdSet.of(50, 51), publisherView.bookIds());
     }
 }
@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
 import com.library.config.DataSourceProvider;
+import com.library.config.Workload;
 
 @ExtendWith(MockitoExtension.class)
 class DataSourceProviderUnitTest {
@@ -112,6 +113,71 @@ class DataSourceProviderUnitTest {
         setStaticField(DataSourceProvider.class, "classLoader", originalLoader);
     }
 
+    @Test
+    void shouldApplyServerSideStatementTimeout() throws Exception {
+        System.clearProperty("testing");
+        String testConfig = """
+                db.url=jdbc:postgresql://test:5432/db
+                db.user=user
+                db.password=pass
+                db.driver=org.postgresql.Driver
+                db.statementTimeoutMs=15000
+                db.initializationFailTimeout=0
+                """;
+        ClassLoader originalLoader = DataSourceProvider.class.getClassLoader();
+        ClassLoader mockLoader = new ClassLoader(originalLoader) {
+            @Override
+            public InputStream getResourceAsStream(String name) {
+                if (name.equals(DataSourceProvider.getPropertiesFileName())) {
+                    return new ByteArrayInputStream(testConfig.getBytes());
+                }
+                return super.getResourceAsStream(name);
+            }
+        };
+        setStaticField(DataSourceProvider.class, "classLoader", mockLoader);
+
+        HikariDataSource ds = (HikariDataSource) DataSourceProvider.getDataSource();
+        assertThat(ds.getConnectionInitSql()).isEqualTo("SET statement_timeout = 15000");
+
+        setStaticField(DataSourceProvider.class, "classLoader", originalLoader);
+    }
+
+    @Test
+    void shouldCreateSeparatePoolsForConfiguredWorkloads() throws Exception {
+        System.clearProperty("testing");
+        String testConfig = """
+                db.url=jdbc:postgresql://test:5432/db
+                db.user=user
+                db.password=pass
+                db.driver=org.postgresql.Driver
+                db.pool.size=8
+                db.pool.list.size=3
+                db.initializationFailTimeout=0
+                """;
+        ClassLoader originalLoader = DataSourceProvider.class.getClassLoader();
+        ClassLoader mockLoader = new ClassLoader(originalLoader) {
+            @Override
+            public InputStream getResourceAsStream(String name) {
+                if (name.equals(DataSourceProvider.getPropertiesFileName())) {
+                    return new ByteArrayInputStream(testConfig.getBytes());
+                }
+                return super.getResourceAsStream(name);
+            }
+        };
+        setStaticField(DataSourceProvider.class, "classLoader", mockLoader);
+
+        HikariDataSource primary = (HikariDataSource) DataSourceProvider.getDataSource(Workload.POINT_READ);
+        HikariDataSource list = (HikariDataSource) DataSourceProvider.getDataSource(Workload.LIST);
+
+        assertThat(list).isNotSameAs(primary);
+        assertThat(list.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(list.getPoolName()).isEqualTo("LibraryHikariPool-list");
+        assertThat(DataSourceProvider.getDataSource(Workload.LIST)).isSameAs(list);
+        assertThat(DataSourceProvider.getDataSource(Workload.WRITE)).isSameAs(primary);
+
+        setStaticField(DataSourceProvider.class, "classLoader", originalLoader);
+    }
+
     private static void setStaticField(Class<?> clazz, String fieldName, Object value) throws Exception {
         Field field = clazz.getDeclaredField(fieldName);
         field.setAccessible(true);
@@ -2,6 +2,7 @@ package MapperTest;
 
 import static org.junit.Assert.*;
 
+import com.library.dto.IdSet;
 import com.library.dto.PublisherDTO;
 import com.library.mapper.PublisherMapper;
 import com.library.model.Book;
@@ -75,7 +76,7 @@ public class PublisherMapperTest {
 
     @Test
     public void mapBooksToBookIds_WithNullInput_ShouldReturnEmptyList() {
-        List<Integer> result = PublisherMapper.mapBooksToBookIds(null);
+        IdSet result = PublisherMapper.mapBooksToBookIds(null);
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
@@ -0,0 +1,51 @@
+package MetricsTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.library.metrics.QueryMetrics;
+import com.library.metrics.QueryStats;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+class QueryStatsTest {
+
+    @Test
+    void time_RecordsLatencyAndReturnsResult() throws Exception {
+        QueryStats stats = QueryMetrics.forQuery("test.select");
+
+        int result = stats.time(() -> 3);
+        stats.recordRows(result);
+
+        QueryStats.Snapshot snapshot = stats.snapshot();
+        assertThat(result).isEqualTo(3);
+        assertThat(snapshot.latency().count()).isEqualTo(1);
+        assertThat(snapshot.rows()).isEqualTo(3);
+        assertThat(snapshot.errors()).isZero();
+    }
+
+    @Test
+    void time_Failure_CountsError() {
+        QueryStats stats = QueryMetrics.forQuery("test.failing");
+
+        assertThatThrownBy(() -> stats.time(() -> {
+            throw new SQLException("boom");
+        })).isInstanceOf(SQLException.class).hasMessage("boom");
+
+        QueryStats.Snapshot snapshot = stats.snapshot();
+        assertThat(snapshot.errors()).isEqualTo(1);
+        assertThat(snapshot.latency().count()).isEqualTo(1);
+    }
+
+    @Test
+    void snapshots_IncludeNamedQuery() {
+        QueryMetrics.forQuery("test.listed").recordRows(2);
+
+        assertThat(QueryMetrics.querySnapshots())
+                .filteredOn(s -> s.name().equals("test.listed"))
+                .singleElement()
+                .extracting(QueryStats.Snapshot::rows)
+                .isEqualTo(2L);
+    }
+}
@@ -62,15 +62,33 @@ public class AuthorTest {
         author2.setSurname("Tolstoy");
         author2.setCountry("Russia");
 
-        // Объекты с одинаковыми полями должны быть равны
+        // Сущности с одинаковым id равны
         assertEquals(author1, author2);
         assertEquals(author1.hashCode(), author2.hashCode());
 
-        // Изменив одно из полей, равенство должно нарушиться
+        // Равенство определяется только id
         author2.setName("Different");
+        assertEquals(author1, author2);
+        author2.setId(2);
         assertNotEquals(author1, author2);
     }
 
+    @Test
+    public void testTransientAuthorsEqualOnlyToThemselves() {
+        Author author1 = new Author();
+        author1.setName("Leo");
+        Author author2 = new Author();
+        author2.setName("Leo");
+
+        assertEquals(author1, author1);
+        assertNotEquals(author1, author2);
+
+        Set<Author> authors = new HashSet<>();
+        authors.add(author1);
+        authors.add(author2);
+        assertEquals(2, authors.size());
+    }
+
     @Test
     public void testToString() {
         Author author = new Author(1, "Leo", "Tolstoy", "Russia", new HashSet<>());
@@ -79,4 +97,15 @@ public class AuthorTest {
         assertTrue(str.contains("Tolstoy"));
         assertTrue(str.contains("Russia"));
     }
+
+    @Test
+    public void testToStringWithBidirectionalLink() {
+        Author author = new Author(1, "Leo", "Tolstoy", "Russia", new HashSet<>());
+        Book book = new Book();
+        book.setId(10);
+        author.addBook(book);
+
+        assertTrue(author.toString().contains("bookIds=[10]"));
+        assertTrue(book.toString().contains("authorIds=[1]"));
+    }
 }
@@ -2,6 +2,7 @@ package ModelTest;
 
 import static org.junit.Assert.*;
 import org.junit.Test;
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -16,7 +17,7 @@ public class BookTest {
         Book book = new Book();
         book.setId(10);
         book.setTitle("War and Peace");
-        book.setPublishedDate("1869");
+        book.setPublishedDate(LocalDate.of(1869, 1, 1));
         book.setGenre("Novel");
 
         Publisher publisher = new Publisher();
@@ -28,7 +29,7 @@ public class BookTest {
 
         assertEquals(10, book.getId());
         assertEquals("War and Peace", book.getTitle());
-        assertEquals("1869", book.getPublishedDate());
+        assertEquals(LocalDate.of(1869, 1, 1), book.getPublishedDate());
         assertEquals("Novel", book.getGenre());
         assertEquals(publisher, book.getPublisher());
         assertEquals(authors, book.getAuthors());
@@ -61,28 +62,49 @@ public class BookTest {
         Book book1 = new Book();
         book1.setId(10);
         book1.setTitle("War and Peace");
-        book1.setPublishedDate("1869");
+        book1.setPublishedDate(LocalDate.of(1869, 1, 1));
         book1.setGenre("Novel");
 
         Book book2 = new Book();
         book2.setId(10);
         book2.setTitle("War and Peace");
-        book2.setPublishedDate("1869");
+        book2.setPublishedDate(LocalDate.of(1869, 1, 1));
         book2.setGenre("Novel");
 
         assertEquals(book1, book2);
         assertEquals(book1.hashCode(), book2.hashCode());
 
+        // Равенство определяется только id
         book2.setTitle("Anna Karenina");
+        assertEquals(book1, book2);
+        book2.setId(11);
         assertNotEquals(book1, book2);
+        assertNotEquals(book1.hashCode(), book2.hashCode());
+    }
+
+    @Test
+    public void testTransientBookEqualsOnlyItself() {
+        Book book1 = new Book();
+        book1.setTitle("War and Peace");
+        Book book2 = new Book();
+        book2.setTitle("War and Peace");
+
+        assertEquals(book1, book1);
+        assertNotEquals(book1, book2);
+
+        // После присвоения id хэш пересчитывается
+        book1.setId(10);
+        book2.setId(10);
+        assertEquals(book1, book2);
+        assertEquals(book1.hashCode(), book2.hashCode());
     }
 
     @Test
     public void testToString() {
-        Book book = new Book(10, "War and Peace", "1869", "Novel", null, new HashSet<>());
+        Book book = new Book(10, "War and Peace", LocalDate.of(1869, 1, 1), "Novel", null, new HashSet<>());
         String str = book.toString();
         assertTrue(str.contains("War and Peace"));
-        assertTrue(str.contains("1869"));
+        assertTrue(str.contains("1869-01-01"));
         assertTrue(str.contains("Novel"));
     }
 }
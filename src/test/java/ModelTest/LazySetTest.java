@@ -0,0 +1,52 @@
+package ModelTest;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.library.model.LazyList;
+import com.library.model.LazySet;
+
+public class LazySetTest {
+
+    @Test
+    public void testLoadsOnceOnFirstAccess() {
+        AtomicInteger loads = new AtomicInteger();
+        LazySet<Integer> set = new LazySet<>(() -> {
+            loads.incrementAndGet();
+            return List.of(1, 2);
+        });
+
+        assertFalse(set.isLoaded());
+        assertEquals("[not loaded]", set.toString());
+        assertEquals(0, loads.get());
+
+        assertTrue(set.contains(1));
+        assertEquals(2, set.size());
+        assertTrue(set.isLoaded());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testMutationsApplyToLoadedValues() {
+        LazySet<Integer> set = new LazySet<>(() -> List.of(1));
+
+        assertTrue(set.add(2));
+        assertTrue(set.remove(1));
+        assertEquals(1, set.size());
+        assertTrue(set.contains(2));
+    }
+
+    @Test
+    public void testLazyListKeepsOrder() {
+        LazyList<String> list = new LazyList<>(() -> List.of("a", "b"));
+
+        assertFalse(list.isLoaded());
+        list.add("c");
+        assertEquals(List.of("a", "b", "c"), list);
+        assertEquals("b", list.remove(1));
+        assertEquals(2, list.size());
+    }
+}
@@ -59,7 +59,10 @@ public class PublisherTest {
         assertEquals(publisher1, publisher2);
         assertEquals(publisher1.hashCode(), publisher2.hashCode());
 
+        // Равенство определяется только id
         publisher2.setName("Random House");
+        assertEquals(publisher1, publisher2);
+        publisher2.setId(6);
         assertNotEquals(publisher1, publisher2);
     }
 
@@ -1,6 +1,9 @@
 package ServiceTest;
 
 import com.library.dto.AuthorDTO;
+import com.library.dto.AuthorView;
+import com.library.dto.BulkResultDTO;
+import com.library.dto.IdSet;
 import com.library.exception.AuthorServiceException;
 import com.library.mapper.AuthorMapper;
 import com.library.model.Author;
@@ -21,6 +24,7 @@ import java.util.stream.Collectors;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -35,6 +39,7 @@ public class AuthorServiceTest {
 
     private Author testAuthor;
     private AuthorDTO testAuthorDTO;
+    private AuthorView testAuthorView;
 
     @Before
     public void setUp() {
@@ -47,17 +52,19 @@ public class AuthorServiceTest {
         testAuthorDTO.setSurname("Толстой");
         testAuthorDTO.setCountry("Россия");
 
-        when(authorMapper.toDTO(any(Author.class))).thenReturn(testAuthorDTO);
+        testAuthorView = new AuthorView(1, "Лев", "Толстой", "Россия", null);
+
+        when(authorMapper.toView(any(Author.class))).thenReturn(testAuthorView);
     }
 
     @Test
     public void getAllAuthors_Success() throws SQLException {
         when(authorDAO.getAll()).thenReturn(Collections.singletonList(testAuthor));
 
-        List<AuthorDTO> result = authorService.getAllAuthors();
+        List<AuthorView> result = authorService.getAllAuthors();
 
         assertEquals(1, result.size());
-        assertEquals("Лев", result.get(0).getName());
+        assertEquals("Лев", result.get(0).name());
     }
 
     @Test(expected = AuthorServiceException.class)
@@ -70,10 +77,10 @@ public class AuthorServiceTest {
     public void getAuthorById_Success() throws SQLException {
         when(authorDAO.getById(1)).thenReturn(Optional.of(testAuthor));
 
-        AuthorDTO result = authorService.getAuthorById(1);
+        AuthorView result = authorService.getAuthorById(1);
 
-        assertEquals(1, result.getId());
-        assertEquals("Лев", result.getName());
+        assertEquals(1, result.id());
+        assertEquals("Лев", result.name());
     }
 
     @Test
@@ -108,9 +115,9 @@ public class AuthorServiceTest {
 
         lenient().when(authorMapper.toModel(updateDTO)).thenReturn(testAuthor);
 
-        authorService.updateAuthor(1, updateDTO);
+        authorService.updateAuthor(1, updateDTO, OptionalLong.of(1));
 
-        verify(authorDAO).update(testAuthor);
+        verify(authorDAO).update(testAuthor, 1);
         assertEquals("Лев", testAuthor.getName());
     }
 
@@ -127,7 +134,7 @@ public class AuthorServiceTest {
         Author existingAuthor = new Author(1, "Старое имя", "Старая фамилия", "Старая страна", new HashSet<>());
         when(authorDAO.getById(1)).thenReturn(Optional.of(existingAuthor));
 
-        authorService.updateAuthor(1, updateDTO);
+        authorService.updateAuthor(1, updateDTO, OptionalLong.of(1));
 
         assertEquals("Новое имя", existingAuthor.getName());
         assertEquals("Новая фамилия", existingAuthor.getSurname());
@@ -138,28 +145,29 @@ public class AuthorServiceTest {
                 .collect(Collectors.toSet());
         assertEquals(expectedBookIds, actualBookIds);
 
-        verify(authorDAO).update(existingAuthor);
-        verify(authorDAO).updateBooksOfAuthor(existingAuthor);
+        // Связи с книгами переписывает update в той же транзакции, что и проверка версии
+        verify(authorDAO).update(existingAuthor, 1);
+        verify(authorDAO, never()).updateBooksOfAuthor(existingAuthor);
     }
 
     @Test(expected = AuthorServiceException.class)
     public void updateAuthor_NotFound() throws SQLException {
-        when(authorDAO.getById(1)).thenReturn(Optional.empty());
-        authorService.updateAuthor(1, new AuthorDTO());
+        when(authorDAO.getVersion(1)).thenReturn(Optional.empty());
+        authorService.updateAuthor(1, new AuthorDTO(), OptionalLong.empty());
     }
 
     @Test(expected = AuthorServiceException.class)
     public void updateAuthor_SQLExceptionOnGet() throws SQLException {
         when(authorDAO.getById(1)).thenThrow(new SQLException("DB error"));
-        authorService.updateAuthor(1, testAuthorDTO);
+        authorService.updateAuthor(1, testAuthorDTO, OptionalLong.of(1));
     }
 
     @Test(expected = AuthorServiceException.class)
     public void updateAuthor_SQLExceptionOnUpdate() throws SQLException {
         when(authorDAO.getById(1)).thenReturn(Optional.of(testAuthor));
-        doThrow(new SQLException()).when(authorDAO).update(any(Author.class));
+        doThrow(new SQLException()).when(authorDAO).update(any(Author.class), anyLong());
 
-        authorService.updateAuthor(1, new AuthorDTO());
+        authorService.updateAuthor(1, new AuthorDTO(), OptionalLong.of(1));
     }
 
     @Test
@@ -174,6 +182,17 @@ public class AuthorServiceTest {
         authorService.deleteAuthor(1);
     }
 
+    @Test
+    public void deleteAuthors_ReportsOutcomePerId() throws SQLException {
+        when(authorDAO.deleteAll(IdSet.of(4, 5))).thenReturn(Set.of(5));
+
+        BulkResultDTO result = authorService.deleteAuthors(IdSet.of(4, 5));
+
+        assertEquals(List.of(
+                new BulkResultDTO.Outcome(4, BulkResultDTO.Status.NOT_FOUND),
+                new BulkResultDTO.Outcome(5, BulkResultDTO.Status.DELETED)), result.results());
+    }
+
     @Test(expected = AuthorServiceException.class)
     public void getAuthorById_NotFound() throws SQLException {
         when(authorDAO.getById(anyInt())).thenReturn(Optional.empty());
@@ -1,10 +1,17 @@
 package ServiceTest;
 
 import com.library.dto.BookDTO;
+import com.library.dto.BookPatchDTO;
+import com.library.dto.BookView;
+import com.library.dto.BulkResultDTO;
+import com.library.dto.IdSet;
 import com.library.exception.BookServiceException;
+import com.library.exception.VersionConflictException;
 import com.library.mapper.BookMapper;
 import com.library.model.Author;
 import com.library.model.Book;
+import com.library.model.BookPatch;
+import com.library.model.EntityVersion;
 import com.library.model.Publisher;
 import com.library.repository.AuthorDAO;
 import com.library.repository.BookDAO;
@@ -18,11 +25,14 @@ import org.mockito.MockedConstruction;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -36,7 +46,7 @@ public class BookServiceTest {
     private BookService bookService;
 
     private Book testBook;
-    private BookDTO testBookDTO;
+    private BookView testBookView;
 
     @Before
     public void setUp() {
@@ -45,24 +55,21 @@ public class BookServiceTest {
         testBook = new Book();
         testBook.setId(1);
         testBook.setTitle("Test Book");
-        testBook.setPublishedDate(new String());
+        testBook.setPublishedDate(LocalDate.of(2020, 1, 1));
 
-        testBookDTO = new BookDTO();
-        testBookDTO.setId(1);
-        testBookDTO.setTitle("Test Book");
-        testBookDTO.setPublishedDate(testBook.getPublishedDate());
+        testBookView = new BookView(1, "Test Book", testBook.getPublishedDate(), null, null, null);
 
-        when(bookMapper.toDTO(any(Book.class))).thenReturn(testBookDTO);
+        when(bookMapper.toView(any(Book.class))).thenReturn(testBookView);
     }
 
     @Test
     public void getAllBooks_Success() throws SQLException {
         when(bookDAO.getAll()).thenReturn(Collections.singletonList(testBook));
 
-        List<BookDTO> result = bookService.getAllBooks();
+        List<BookView> result = bookService.getAllBooks();
 
         assertEquals(1, result.size());
-        assertEquals("Test Book", result.get(0).getTitle());
+        assertEquals("Test Book", result.get(0).title());
     }
 
     @Test(expected = BookServiceException.class)
@@ -75,10 +82,10 @@ public class BookServiceTest {
     public void getBookById_Success() throws SQLException {
         when(bookDAO.getById(1)).thenReturn(Optional.of(testBook));
 
-        BookDTO result = bookService.getBookById(1);
+        BookView result = bookService.getBookById(1);
 
-        assertEquals(1, result.getId());
-        assertEquals("Test Book", result.getTitle());
+        assertEquals(1, result.id());
+        assertEquals("Test Book", result.title());
     }
 
     @Test(expected = BookServiceException.class)
@@ -152,13 +159,44 @@ public class BookServiceTest {
         updateDTO.setPublisherId(2); // Добавлено
         updateDTO.setAuthorIds(Set.of(3)); // Добавлено
 
-        bookService.updateBook(1, updateDTO);
+        bookService.updateBook(1, updateDTO, OptionalLong.of(3));
 
-        verify(bookDAO).update(existingBook);
+        verify(bookDAO).update(existingBook, 3);
         assertEquals("Updated Title", existingBook.getTitle());
         assertEquals(2, existingBook.getPublisher().getId()); // Проверка publisher
     }
 
+    @Test
+    public void updateBook_WithoutIfMatch_WritesOverCurrentVersion() throws SQLException {
+        Book existingBook = new Book();
+        existingBook.setId(1);
+        when(bookDAO.getVersion(1)).thenReturn(Optional.of(new EntityVersion(7, Instant.now())));
+        when(bookDAO.getById(1)).thenReturn(Optional.of(existingBook));
+
+        BookDTO updateDTO = new BookDTO();
+        updateDTO.setTitle("Updated Title");
+        updateDTO.setPublisherId(2);
+
+        bookService.updateBook(1, updateDTO, OptionalLong.empty());
+
+        verify(bookDAO).update(existingBook, 7);
+    }
+
+    @Test(expected = VersionConflictException.class)
+    public void updateBook_ModifiedConcurrently_ThrowsConflict() throws SQLException {
+        Book existingBook = new Book();
+        existingBook.setId(1);
+        when(bookDAO.getById(1)).thenReturn(Optional.of(existingBook));
+        doThrow(new VersionConflictException("Book 1 was modified since version 3"))
+                .when(bookDAO).update(existingBook, 3);
+
+        BookDTO updateDTO = new BookDTO();
+        updateDTO.setTitle("Updated Title");
+        updateDTO.setPublisherId(2);
+
+        bookService.updateBook(1, updateDTO, OptionalLong.of(3));
+    }
+
     @Test(expected = BookServiceException.class)
     public void updateBook_NotFound() throws SQLException {
         BookDTO updateDTO = new BookDTO();
@@ -166,9 +204,9 @@ public class BookServiceTest {
         updateDTO.setPublisherId(1); // Добавляем publisherId
         updateDTO.setAuthorIds(Set.of(1));
 
-        when(bookDAO.getById(1)).thenReturn(Optional.empty());
+        when(bookDAO.getVersion(1)).thenReturn(Optional.empty());
 
-        bookService.updateBook(1, updateDTO);
+        bookService.updateBook(1, updateDTO, OptionalLong.empty());
     }
 
     @Test(expected = BookServiceException.class)
@@ -179,13 +217,38 @@ public class BookServiceTest {
         existingBook.setPublisher(new Publisher()); // Добавлено
 
         when(bookDAO.getById(1)).thenReturn(Optional.of(existingBook));
-        doThrow(new SQLException()).when(bookDAO).update(any(Book.class));
+        doThrow(new SQLException()).when(bookDAO).update(any(Book.class), anyLong());
 
         BookDTO updateDTO = new BookDTO();
         updateDTO.setTitle("Updated Title");
         updateDTO.setPublisherId(2);
 
-        bookService.updateBook(1, updateDTO);
+        bookService.updateBook(1, updateDTO, OptionalLong.of(1));
+    }
+
+    @Test
+    public void upsertBook_DelegatesWithExternalKey() throws SQLException {
+        BookDTO inputDTO = new BookDTO();
+        inputDTO.setTitle("Идиот");
+        when(bookMapper.toModel(inputDTO)).thenReturn(testBook);
+        when(bookDAO.upsert("ingest-42", testBook)).thenReturn(true);
+
+        assertTrue(bookService.upsertBook("ingest-42", inputDTO));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void upsertBook_WithoutTitle_ThrowsException() {
+        bookService.upsertBook("ingest-42", new BookDTO());
+    }
+
+    @Test(expected = BookServiceException.class)
+    public void upsertBook_SQLException() throws SQLException {
+        BookDTO inputDTO = new BookDTO();
+        inputDTO.setTitle("Идиот");
+        when(bookMapper.toModel(inputDTO)).thenReturn(testBook);
+        when(bookDAO.upsert("ingest-42", testBook)).thenThrow(new SQLException("DB error"));
+
+        bookService.upsertBook("ingest-42", inputDTO);
     }
 
     @Test
@@ -200,6 +263,49 @@ public class BookServiceTest {
         bookService.deleteBook(1);
     }
 
+    @Test
+    public void deleteBooks_ReportsOutcomePerId() throws SQLException {
+        when(bookDAO.deleteAll(IdSet.of(1, 2))).thenReturn(Set.of(1));
+
+        BulkResultDTO result = bookService.deleteBooks(IdSet.of(1, 2));
+
+        assertEquals(List.of(
+                new BulkResultDTO.Outcome(1, BulkResultDTO.Status.DELETED),
+                new BulkResultDTO.Outcome(2, BulkResultDTO.Status.NOT_FOUND)), result.results());
+    }
+
+    @Test
+    public void patchBooks_ReportsOutcomeInRequestOrder() throws SQLException {
+        List<BookPatchDTO> items = List.of(
+                new BookPatchDTO(3, null, null, null, "Poetry", null),
+                new BookPatchDTO(1, 7L, "New title", null, null, null),
+                new BookPatchDTO(2, null, null, null, "Drama", null));
+        when(bookDAO.patchAll(List.of(
+                new BookPatch(3, null, null, null, "Poetry", null),
+                new BookPatch(1, 7L, "New title", null, null, null),
+                new BookPatch(2, null, null, null, "Drama", null))))
+                .thenReturn(new BookDAO.PatchResult(Set.of(3), Set.of(1)));
+
+        BulkResultDTO result = bookService.patchBooks(items);
+
+        assertEquals(List.of(
+                new BulkResultDTO.Outcome(3, BulkResultDTO.Status.UPDATED),
+                new BulkResultDTO.Outcome(1, BulkResultDTO.Status.CONFLICT),
+                new BulkResultDTO.Outcome(2, BulkResultDTO.Status.NOT_FOUND)), result.results());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void patchBooks_DuplicateId_Rejected() {
+        bookService.patchBooks(List.of(
+                new BookPatchDTO(1, null, "A", null, null, null),
+                new BookPatchDTO(1, null, "B", null, null, null)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void patchBooks_BlankTitle_Rejected() {
+        bookService.patchBooks(List.of(new BookPatchDTO(1, null, " ", null, null, null)));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void addBook_WithoutTitle_ThrowsException() {
         BookDTO invalidDTO = new BookDTO();
@@ -215,7 +321,7 @@ public class BookServiceTest {
         invalidDTO.setTitle("Title");
         invalidDTO.setAuthorIds(Collections.emptySet());
 
-        bookService.updateBook(1, invalidDTO);
+        bookService.updateBook(1, invalidDTO, OptionalLong.empty());
     }
 
     private Author createTestAuthor(int id) {
@@ -1,6 +1,9 @@
 package ServiceTest;
 
+import com.library.dto.BulkResultDTO;
+import com.library.dto.IdSet;
 import com.library.dto.PublisherDTO;
+import com.library.dto.PublisherView;
 import com.library.exception.PublisherServiceException;
 import com.library.mapper.PublisherMapper;
 import com.library.model.Publisher;
@@ -17,6 +20,8 @@ import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,7 +39,7 @@ public class PublisherServiceTest {
     private PublisherService publisherService;
 
     private Publisher testPublisher;
-    private PublisherDTO testPublisherDTO;
+    private PublisherView testPublisherView;
 
     @Before
     public void setUp() {
@@ -44,21 +49,19 @@ public class PublisherServiceTest {
         testPublisher.setId(1);
         testPublisher.setName("Test Publisher");
 
-        testPublisherDTO = new PublisherDTO();
-        testPublisherDTO.setId(1);
-        testPublisherDTO.setName("Test Publisher");
+        testPublisherView = new PublisherView(1, "Test Publisher", null);
 
-        when(publisherMapper.toDTO(any(Publisher.class))).thenReturn(testPublisherDTO);
+        when(publisherMapper.toView(any(Publisher.class))).thenReturn(testPublisherView);
     }
 
     @Test
     public void getAllPublishers_Success() throws SQLException {
         when(publisherDAO.getAll()).thenReturn(Collections.singletonList(testPublisher));
 
-        List<PublisherDTO> result = publisherService.getAllPublishers();
+        List<PublisherView> result = publisherService.getAllPublishers();
 
         assertEquals(1, result.size());
-        assertEquals("Test Publisher", result.get(0).getName());
+        assertEquals("Test Publisher", result.get(0).name());
     }
 
     @Test(expected = PublisherServiceException.class)
@@ -71,10 +74,10 @@ public class PublisherServiceTest {
     public void getPublisherById_Success() throws SQLException {
         when(publisherDAO.getById(1)).thenReturn(Optional.of(testPublisher));
 
-        PublisherDTO result = publisherService.getPublisherById(1);
+        PublisherView result = publisherService.getPublisherById(1);
 
-        assertEquals(1, result.getId());
-        assertEquals("Test Publisher", result.getName());
+        assertEquals(1, result.id());
+        assertEquals("Test Publisher", result.name());
     }
 
     @Test(expected = PublisherServiceException.class)
@@ -128,17 +131,17 @@ public class PublisherServiceTest {
         updateDTO.setName("Updated Publisher");
         updateDTO.setBookIds(List.of(1, 2));
 
-        publisherService.updatePublisher(1, updateDTO);
+        publisherService.updatePublisher(1, updateDTO, OptionalLong.of(4));
 
-        verify(publisherDAO).update(existingPublisher);
+        verify(publisherDAO).update(existingPublisher, Set.of(1, 2), 4);
+        verify(publisherDAO, never()).updatePublisherBooks(anyInt(), any());
         assertEquals("Updated Publisher", existingPublisher.getName());
-        assertEquals(2, existingPublisher.getBooks().size());
     }
 
     @Test(expected = PublisherServiceException.class)
     public void updatePublisher_NotFound() throws SQLException {
-        when(publisherDAO.getById(1)).thenReturn(Optional.empty());
-        publisherService.updatePublisher(1, new PublisherDTO());
+        when(publisherDAO.getVersion(1)).thenReturn(Optional.empty());
+        publisherService.updatePublisher(1, new PublisherDTO(), OptionalLong.empty());
     }
 
     @Test(expected = PublisherServiceException.class)
@@ -148,13 +151,26 @@ public class PublisherServiceTest {
         existingPublisher.setName("Old Publisher");
 
         when(publisherDAO.getById(1)).thenReturn(Optional.of(existingPublisher));
-        doThrow(new SQLException()).when(publisherDAO).update(existingPublisher);
+        doThrow(new SQLException()).when(publisherDAO).update(existingPublisher, Set.of(), 4);
 
         PublisherDTO updateDTO = new PublisherDTO();
         updateDTO.setName("Updated Publisher");
         updateDTO.setBookIds(Collections.emptyList());
 
-        publisherService.updatePublisher(1, updateDTO);
+        publisherService.updatePublisher(1, updateDTO, OptionalLong.of(4));
+    }
+
+    @Test
+    public void upsertPublisher_AssignsBooksInSameCall() throws SQLException {
+        PublisherDTO inputDTO = new PublisherDTO();
+        inputDTO.setName("Publisher");
+        inputDTO.setBookIds(List.of(3, 4));
+        Publisher publisher = new Publisher();
+        when(publisherMapper.toModel(inputDTO)).thenReturn(publisher);
+        when(publisherDAO.upsert("ingest-7", publisher, Set.of(3, 4))).thenReturn(true);
+
+        assertTrue(publisherService.upsertPublisher("ingest-7", inputDTO));
+        verify(publisherDAO, never()).updatePublisherBooks(anyInt(), any());
     }
 
     @Test
@@ -168,5 +184,23 @@ public class PublisherServiceTest {
         doThrow(new SQLException()).when(publisherDAO).delete(1);
         publisherService.deletePublisher(1);
     }
+
+    @Test
+    public void deletePublishers_ReportsOutcomePerId() throws SQLException {
+        when(publisherDAO.deleteAll(IdSet.of(1, 2, 3))).thenReturn(Set.of(1, 3));
+
+        BulkResultDTO result = publisherService.deletePublishers(IdSet.of(1, 2, 3));
+
+        assertEquals(List.of(
+                new BulkResultDTO.Outcome(1, BulkResultDTO.Status.DELETED),
+                new BulkResultDTO.Outcome(2, BulkResultDTO.Status.NOT_FOUND),
+                new BulkResultDTO.Outcome(3, BulkResultDTO.Status.DELETED)), result.results());
+    }
+
+    @Test(expected = PublisherServiceException.class)
+    public void deletePublishers_SQLException() throws SQLException {
+        when(publisherDAO.deleteAll(IdSet.of(1))).thenThrow(new SQLException());
+        publisherService.deletePublishers(IdSet.of(1));
+    }
 }
 
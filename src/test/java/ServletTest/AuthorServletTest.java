@@ -5,6 +5,11 @@ import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.dto.AuthorDTO;
+import com.library.dto.AuthorView;
+import com.library.dto.BulkResultDTO;
+import com.library.dto.IdSet;
+import com.library.exception.AuthorServiceException;
+import com.library.mapper.AuthorMapper;
 import com.library.model.Author;
 import com.library.service.AuthorService;
 import com.library.servlet.AuthorServlet;
@@ -21,8 +26,10 @@ import javax.sql.DataSource;
 import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.sql.SQLException;
 import java.util.HashSet;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.Set;
 
 @ExtendWith(MockitoExtension.class)
@@ -68,7 +75,7 @@ class AuthorServletTest {
     @Test
     void doGet_AllAuthors_ReturnsList() throws Exception {
         // Arrange
-        List<AuthorDTO> authors = List.of(new AuthorDTO(createTestAuthor(1)));
+        List<AuthorView> authors = List.of(AuthorMapper.INSTANCE.toView(createTestAuthor(1)));
         when(authorService.getAllAuthors()).thenReturn(authors);
 
         stringWriter = new StringWriter();
@@ -89,10 +96,7 @@ class AuthorServletTest {
     void doGet_OneAuthor_ValidId() throws Exception {
         // Arrange
         when(request.getPathInfo()).thenReturn("/1");
-        AuthorDTO authorDTO = new AuthorDTO();
-        authorDTO.setId(1);
-        authorDTO.setName("Фёдор");
-        when(authorService.getAuthorById(1)).thenReturn(authorDTO);
+        when(authorService.getAuthorById(1)).thenReturn(new AuthorView(1, "Фёдор", null, null, null));
 
         // Act
         invokeDoGet(request, response);
@@ -156,10 +160,7 @@ class AuthorServletTest {
     void doGet_WriterThrowsIOException_TriggersServerError() throws Exception {
         when(request.getPathInfo()).thenReturn("/1");
         when(response.getWriter()).thenThrow(new IOException("Test IO Exception"));
-        when(authorService.getAuthorById(1)).thenReturn(new AuthorDTO() {{
-            setId(1);
-            setName("Фёдор");
-        }});
+        when(authorService.getAuthorById(1)).thenReturn(new AuthorView(1, "Фёдор", null, null, null));
 
         invokeDoGet(request, response);
 
@@ -169,7 +170,7 @@ class AuthorServletTest {
     @Test
     void doPost_ValidAuthor_ReturnsCreated() throws Exception {
         // Arrange
-        AuthorDTO author = new AuthorDTO(new Author(0, "Антон", "Чехов", "Россия", Set.of()));
+        AuthorDTO author = AuthorMapper.INSTANCE.toDTO(new Author(0, "Антон", "Чехов", "Россия", Set.of()));
         String jsonBody = objectMapper.writeValueAsString(author);
         when(request.getReader()).thenReturn(new BufferedReader(new StringReader(jsonBody)));
 
@@ -199,7 +200,7 @@ class AuthorServletTest {
         invokeDoPut(request, response);
 
         // Assert
-        verify(authorService).updateAuthor(eq(1), any(AuthorDTO.class));
+        verify(authorService).updateAuthor(eq(1), any(AuthorDTO.class), eq(OptionalLong.empty()));
         verify(response).setStatus(HttpServletResponse.SC_OK);
     }
 
@@ -241,6 +242,45 @@ class AuthorServletTest {
         assertThat(stringWriter.toString()).contains("Invalid author ID format");
     }
 
+    @Test
+    void doPut_ByKeyMalformedBody_ReturnsBadRequest() throws Exception {
+        when(request.getPathInfo()).thenReturn("/by-key/viaf-1");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("not json")));
+
+        invokeDoPut(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        printWriter.flush();
+        assertThat(stringWriter.toString()).contains("Invalid request:");
+        verifyNoInteractions(authorService);
+    }
+
+    @Test
+    void doPut_ByKeyUnknownBook_ReturnsNotFound() throws Exception {
+        when(request.getPathInfo()).thenReturn("/by-key/viaf-1");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"name\":\"Лев\",\"bookIds\":[999]}")));
+        when(authorService.upsertAuthor(eq("viaf-1"), any(AuthorDTO.class))).thenThrow(new AuthorServiceException(
+                "Foreign key constraint error", new SQLException("violates foreign key", "23503")));
+
+        invokeDoPut(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+    }
+
+    @Test
+    void doPost_BulkDelete_ReturnsOutcomePerId() throws Exception {
+        when(request.getPathInfo()).thenReturn("/_bulk-delete");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"ids\":[7]}")));
+        when(authorService.deleteAuthors(IdSet.of(7))).thenReturn(new BulkResultDTO(List.of(
+                new BulkResultDTO.Outcome(7, BulkResultDTO.Status.DELETED))));
+
+        invokeDoPost(request, response);
+
+        printWriter.flush();
+        assertThat(stringWriter.toString()).isEqualTo("{\"results\":[{\"id\":7,\"status\":\"DELETED\"}]}");
+        verify(authorService, never()).addAuthor(any());
+    }
+
     @Test
     void doDelete_ValidId_NoContent() throws Exception {
         // Arrange
@@ -4,7 +4,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.library.dto.BookDTO;
+import com.library.dto.BookPatchDTO;
+import com.library.dto.BookView;
+import com.library.dto.BulkDeleteDTO;
+import com.library.dto.BulkResultDTO;
+import com.library.dto.IdSet;
+import com.library.exception.BookServiceException;
+import com.library.exception.VersionConflictException;
+import com.library.model.EntityVersion;
 import com.library.service.BookService;
 import com.library.servlet.BookServlet;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,14 +25,23 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.sql.DataSource;
 import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @ExtendWith(MockitoExtension.class)
 class BookServletTest {
@@ -41,7 +61,9 @@ class BookServletTest {
     @InjectMocks
     private BookServlet bookServlet;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     private StringWriter stringWriter;
     private PrintWriter printWriter;
 
@@ -65,10 +87,7 @@ class BookServletTest {
     void doGet_WriterThrowsIOException_TriggersServerError() throws Exception {
         when(request.getPathInfo()).thenReturn("/1");
         when(response.getWriter()).thenThrow(new IOException("Test IO Exception"));
-        when(bookService.getBookById(1)).thenReturn(new BookDTO() {{
-            setId(1);
-            setTitle("1984");
-        }});
+        when(bookService.getBookById(1)).thenReturn(new BookView(1, "1984", null, null, null, null));
 
         invokeDoGet(request, response);
 
@@ -80,11 +99,9 @@ class BookServletTest {
         // Arrange
         when(request.getPathInfo()).thenReturn(null);
 
-        BookDTO bookDTO = new BookDTO();
-        bookDTO.setId(1);
-        bookDTO.setTitle("1984");
+        BookView book = new BookView(1, "1984", null, null, null, null);
 
-        when(bookService.getAllBooks()).thenReturn(List.of(bookDTO));
+        when(bookService.getAllBooks()).thenReturn(List.of(book));
 
         // Act
         invokeDoGet(request, response);
@@ -117,10 +134,8 @@ class BookServletTest {
     void doGet_OneBook_ValidId() throws Exception {
         // Arrange
         when(request.getPathInfo()).thenReturn("/1");
-        BookDTO bookDTO = new BookDTO();
-        bookDTO.setId(1);
-        bookDTO.setTitle("1984");
-        when(bookService.getBookById(1)).thenReturn(bookDTO);
+        BookView book = new BookView(1, "1984", null, null, null, null);
+        when(bookService.getBookById(1)).thenReturn(book);
 
         // Act
         invokeDoGet(request, response);
@@ -150,7 +165,7 @@ class BookServletTest {
         // Arrange
         BookDTO book = new BookDTO();
         book.setTitle("1984");
-        book.setPublishedDate("2023-01-01");
+        book.setPublishedDate(LocalDate.of(2023, 1, 1));
         book.setGenre("Антиутопия");
         book.setPublisherId(1);
         book.setAuthorIds(Set.of(10, 20));
@@ -202,10 +217,121 @@ class BookServletTest {
         invokeDoPut(request, response);
 
         // Assert
-        verify(bookService).updateBook(eq(5), any(BookDTO.class));
+        verify(bookService).updateBook(eq(5), any(BookDTO.class), eq(OptionalLong.empty()));
         verify(response).setStatus(HttpServletResponse.SC_OK);
     }
 
+    @Test
+    void doPut_IfMatchCurrentVersion_WritesOverIt() throws Exception {
+        when(request.getPathInfo()).thenReturn("/5");
+        when(request.getHeader("If-Match")).thenReturn("W/\"3\"");
+        when(bookService.getBookVersion(5)).thenReturn(Optional.of(new EntityVersion(3, Instant.now())));
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(5);
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader(objectMapper.writeValueAsString(bookDTO))));
+
+        invokeDoPut(request, response);
+
+        verify(bookService).updateBook(eq(5), any(BookDTO.class), eq(OptionalLong.of(3)));
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void doPut_IfMatchStaleVersion_ReturnsPreconditionFailed() throws Exception {
+        when(request.getPathInfo()).thenReturn("/5");
+        when(request.getHeader("If-Match")).thenReturn("W/\"3\"");
+        when(bookService.getBookVersion(5)).thenReturn(Optional.of(new EntityVersion(4, Instant.now())));
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(5);
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader(objectMapper.writeValueAsString(bookDTO))));
+
+        invokeDoPut(request, response);
+
+        verify(bookService, never()).updateBook(anyInt(), any(BookDTO.class), any(OptionalLong.class));
+        verify(response).setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+    }
+
+    @Test
+    void doPut_ConcurrentWriteWithoutIfMatch_ReturnsConflict() throws Exception {
+        when(request.getPathInfo()).thenReturn("/5");
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(5);
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader(objectMapper.writeValueAsString(bookDTO))));
+        doThrow(new VersionConflictException("Book 5 was modified since version 3"))
+                .when(bookService).updateBook(eq(5), any(BookDTO.class), eq(OptionalLong.empty()));
+
+        invokeDoPut(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_CONFLICT);
+        printWriter.flush();
+        assertThat(stringWriter.toString()).contains("Version conflict");
+    }
+
+    @Test
+    void doPut_ByKeyNewBook_Created() throws Exception {
+        when(request.getPathInfo()).thenReturn("/by-key/ingest-42");
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setTitle("Идиот");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader(objectMapper.writeValueAsString(bookDTO))));
+        when(bookService.upsertBook(eq("ingest-42"), any(BookDTO.class))).thenReturn(true);
+
+        invokeDoPut(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_CREATED);
+    }
+
+    @Test
+    void doPut_ByKeyRetry_UpdatesSameBook() throws Exception {
+        when(request.getPathInfo()).thenReturn("/by-key/ingest-42");
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setTitle("Идиот");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader(objectMapper.writeValueAsString(bookDTO))));
+        when(bookService.upsertBook(eq("ingest-42"), any(BookDTO.class))).thenReturn(false);
+
+        invokeDoPut(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void doPut_ByKeyMalformedBody_ReturnsBadRequest() throws Exception {
+        when(request.getPathInfo()).thenReturn("/by-key/ingest-42");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"title\":")));
+
+        invokeDoPut(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        printWriter.flush();
+        assertThat(stringWriter.toString()).contains("Invalid request:");
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void doPut_ByKeyUnknownPublisher_ReturnsNotFound() throws Exception {
+        when(request.getPathInfo()).thenReturn("/by-key/ingest-42");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"title\":\"Идиот\",\"publisherId\":999}")));
+        when(bookService.upsertBook(eq("ingest-42"), any(BookDTO.class))).thenThrow(new BookServiceException(
+                "Foreign key constraint error", new SQLException("violates foreign key", "23503")));
+
+        invokeDoPut(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+    }
+
+    @Test
+    void doPut_ByKeyWithoutTitle_ReturnsBadRequest() throws Exception {
+        when(request.getPathInfo()).thenReturn("/by-key/ingest-42");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{}")));
+        when(bookService.upsertBook(eq("ingest-42"), any(BookDTO.class)))
+                .thenThrow(new IllegalArgumentException("Title is required"));
+
+        invokeDoPut(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        printWriter.flush();
+        assertThat(stringWriter.toString()).contains("Title is required");
+    }
+
     @Test
     void doPut_IdMismatch_ReturnsBadRequest() throws Exception {
         // Arrange
@@ -239,6 +365,80 @@ class BookServletTest {
         assertThat(stringWriter.toString()).contains("Invalid book ID format");
     }
 
+    @Test
+    void doPost_BulkDelete_ReturnsOutcomePerId() throws Exception {
+        when(request.getPathInfo()).thenReturn("/_bulk-delete");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"ids\":[1,2]}")));
+        when(bookService.deleteBooks(IdSet.of(1, 2))).thenReturn(new BulkResultDTO(List.of(
+                new BulkResultDTO.Outcome(1, BulkResultDTO.Status.DELETED),
+                new BulkResultDTO.Outcome(2, BulkResultDTO.Status.NOT_FOUND))));
+
+        invokeDoPost(request, response);
+
+        printWriter.flush();
+        assertThat(stringWriter.toString())
+                .isEqualTo("{\"results\":[{\"id\":1,\"status\":\"DELETED\"},{\"id\":2,\"status\":\"NOT_FOUND\"}]}");
+        verify(bookService, never()).addBook(any());
+    }
+
+    @Test
+    void doPost_TooManyIds_ReturnsBadRequest() throws Exception {
+        String ids = IntStream.rangeClosed(1, BulkDeleteDTO.MAX_IDS + 1)
+                .mapToObj(String::valueOf).collect(Collectors.joining(","));
+        when(request.getPathInfo()).thenReturn("/_bulk-delete");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"ids\":[" + ids + "]}")));
+
+        invokeDoPost(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void patch_Bulk_ReturnsOutcomePerBook() throws Exception {
+        when(request.getMethod()).thenReturn("PATCH");
+        when(request.getPathInfo()).thenReturn("/_bulk");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader(
+                "{\"items\":[{\"id\":1,\"genre\":\"Poetry\",\"publishedDate\":\"2020-01-01\"},{\"id\":2,\"version\":3,\"title\":\"T\"}]}")));
+        when(bookService.patchBooks(List.of(
+                new BookPatchDTO(1, null, null, LocalDate.of(2020, 1, 1), "Poetry", null),
+                new BookPatchDTO(2, 3L, "T", null, null, null))))
+                .thenReturn(new BulkResultDTO(List.of(
+                        new BulkResultDTO.Outcome(1, BulkResultDTO.Status.UPDATED),
+                        new BulkResultDTO.Outcome(2, BulkResultDTO.Status.CONFLICT))));
+
+        invokeService(request, response);
+
+        printWriter.flush();
+        assertThat(stringWriter.toString())
+                .isEqualTo("{\"results\":[{\"id\":1,\"status\":\"UPDATED\"},{\"id\":2,\"status\":\"CONFLICT\"}]}");
+    }
+
+    @Test
+    void patch_InvalidItems_ReturnsBadRequest() throws Exception {
+        when(request.getMethod()).thenReturn("PATCH");
+        when(request.getPathInfo()).thenReturn("/_bulk");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"items\":[{\"id\":1},{\"id\":1}]}")));
+        when(bookService.patchBooks(anyList())).thenThrow(new IllegalArgumentException("Duplicate book ID 1"));
+
+        invokeService(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        printWriter.flush();
+        assertThat(stringWriter.toString()).contains("Duplicate book ID 1");
+    }
+
+    @Test
+    void patch_SingleBook_MethodNotAllowed() throws Exception {
+        when(request.getMethod()).thenReturn("PATCH");
+        when(request.getPathInfo()).thenReturn("/5");
+
+        invokeService(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        verifyNoInteractions(bookService);
+    }
+
     @Test
     void doDelete_ValidId_NoContent() throws Exception {
         when(request.getPathInfo()).thenReturn("/10");
@@ -260,6 +460,122 @@ class BookServletTest {
         assertThat(stringWriter.toString()).contains("Invalid book ID format");
     }
 
+    @Test
+    void doGet_MatchingETag_ReturnsNotModifiedWithoutLoadingBook() throws Exception {
+        when(request.getPathInfo()).thenReturn("/1");
+        when(request.getHeader("If-None-Match")).thenReturn("W/\"3\"");
+        when(bookService.getBookVersion(1)).thenReturn(Optional.of(new EntityVersion(3, Instant.parse("2024-01-01T00:00:00Z"))));
+
+        invokeDoGet(request, response);
+
+        verify(response).setHeader("ETag", "W/\"3\"");
+        verify(response).addHeader("Vary", "Accept");
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(bookService, never()).getBookById(anyInt());
+    }
+
+    @Test
+    void doGet_StaleETag_ReturnsBookWithNewETag() throws Exception {
+        when(request.getPathInfo()).thenReturn("/1");
+        when(request.getHeader("If-None-Match")).thenReturn("W/\"2\"");
+        when(bookService.getBookVersion(1)).thenReturn(Optional.of(new EntityVersion(3, Instant.parse("2024-01-01T00:00:00Z"))));
+        BookView book = new BookView(1, null, null, null, null, null);
+        when(bookService.getBookById(1)).thenReturn(book);
+
+        invokeDoGet(request, response);
+
+        verify(response).setHeader("ETag", "W/\"3\"");
+        verify(response).setDateHeader("Last-Modified", Instant.parse("2024-01-01T00:00:00Z").toEpochMilli());
+        verify(response, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        printWriter.flush();
+        assertThat(stringWriter.toString()).contains("\"id\":1");
+    }
+
+    @Test
+    void doGet_AllBooksNotModifiedSince_ReturnsNotModified() throws Exception {
+        when(request.getPathInfo()).thenReturn(null);
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(Instant.parse("2024-01-01T00:00:00Z").toEpochMilli());
+        when(bookService.getBooksVersion()).thenReturn(new EntityVersion(5, Instant.parse("2024-01-01T00:00:00.250Z")));
+
+        invokeDoGet(request, response);
+
+        verify(response).addHeader("Vary", "Accept");
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(bookService, never()).getAllBooks();
+    }
+
+    @Test
+    void doGet_FieldsParameter_WritesOnlyRequestedFields() throws Exception {
+        when(request.getPathInfo()).thenReturn(null);
+        when(request.getParameter("fields")).thenReturn("id, title");
+        BookView book = new BookView(1, "1984", null, "Dystopia", null, null);
+        when(bookService.getAllBooks(Set.of("id", "title"))).thenReturn(List.of(book));
+
+        invokeDoGet(request, response);
+
+        verify(bookService, never()).getAllBooks();
+        printWriter.flush();
+        assertThat(stringWriter.toString()).isEqualTo("[{\"id\":1,\"title\":\"1984\"}]");
+    }
+
+    @Test
+    void doGet_UnknownField_ReturnsBadRequest() throws Exception {
+        when(request.getPathInfo()).thenReturn("/1");
+        when(request.getParameter("fields")).thenReturn("isbn");
+        when(bookService.getBookById(1, Set.of("isbn"))).thenThrow(new IllegalArgumentException("Unknown field: isbn"));
+
+        invokeDoGet(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        printWriter.flush();
+        assertThat(stringWriter.toString()).contains("Unknown field: isbn");
+    }
+
+    @Test
+    void doGet_FieldWithQuote_ReturnsBadRequestWithoutEchoingInput() throws Exception {
+        when(request.getPathInfo()).thenReturn("/1");
+        when(request.getParameter("fields")).thenReturn("id,ti\"tle\\");
+
+        invokeDoGet(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        verify(bookService, never()).getBookById(anyInt(), any());
+        printWriter.flush();
+        assertThat(stringWriter.toString()).isEqualTo("{\"error\":\"Invalid field name in 'fields' parameter\"}");
+    }
+
+    @Test
+    void doGet_AcceptCbor_WritesBinaryBody() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(request.getPathInfo()).thenReturn(null);
+        when(request.getHeader("Accept")).thenReturn("application/cbor, application/json;q=0.5");
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+        BookView book = new BookView(1, "1984", null, null, null, null);
+        when(bookService.getAllBooks()).thenReturn(List.of(book));
+
+        invokeDoGet(request, response);
+
+        verify(response).setContentType("application/cbor");
+        verify(response, never()).getWriter();
+        BookDTO[] decoded = new CBORMapper().readValue(body.toByteArray(), BookDTO[].class);
+        assertThat(decoded).hasSize(1);
+        assertThat(decoded[0].getTitle()).isEqualTo("1984");
+    }
+
     private void invokeDoGet(HttpServletRequest request, HttpServletResponse response) throws Exception {
         Method doGetMethod = BookServlet.class.getDeclaredMethod("doGet", HttpServletRequest.class, HttpServletResponse.class);
         doGetMethod.setAccessible(true);
@@ -278,6 +594,12 @@ class BookServletTest {
         doPutMethod.invoke(bookServlet, request, response);
     }
 
+    private void invokeService(HttpServletRequest request, HttpServletResponse response) throws Exception {
+        Method serviceMethod = BookServlet.class.getDeclaredMethod("service", HttpServletRequest.class, HttpServletResponse.class);
+        serviceMethod.setAccessible(true);
+        serviceMethod.invoke(bookServlet, request, response);
+    }
+
     private void invokeDoDelete(HttpServletRequest request, HttpServletResponse response) throws Exception {
         Method doDeleteMethod = BookServlet.class.getDeclaredMethod("doDelete", HttpServletRequest.class, HttpServletResponse.class);
         doDeleteMethod.setAccessible(true);
@@ -0,0 +1,172 @@
+package ServletTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import com.library.servlet.CompressionFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+@ExtendWith(MockitoExtension.class)
+class CompressionFilterTest {
+    private static final String LARGE_BODY = "{\"title\":\"Book\"},".repeat(500);
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    private final ByteArrayOutputStream wire = new ByteArrayOutputStream();
+    private final CompressionFilter filter = new CompressionFilter(true, 1024, 5, 32768);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(request.getMethod()).thenReturn("GET");
+        lenient().when(response.getCharacterEncoding()).thenReturn("UTF-8");
+        lenient().when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                wire.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+    }
+
+    @Test
+    void doFilter_LargeBody_GzipCompressed() throws Exception {
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip, deflate, br");
+
+        filter.doFilter(request, response, writing(LARGE_BODY));
+
+        verify(response).setHeader("Content-Encoding", "gzip");
+        verify(response).addHeader("Vary", "Accept-Encoding");
+        verify(response).setBufferSize(32768);
+        assertThat(wire.size()).isLessThan(LARGE_BODY.length() / 10);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(wire.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(LARGE_BODY);
+        }
+    }
+
+    @Test
+    void doFilter_DeflatePreferredByQuality_DeflateCompressed() throws Exception {
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip;q=0.5, deflate");
+
+        filter.doFilter(request, response, writing(LARGE_BODY));
+
+        verify(response).setHeader("Content-Encoding", "deflate");
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(wire.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(LARGE_BODY);
+        }
+    }
+
+    @Test
+    void doFilter_BodyBelowThreshold_SentAsIsWithContentLength() throws Exception {
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+
+        filter.doFilter(request, response, writing("{\"id\":1}"));
+
+        verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+        verify(response).setContentLength(8);
+        assertThat(wire.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void doFilter_NoAcceptEncoding_PassesThrough() throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verify(response, never()).addHeader("Vary", "Accept-Encoding");
+    }
+
+    @Test
+    void doFilter_GzipRefused_PassesThrough() throws Exception {
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip;q=0, identity");
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilter_NotModified_NoBodyAndNoEncoding() throws Exception {
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+
+        filter.doFilter(request, response, (req, resp) ->
+                ((HttpServletResponse) resp).setStatus(HttpServletResponse.SC_NOT_MODIFIED));
+
+        verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+        verify(response, never()).setContentLength(anyInt());
+        assertThat(wire.size()).isZero();
+    }
+
+    @Test
+    void doFilter_ResetBufferAfterCompressionStarted_SendsNewBodyUncompressed() throws Exception {
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        doAnswer(invocation -> {
+            wire.reset();
+            return null;
+        }).when(response).resetBuffer();
+
+        filter.doFilter(request, response, (req, resp) -> {
+            resp.getWriter().write(LARGE_BODY);
+            resp.resetBuffer();
+            resp.getWriter().write("{\"error\":1}");
+        });
+
+        verify(response).setHeader("Content-Encoding", "gzip");
+        verify(response).setHeader("Content-Encoding", null);
+        verify(response).setContentLength(11);
+        assertThat(wire.toString(StandardCharsets.UTF_8)).isEqualTo("{\"error\":1}");
+    }
+
+    @Test
+    void doFilter_ChainThrows_StillFinishesStream() throws Exception {
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+
+        assertThatThrownBy(() -> filter.doFilter(request, response, (req, resp) -> {
+            resp.getWriter().write(LARGE_BODY);
+            throw new ServletException("boom");
+        })).isInstanceOf(ServletException.class);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(wire.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(LARGE_BODY);
+        }
+    }
+
+    private static FilterChain writing(String body) {
+        return (req, resp) -> {
+            PrintWriter writer = resp.getWriter();
+            writer.write(body);
+            writer.flush();
+        };
+    }
+}
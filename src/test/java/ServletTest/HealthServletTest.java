@@ -0,0 +1,89 @@
+package ServletTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.library.config.ApplicationState;
+import com.library.servlet.HealthServlet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+
+@ExtendWith(MockitoExtension.class)
+class HealthServletTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    private final HealthServlet healthServlet = new HealthServlet();
+    private StringWriter stringWriter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stringWriter = new StringWriter();
+        lenient().when(response.getWriter()).thenReturn(new PrintWriter(stringWriter, true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ApplicationState.reset();
+    }
+
+    @Test
+    void doGet_Live_AlwaysUp() throws Exception {
+        when(request.getPathInfo()).thenReturn("/live");
+
+        invokeDoGet();
+
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        assertThat(stringWriter.toString()).contains("UP");
+    }
+
+    @Test
+    void doGet_Ready_WhileMigrating_ReturnsServiceUnavailable() throws Exception {
+        when(request.getPathInfo()).thenReturn("/ready");
+
+        invokeDoGet();
+
+        verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertThat(stringWriter.toString()).contains("STARTING");
+    }
+
+    @Test
+    void doGet_Ready_AfterMigrations_ReturnsOk() throws Exception {
+        ApplicationState.markReady();
+        when(request.getPathInfo()).thenReturn("/ready");
+
+        invokeDoGet();
+
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        assertThat(stringWriter.toString()).contains("READY");
+    }
+
+    @Test
+    void doGet_UnknownPath_ReturnsNotFound() throws Exception {
+        when(request.getPathInfo()).thenReturn("/unknown");
+
+        invokeDoGet();
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+    }
+
+    private void invokeDoGet() throws Exception {
+        Method doGetMethod = HealthServlet.class.getDeclaredMethod("doGet", HttpServletRequest.class, HttpServletResponse.class);
+        doGetMethod.setAccessible(true);
+        doGetMethod.invoke(healthServlet, request, response);
+    }
+}
@@ -0,0 +1,82 @@
+package ServletTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import com.library.metrics.HttpMetrics;
+import com.library.metrics.PrometheusFormatter;
+import com.library.servlet.MetricsFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletMapping;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private HttpServletMapping mapping;
+
+    private final MetricsFilter filter = new MetricsFilter();
+
+    @Test
+    void doFilter_NumericIdCollapsedIntoRouteTemplate() throws Exception {
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getHttpServletMapping()).thenReturn(mapping);
+        when(mapping.getPattern()).thenReturn("/books/*");
+        when(request.getPathInfo()).thenReturn("/12345");
+        when(response.getStatus()).thenReturn(200);
+
+        filter.doFilter(request, response, mock(FilterChain.class));
+
+        assertThat(countFor("/books/{id}", "GET", 200)).isPositive();
+    }
+
+    @Test
+    void doFilter_ExplicitRouteAttributeWins() throws Exception {
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getAttribute(MetricsFilter.ROUTE_ATTRIBUTE)).thenReturn("/authors/{id}/books");
+        when(response.getStatus()).thenReturn(200);
+
+        filter.doFilter(request, response, mock(FilterChain.class));
+
+        assertThat(countFor("/authors/{id}/books", "GET", 200)).isPositive();
+    }
+
+    @Test
+    void doFilter_ChainThrows_RecordedAsServerError() throws Exception {
+        when(request.getMethod()).thenReturn("DELETE");
+        when(request.getHttpServletMapping()).thenReturn(mapping);
+        when(mapping.getPattern()).thenReturn("/publishers/*");
+        when(request.getPathInfo()).thenReturn("/7");
+        FilterChain chain = mock(FilterChain.class);
+        doThrow(new ServletException("boom")).when(chain).doFilter(request, response);
+
+        assertThatThrownBy(() -> filter.doFilter(request, response, chain)).isInstanceOf(ServletException.class);
+
+        assertThat(countFor("/publishers/{id}", "DELETE", 500)).isPositive();
+        assertThat(PrometheusFormatter.format())
+                .contains("http_server_requests_seconds_count{route=\"/publishers/{id}\",method=\"DELETE\",status=\"500\"}")
+                .contains("quantile=\"0.999\"");
+    }
+
+    private static long countFor(String route, String method, int status) {
+        return HttpMetrics.snapshots().stream()
+                .filter(s -> s.key().equals(new HttpMetrics.SeriesKey(route, method, status)))
+                .mapToLong(s -> s.latency().count())
+                .sum();
+    }
+}
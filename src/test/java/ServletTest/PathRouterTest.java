@@ -0,0 +1,102 @@
+package ServletTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.library.servlet.MetricsFilter;
+import com.library.servlet.PathRouter;
+import com.library.servlet.PathRouter.Kind;
+import com.library.servlet.PathRouter.Route;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletRequest;
+
+class PathRouterTest {
+    private final PathRouter router = new PathRouter("/authors", "books");
+
+    @Test
+    void route_EmptyPath_Collection() {
+        assertThat(router.route((String) null).kind()).isEqualTo(Kind.COLLECTION);
+        assertThat(router.route("/").kind()).isEqualTo(Kind.COLLECTION);
+        assertThat(router.route("/").template()).isEqualTo("/authors");
+    }
+
+    @Test
+    void route_NumericId_Item() {
+        Route route = router.route("/42");
+
+        assertThat(route.kind()).isEqualTo(Kind.ITEM);
+        assertThat(route.id()).isEqualTo(42);
+        assertThat(route.template()).isEqualTo("/authors/{id}");
+        assertThat(router.route("/42/").kind()).isEqualTo(Kind.ITEM);
+    }
+
+    @Test
+    void route_KnownSubResource() {
+        Route route = router.route("/7/books");
+
+        assertThat(route.kind()).isEqualTo(Kind.SUB_RESOURCE);
+        assertThat(route.id()).isEqualTo(7);
+        assertThat(route.subResource()).isEqualTo("books");
+        assertThat(route.template()).isEqualTo("/authors/{id}/books");
+    }
+
+    @Test
+    void route_BadIds_InvalidIdWithoutException() {
+        assertThat(router.route("/abc").kind()).isEqualTo(Kind.INVALID_ID);
+        assertThat(router.route("/-1").kind()).isEqualTo(Kind.INVALID_ID);
+        assertThat(router.route("/2147483648").kind()).isEqualTo(Kind.INVALID_ID);
+        assertThat(router.route("/2147483647").id()).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void route_UnknownShape_Malformed() {
+        assertThat(router.route("/1/2").kind()).isEqualTo(Kind.MALFORMED);
+        assertThat(router.route("/1/book").kind()).isEqualTo(Kind.MALFORMED);
+        assertThat(router.route("//1").kind()).isEqualTo(Kind.MALFORMED);
+        assertThat(router.route("/1/books/2").kind()).isEqualTo(Kind.MALFORMED);
+    }
+
+    @Test
+    void route_ExternalKey_ByKey() {
+        Route route = router.route("/by-key/isbn-978-5");
+
+        assertThat(route.kind()).isEqualTo(Kind.BY_KEY);
+        assertThat(route.key()).isEqualTo("isbn-978-5");
+        assertThat(route.template()).isEqualTo("/authors/by-key/{key}");
+        assertThat(router.route("/by-key/isbn-978-5/").key()).isEqualTo("isbn-978-5");
+    }
+
+    @Test
+    void route_BadExternalKey_Malformed() {
+        assertThat(router.route("/by-key/").kind()).isEqualTo(Kind.MALFORMED);
+        assertThat(router.route("/by-key/a/b").kind()).isEqualTo(Kind.MALFORMED);
+        assertThat(router.route("/by-key/" + "k".repeat(256)).kind()).isEqualTo(Kind.MALFORMED);
+        assertThat(router.route("/by-key").kind()).isEqualTo(Kind.INVALID_ID);
+    }
+
+    @Test
+    void route_DeclaredAction_Action() {
+        PathRouter withAction = new PathRouter("/publishers", "books", "_bulk-delete");
+
+        Route route = withAction.route("/_bulk-delete");
+
+        assertThat(route.kind()).isEqualTo(Kind.ACTION);
+        assertThat(route.subResource()).isEqualTo("_bulk-delete");
+        assertThat(route.template()).isEqualTo("/publishers/_bulk-delete");
+        assertThat(withAction.route("/_bulk-delete/").kind()).isEqualTo(Kind.ACTION);
+        assertThat(withAction.route("/_bulk").kind()).isEqualTo(Kind.MALFORMED);
+        assertThat(withAction.route("/_bulk-delete/1").kind()).isEqualTo(Kind.MALFORMED);
+        assertThat(router.route("/_bulk-delete").kind()).isEqualTo(Kind.MALFORMED);
+    }
+
+    @Test
+    void route_Request_StoresTemplateForMetrics() {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getPathInfo()).thenReturn("/5");
+
+        router.route(request);
+
+        verify(request).setAttribute(MetricsFilter.ROUTE_ATTRIBUTE, "/authors/{id}");
+    }
+}
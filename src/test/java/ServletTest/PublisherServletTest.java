@@ -5,6 +5,13 @@ import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.dto.PublisherDTO;
+import com.library.dto.PublisherView;
+import com.library.dto.BookView;
+import com.library.dto.BulkResultDTO;
+import com.library.dto.IdSet;
+import com.library.dto.PageDTO;
+import com.library.model.EntityVersion;
+import com.library.service.BookService;
 import com.library.service.PublisherService;
 import com.library.servlet.PublisherServlet;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,7 +27,10 @@ import javax.sql.DataSource;
 import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 
 @ExtendWith(MockitoExtension.class)
 class PublisherServletTest {
@@ -28,6 +38,9 @@ class PublisherServletTest {
     @Mock
     private PublisherService publisherService;
 
+    @Mock
+    private BookService bookService;
+
     @Mock
     private HttpServletRequest request;
 
@@ -64,10 +77,7 @@ class PublisherServletTest {
     void doGet_WriterThrowsIOException_TriggersServerError() throws Exception {
         when(request.getPathInfo()).thenReturn("/1");
         when(response.getWriter()).thenThrow(new IOException("Test IO Exception"));
-        when(publisherService.getPublisherById(1)).thenReturn(new PublisherDTO() {{
-            setId(1);
-            setName("Эксмо");
-        }});
+        when(publisherService.getPublisherById(1)).thenReturn(new PublisherView(1, "Эксмо", null));
 
         invokeDoGet(request, response);
 
@@ -78,10 +88,8 @@ class PublisherServletTest {
     void doGet_AllPublishers_ReturnsList() throws Exception {
         // Arrange
         when(request.getPathInfo()).thenReturn(null); // GET /publishers
-        PublisherDTO publisherDTO = new PublisherDTO();
-        publisherDTO.setId(1);
-        publisherDTO.setName("Эксмо");
-        when(publisherService.getAllPublishers()).thenReturn(List.of(publisherDTO));
+        PublisherView publisher = new PublisherView(1, "Эксмо", null);
+        when(publisherService.getAllPublishers()).thenReturn(List.of(publisher));
 
         // Act
         invokeDoGet(request, response);
@@ -89,17 +97,14 @@ class PublisherServletTest {
         // Assert
         verify(response).setContentType("application/json");
         printWriter.flush();
-        // Проверяем, что вернулся список с одним PublisherDTO
+        // Проверяем, что вернулся список с одним издателем
         assertThat(stringWriter.toString()).contains("\"id\":1", "\"name\":\"Эксмо\"");
     }
 
     @Test
     void doGet_OnePublisher_ValidId() throws Exception {
         when(request.getPathInfo()).thenReturn("/1");
-        PublisherDTO publisherDTO = new PublisherDTO();
-        publisherDTO.setId(1);
-        publisherDTO.setName("Эксмо");
-        when(publisherService.getPublisherById(1)).thenReturn(publisherDTO);
+        when(publisherService.getPublisherById(1)).thenReturn(new PublisherView(1, "Эксмо", null));
 
         invokeDoGet(request, response);
 
@@ -156,6 +161,46 @@ class PublisherServletTest {
         assertThat(stringWriter.toString()).contains("Invalid request:");
     }
 
+    @Test
+    void doPost_BulkDelete_ReturnsOutcomePerId() throws Exception {
+        when(request.getPathInfo()).thenReturn("/_bulk-delete");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"ids\":[1,2]}")));
+        when(publisherService.deletePublishers(IdSet.of(1, 2))).thenReturn(new BulkResultDTO(List.of(
+                new BulkResultDTO.Outcome(1, BulkResultDTO.Status.DELETED),
+                new BulkResultDTO.Outcome(2, BulkResultDTO.Status.NOT_FOUND))));
+
+        invokeDoPost(request, response);
+
+        printWriter.flush();
+        assertThat(stringWriter.toString())
+                .isEqualTo("{\"results\":[{\"id\":1,\"status\":\"DELETED\"},{\"id\":2,\"status\":\"NOT_FOUND\"}]}");
+        verify(publisherService, never()).addPublisher(any());
+    }
+
+    @Test
+    void doPost_BulkDeleteInvalidBody_ReturnsBadRequest() throws Exception {
+        when(request.getPathInfo()).thenReturn("/_bulk-delete");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"ids\":\"x\"}")));
+
+        invokeDoPost(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        verifyNoInteractions(publisherService);
+    }
+
+    @Test
+    void doPut_ByKeyMalformedBody_ReturnsBadRequest() throws Exception {
+        when(request.getPathInfo()).thenReturn("/by-key/isni-1");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"name\"")));
+
+        invokeDoPut(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        printWriter.flush();
+        assertThat(stringWriter.toString()).contains("Invalid request:");
+        verifyNoInteractions(publisherService);
+    }
+
     @Test
     void doPut_ValidId_Success() throws Exception {
         when(request.getPathInfo()).thenReturn("/2");
@@ -168,7 +213,7 @@ class PublisherServletTest {
 
         invokeDoPut(request, response);
 
-        verify(publisherService).updatePublisher(eq(2), any(PublisherDTO.class));
+        verify(publisherService).updatePublisher(eq(2), any(PublisherDTO.class), eq(OptionalLong.empty()));
         verify(response).setStatus(HttpServletResponse.SC_OK);
     }
 
@@ -227,6 +272,45 @@ class PublisherServletTest {
         assertThat(stringWriter.toString()).contains("Invalid publisher ID format");
     }
 
+    @Test
+    void doGet_PublisherBooks_ReturnsPageWithNextLink() throws Exception {
+        when(request.getPathInfo()).thenReturn("/1/books");
+        when(request.getRequestURI()).thenReturn("/publishers/1/books");
+        lenient().when(request.getParameter("after")).thenReturn("10");
+        lenient().when(request.getParameter("limit")).thenReturn("1");
+        when(publisherService.getPublisherVersion(1)).thenReturn(Optional.of(new EntityVersion(1, Instant.EPOCH)));
+        BookView book = new BookView(11, "Война и мир", null, null, 1, null);
+        when(bookService.getBooksByPublisher(1, 10, 1)).thenReturn(new PageDTO<>(List.of(book), 11));
+
+        invokeDoGet(request, response);
+
+        verify(response).setHeader("Link", "</publishers/1/books?after=11&limit=1>; rel=\"next\"");
+        printWriter.flush();
+        assertThat(stringWriter.toString()).contains("\"nextAfter\":11").contains("Война и мир");
+    }
+
+    @Test
+    void doGet_BooksOfMissingPublisher_Returns404() throws Exception {
+        when(request.getPathInfo()).thenReturn("/99/books");
+        when(publisherService.getPublisherVersion(99)).thenReturn(Optional.empty());
+
+        invokeDoGet(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void doGet_BooksWithInvalidLimit_Returns400() throws Exception {
+        when(request.getPathInfo()).thenReturn("/1/books");
+        lenient().when(request.getParameter("limit")).thenReturn("-5");
+
+        invokeDoGet(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        verifyNoInteractions(bookService);
+    }
+
     private void invokeDoGet(HttpServletRequest request, HttpServletResponse response) throws Exception {
         Method doGetMethod = PublisherServlet.class.getDeclaredMethod("doGet", HttpServletRequest.class, HttpServletResponse.class);
         doGetMethod.setAccessible(true);
@@ -0,0 +1,71 @@
+package ServletTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.library.config.ApplicationState;
+import com.library.servlet.ReadinessFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+@ExtendWith(MockitoExtension.class)
+class ReadinessFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain chain;
+
+    private final ReadinessFilter filter = new ReadinessFilter();
+
+    @AfterEach
+    void tearDown() {
+        ApplicationState.reset();
+    }
+
+    @Test
+    void doFilter_NotReady_RejectsApiTraffic() throws Exception {
+        StringWriter stringWriter = new StringWriter();
+        when(request.getServletPath()).thenReturn("/books");
+        when(response.getWriter()).thenReturn(new PrintWriter(stringWriter, true));
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(response).setHeader("Retry-After", "5");
+        verifyNoInteractions(chain);
+        assertThat(stringWriter.toString()).contains("migrations in progress");
+    }
+
+    @Test
+    void doFilter_NotReady_PassesHealthChecks() throws Exception {
+        when(request.getServletPath()).thenReturn("/health");
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilter_Ready_PassesTraffic() throws Exception {
+        ApplicationState.markReady();
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verifyNoInteractions(response);
+    }
+}
@@ -0,0 +1,57 @@
+package ServletTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.library.config.RequestDeadline;
+import com.library.servlet.RequestDeadlineFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicLong;
+
+@ExtendWith(MockitoExtension.class)
+class RequestDeadlineFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    private final RequestDeadlineFilter filter = new RequestDeadlineFilter(30000);
+
+    @Test
+    void doFilter_UsesConfiguredBudget() throws Exception {
+        long remaining = remainingInsideChain(null);
+
+        assertThat(remaining).isBetween(29000L, 30000L);
+        assertThat(RequestDeadline.remainingMillis()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void doFilter_ClientTimeoutHeader_NarrowsBudget() throws Exception {
+        assertThat(remainingInsideChain("2000")).isBetween(1000L, 2000L);
+    }
+
+    @Test
+    void doFilter_ClientTimeoutHeader_CannotExceedMaximum() throws Exception {
+        assertThat(remainingInsideChain("600000")).isBetween(29000L, 30000L);
+    }
+
+    @Test
+    void doFilter_MalformedHeader_Ignored() throws Exception {
+        assertThat(remainingInsideChain("abc")).isBetween(29000L, 30000L);
+    }
+
+    private long remainingInsideChain(String header) throws Exception {
+        when(request.getHeader(RequestDeadlineFilter.TIMEOUT_HEADER)).thenReturn(header);
+        AtomicLong remaining = new AtomicLong();
+        filter.doFilter(request, response, (req, resp) -> remaining.set(RequestDeadline.remainingMillis()));
+        return remaining.get();
+    }
+}
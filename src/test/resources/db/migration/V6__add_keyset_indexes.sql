@@ -0,0 +1,6 @@
+-- Постраничные выборки книг издателя и автора (keyset: WHERE ... AND id > ? ORDER BY id LIMIT ?)
+-- читают индекс по порядку и останавливаются на LIMIT, без сортировки всего набора
+CREATE INDEX idx_books_publisher_id_id ON books (publisher_id, id);
+
+-- PK book_author (book_id, author_id) не помогает поиску по автору
+CREATE INDEX idx_book_author_author_id_book_id ON book_author (author_id, book_id);
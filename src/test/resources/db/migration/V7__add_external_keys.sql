@@ -0,0 +1,11 @@
+-- Ключ записи во внешней системе для идемпотентных upsert (PUT /{ресурс}/by-key/{key}):
+-- повтор запроса обновляет ту же строку вместо создания дубля.
+-- У строк, созданных через POST, ключа нет: NULL не участвует в уникальности
+ALTER TABLE publishers ADD COLUMN external_key VARCHAR(255);
+ALTER TABLE authors ADD COLUMN external_key VARCHAR(255);
+ALTER TABLE books ADD COLUMN external_key VARCHAR(255);
+
+-- Полный (не частичный) уникальный индекс: его выводит ON CONFLICT (external_key)
+CREATE UNIQUE INDEX idx_publishers_external_key ON publishers (external_key);
+CREATE UNIQUE INDEX idx_authors_external_key ON authors (external_key);
+CREATE UNIQUE INDEX idx_books_external_key ON books (external_key);